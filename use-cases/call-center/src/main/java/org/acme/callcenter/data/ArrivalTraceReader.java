@@ -0,0 +1,79 @@
+package org.acme.callcenter.data;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import org.acme.callcenter.domain.Skill;
+
+/**
+ * Reads a recorded arrival trace in CSV, one call per line:
+ *
+ * <pre>
+ * offsetSeconds,durationSeconds,requiredSkills
+ * 0.0,30,EN|Car insurance
+ * 1.5,45,ES|Life insurance
+ * </pre>
+ *
+ * The header and the lines that start with {@code #} are skipped. The skills are separated by {@code |},
+ * because their names contain spaces. A skill is spelled as in JSON ({@link Skill#getName()}, such as
+ * {@code Car insurance}) or by its enum constant (such as {@code CAR_INSURANCE}).
+ * The same trace in JSON is an array of {@link CallArrival}s, which Jackson reads as is.
+ */
+public final class ArrivalTraceReader {
+
+    private static final String HEADER_PREFIX = "offsetSeconds";
+
+    private ArrivalTraceReader() {
+    }
+
+    public static List<CallArrival> readCsv(Reader reader) throws IOException {
+        List<CallArrival> arrivals = new ArrayList<>();
+        BufferedReader bufferedReader = new BufferedReader(reader);
+        int lineNumber = 0;
+        String line;
+        while ((line = bufferedReader.readLine()) != null) {
+            lineNumber++;
+            line = line.strip();
+            if (line.isEmpty() || line.startsWith("#") || line.startsWith(HEADER_PREFIX)) {
+                continue;
+            }
+            String[] columns = line.split(",", -1);
+            if (columns.length != 3) {
+                throw new IllegalArgumentException("The line (" + lineNumber + ") of the arrival trace (" + line
+                        + ") must have 3 columns: offsetSeconds, durationSeconds and requiredSkills.");
+            }
+            try {
+                double offsetSeconds = Double.parseDouble(columns[0].strip());
+                int durationSeconds = Integer.parseInt(columns[1].strip());
+                Set<Skill> requiredSkills = EnumSet.noneOf(Skill.class);
+                for (String skill : columns[2].split("\\|")) {
+                    skill = skill.strip();
+                    if (!skill.isEmpty()) {
+                        requiredSkills.add(parseSkill(skill));
+                    }
+                }
+                arrivals.add(new CallArrival(offsetSeconds, durationSeconds, requiredSkills));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("The line (" + lineNumber + ") of the arrival trace (" + line
+                        + ") is invalid.", e);
+            }
+        }
+        return arrivals;
+    }
+
+    private static Skill parseSkill(String skill) {
+        for (Skill candidate : Skill.values()) {
+            if (candidate.getName().equals(skill) || candidate.name().equals(skill)) {
+                return candidate;
+            }
+        }
+        throw new IllegalArgumentException("The skill (" + skill + ") must be one of " + Arrays.toString(
+                Arrays.stream(Skill.values()).map(Skill::getName).toArray()) + " or their enum constants.");
+    }
+}
@@ -0,0 +1,40 @@
+package org.acme.callcenter.data;
+
+import java.util.Set;
+
+import org.acme.callcenter.domain.Skill;
+
+/**
+ * A call of a recorded arrival trace.
+ */
+public class CallArrival {
+
+    /**
+     * Since the start of the trace.
+     */
+    private double offsetSeconds;
+    private int durationSeconds;
+    private Set<Skill> requiredSkills;
+
+    public CallArrival() {
+        // Required by Jackson.
+    }
+
+    public CallArrival(double offsetSeconds, int durationSeconds, Set<Skill> requiredSkills) {
+        this.offsetSeconds = offsetSeconds;
+        this.durationSeconds = durationSeconds;
+        this.requiredSkills = requiredSkills;
+    }
+
+    public double getOffsetSeconds() {
+        return offsetSeconds;
+    }
+
+    public int getDurationSeconds() {
+        return durationSeconds;
+    }
+
+    public Set<Skill> getRequiredSkills() {
+        return requiredSkills;
+    }
+}
@@ -49,6 +49,13 @@ public class DataGenerator {
                 durationSeconds);
     }
 
+    public Call generateCall(Set<Skill> requiredSkills, int durationSeconds) {
+        // Copied into an EnumSet first, because an empty set of another type cannot be copied into an EnumSet.
+        Set<Skill> requiredSkillSet = EnumSet.noneOf(Skill.class);
+        requiredSkillSet.addAll(requiredSkills);
+        return new Call(nextId(), generatePhoneNumber(), requiredSkillSet, durationSeconds);
+    }
+
     private synchronized Skill pickRandomProductSkill() {
         return PRODUCT_SKILLS[RANDOM.nextInt(PRODUCT_SKILLS.length)];
     }
@@ -3,16 +3,19 @@ package org.acme.callcenter.domain;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.EnumSet;
 import java.util.List;
 import java.util.Set;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 public class Agent extends PreviousCallOrAgent {
 
     private String name;
     private Set<Skill> skills;
+    private long skillMask;
 
     public Agent() {
         // Required by OptaPlanner.
@@ -21,13 +24,15 @@ public class Agent extends PreviousCallOrAgent {
     public Agent(long id, String name) {
         super(id);
         this.name = name;
-        this.skills = EnumSet.noneOf(Skill.class);
+        this.skills = Collections.unmodifiableSet(EnumSet.noneOf(Skill.class));
+        this.skillMask = 0L;
     }
 
     public Agent(long id, String name, Set<Skill> skills) {
         super(id);
         this.name = name;
-        this.skills = EnumSet.copyOf(skills);
+        this.skills = Collections.unmodifiableSet(EnumSet.copyOf(skills));
+        this.skillMask = Skill.toMask(this.skills);
     }
 
     public Agent(long id, String name, Skill... skills) {
@@ -50,11 +55,27 @@ public class Agent extends PreviousCallOrAgent {
         return Duration.ZERO;
     }
 
+    @Override
+    public long getNanosTillPickUp(long nowNanoOfDay) {
+        return 0L;
+    }
+
     public String getName() {
         return name;
     }
 
+    /**
+     * @return never null, unmodifiable, because the {@link #getSkillMask() skill mask} does not follow changes
+     */
     public Set<Skill> getSkills() {
         return skills;
     }
+
+    /**
+     * @return the {@link #getSkills() skills} as a {@link Skill#toMask(Set) bit mask}
+     */
+    @JsonIgnore
+    public long getSkillMask() {
+        return skillMask;
+    }
 }
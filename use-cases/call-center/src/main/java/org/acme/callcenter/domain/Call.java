@@ -3,6 +3,7 @@ package org.acme.callcenter.domain;
 import java.time.Duration;
 import java.time.LocalTime;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.EnumSet;
 import java.util.Objects;
 import java.util.Set;
@@ -20,8 +21,14 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 @PlanningEntity
 public class Call extends PreviousCallOrAgent {
 
+    /**
+     * The {@link #getEstimatedWaitingNanos() estimated waiting} of a call that is not assigned to an agent.
+     */
+    public static final long NO_ESTIMATE = Long.MIN_VALUE;
+
     private String phoneNumber;
     private Set<Skill> requiredSkills;
+    private long requiredSkillMask;
     private Duration duration = Duration.ZERO;
     private LocalTime startTime;
     private LocalTime pickUpTime;
@@ -37,8 +44,10 @@ public class Call extends PreviousCallOrAgent {
     @AnchorShadowVariable(sourceVariableName = "previousCallOrAgent")
     private Agent agent;
 
+    // In nanoseconds, so the variable listener does not allocate Duration instances.
+    // Boxed, because a shadow variable cannot be primitive, but only boxed when the estimate changes.
     @ShadowVariable(variableListenerClass = ResponseTimeUpdatingVariableListener.class, sourceVariableName = "previousCallOrAgent")
-    private Duration estimatedWaiting;
+    private Long estimatedWaitingNanos;
 
     public Call() {
         // Required by OptaPlanner.
@@ -47,21 +56,25 @@ public class Call extends PreviousCallOrAgent {
     public Call(long id, String phoneNumber) {
         super(id);
         this.phoneNumber = phoneNumber;
-        this.requiredSkills = EnumSet.noneOf(Skill.class);
-        this.startTime = LocalTime.now();
+        this.requiredSkills = Collections.unmodifiableSet(EnumSet.noneOf(Skill.class));
+        this.startTime = CallCenterClock.now();
     }
 
     public Call(long id, String phoneNumber, Set<Skill> requiredSkills, int durationSeconds) {
         super(id);
         this.phoneNumber = phoneNumber;
-        this.requiredSkills = EnumSet.copyOf(requiredSkills);
+        this.requiredSkills = Collections.unmodifiableSet(EnumSet.copyOf(requiredSkills));
+        this.requiredSkillMask = Skill.toMask(this.requiredSkills);
         this.duration = Duration.ofSeconds(durationSeconds);
-        this.startTime = LocalTime.now();
+        this.startTime = CallCenterClock.now();
     }
 
     public Call(long id, String phoneNumber, Skill... requiredSkills) {
         this(id, phoneNumber);
-        this.requiredSkills.addAll(Arrays.asList(requiredSkills));
+        Set<Skill> requiredSkillSet = EnumSet.noneOf(Skill.class);
+        requiredSkillSet.addAll(Arrays.asList(requiredSkills));
+        this.requiredSkills = Collections.unmodifiableSet(requiredSkillSet);
+        this.requiredSkillMask = Skill.toMask(this.requiredSkills);
     }
 
     public int getMissingSkillCount() {
@@ -69,29 +82,36 @@ public class Call extends PreviousCallOrAgent {
             return 0;
         }
 
-        return (int) requiredSkills.stream()
-                .filter(skill -> !agent.getSkills().contains(skill))
-                .count();
+        return Long.bitCount(requiredSkillMask & ~agent.getSkillMask());
     }
 
     @Override
     public Duration getDurationTillPickUp() {
-        Duration durationTillPickUp;
-        if (estimatedWaiting == null) {
+        if (estimatedWaitingNanos == null) {
             return null;
-        } else {
-            durationTillPickUp = estimatedWaiting.plus(getDuration());
-            if (pickUpTime != null) {
-                durationTillPickUp = durationTillPickUp.minus(Duration.between(pickUpTime, LocalTime.now()));
-            }
         }
-        return durationTillPickUp;
+        return Duration.ofNanos(getNanosTillPickUp(CallCenterClock.now().toNanoOfDay()));
+    }
+
+    @Override
+    public long getNanosTillPickUp(long nowNanoOfDay) {
+        if (estimatedWaitingNanos == null) {
+            return NO_ESTIMATE;
+        }
+        long nanosTillPickUp = estimatedWaitingNanos + duration.toNanos();
+        if (pickUpTime != null) {
+            nanosTillPickUp -= nowNanoOfDay - pickUpTime.toNanoOfDay();
+        }
+        return nanosTillPickUp;
     }
 
     public String getPhoneNumber() {
         return phoneNumber;
     }
 
+    /**
+     * @return never null, unmodifiable, because the required skill mask does not follow changes
+     */
     public Set<Skill> getRequiredSkills() {
         return requiredSkills;
     }
@@ -109,7 +129,23 @@ public class Call extends PreviousCallOrAgent {
     }
 
     public Duration getEstimatedWaiting() {
-        return estimatedWaiting;
+        return estimatedWaitingNanos == null ? null : Duration.ofNanos(estimatedWaitingNanos);
+    }
+
+    /**
+     * @return {@link #NO_ESTIMATE} if the call is not assigned to an agent
+     */
+    @JsonIgnore
+    public long getEstimatedWaitingNanos() {
+        return estimatedWaitingNanos == null ? NO_ESTIMATE : estimatedWaitingNanos;
+    }
+
+    /**
+     * @return rounded down, like {@link Duration#getSeconds()}; 0 if the call is not assigned to an agent
+     */
+    @JsonIgnore
+    public long getEstimatedWaitingSeconds() {
+        return estimatedWaitingNanos == null ? 0L : Math.floorDiv(estimatedWaitingNanos, 1_000_000_000L);
     }
 
     public void setPinned(boolean pinned) {
@@ -125,7 +161,14 @@ public class Call extends PreviousCallOrAgent {
     }
 
     public void setEstimatedWaiting(Duration estimatedWaiting) {
-        this.estimatedWaiting = estimatedWaiting;
+        this.estimatedWaitingNanos = estimatedWaiting == null ? null : estimatedWaiting.toNanos();
+    }
+
+    /**
+     * @param estimatedWaitingNanos {@link #NO_ESTIMATE} if the call is not assigned to an agent
+     */
+    public void setEstimatedWaitingNanos(long estimatedWaitingNanos) {
+        this.estimatedWaitingNanos = estimatedWaitingNanos == NO_ESTIMATE ? null : estimatedWaitingNanos;
     }
 
     public Duration getDuration() {
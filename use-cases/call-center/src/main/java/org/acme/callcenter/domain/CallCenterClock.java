@@ -0,0 +1,46 @@
+package org.acme.callcenter.domain;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalTime;
+
+/**
+ * The time of the call center, read by the calls, the solver and the simulation instead of the system clock.
+ * <p>
+ * OptaPlanner creates the variable listeners and Jackson creates the calls, so neither can have a clock injected.
+ * The clock is replaced for the whole application instead, for example by a {@link VirtualClock} during a replay.
+ */
+public final class CallCenterClock {
+
+    private static volatile Clock clock = Clock.systemDefaultZone();
+
+    private CallCenterClock() {
+    }
+
+    public static LocalTime now() {
+        return LocalTime.now(clock);
+    }
+
+    public static Clock getClock() {
+        return clock;
+    }
+
+    public static void setClock(Clock clock) {
+        CallCenterClock.clock = clock;
+    }
+
+    public static void resetClock() {
+        clock = Clock.systemDefaultZone();
+    }
+
+    /**
+     * @return how many real nanoseconds pass during that duration of the call center time
+     */
+    public static long toRealNanos(Duration duration) {
+        Clock currentClock = clock;
+        if (currentClock instanceof VirtualClock) {
+            return (long) (duration.toNanos() / ((VirtualClock) currentClock).getSpeed());
+        }
+        return duration.toNanos();
+    }
+}
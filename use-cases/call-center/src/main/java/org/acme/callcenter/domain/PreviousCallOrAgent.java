@@ -35,6 +35,14 @@ public abstract class PreviousCallOrAgent {
 
     public abstract Duration getDurationTillPickUp();
 
+    /**
+     * Allocation-free variant of {@link #getDurationTillPickUp()}, for the variable listener.
+     *
+     * @param nowNanoOfDay the current time, as {@link java.time.LocalTime#toNanoOfDay()}
+     * @return {@link Call#NO_ESTIMATE} if unknown
+     */
+    public abstract long getNanosTillPickUp(long nowNanoOfDay);
+
     @PlanningId
     public Long getId() {
         return id;
@@ -1,5 +1,7 @@
 package org.acme.callcenter.domain;
 
+import java.util.Set;
+
 import com.fasterxml.jackson.annotation.JsonValue;
 
 public enum Skill {
@@ -11,6 +13,13 @@ public enum Skill {
     LIFE_INSURANCE("Life insurance"),
     PROPERTY_INSURANCE("Property insurance");
 
+    static {
+        if (values().length > Long.SIZE) {
+            throw new IllegalStateException("The skill count (" + values().length + ") must not exceed "
+                    + Long.SIZE + ", because a skill mask has one bit per skill.");
+        }
+    }
+
     private String name;
 
     Skill(String name) {
@@ -21,4 +30,19 @@ public enum Skill {
     public String getName() {
         return name;
     }
+
+    /**
+     * A set of skills as a bit mask, so skill sets can be compared without iterating or allocating.
+     * Supports up to 64 skills, which the static initializer checks.
+     *
+     * @param skills never null
+     * @return the bit {@code 1L << ordinal()} is set for every skill in the set
+     */
+    public static long toMask(Set<Skill> skills) {
+        long mask = 0L;
+        for (Skill skill : skills) {
+            mask |= 1L << skill.ordinal();
+        }
+        return mask;
+    }
 }
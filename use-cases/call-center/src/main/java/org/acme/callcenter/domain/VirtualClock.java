@@ -0,0 +1,50 @@
+package org.acme.callcenter.domain;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+
+/**
+ * A clock that starts at an origin and runs {@link #getSpeed() speed} times faster than the real time,
+ * so that a recorded scenario can be replayed in a fraction of its duration.
+ */
+public final class VirtualClock extends Clock {
+
+    private final Instant origin;
+    private final long originNanoTime;
+    private final double speed;
+    private final ZoneId zone;
+
+    public VirtualClock(Instant origin, double speed, ZoneId zone) {
+        this(origin, System.nanoTime(), speed, zone);
+    }
+
+    private VirtualClock(Instant origin, long originNanoTime, double speed, ZoneId zone) {
+        if (!(speed > 0.0) || Double.isInfinite(speed)) {
+            throw new IllegalArgumentException("The speed (" + speed + ") must be positive and finite.");
+        }
+        this.origin = origin;
+        this.originNanoTime = originNanoTime;
+        this.speed = speed;
+        this.zone = zone;
+    }
+
+    public double getSpeed() {
+        return speed;
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+        return new VirtualClock(origin, originNanoTime, speed, zone);
+    }
+
+    @Override
+    public Instant instant() {
+        return origin.plusNanos((long) ((System.nanoTime() - originNanoTime) * speed));
+    }
+}
@@ -0,0 +1,43 @@
+package org.acme.callcenter.rest;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import jakarta.inject.Inject;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.DefaultValue;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.MediaType;
+
+import org.acme.callcenter.data.ArrivalTraceReader;
+import org.acme.callcenter.data.CallArrival;
+import org.acme.callcenter.service.LatencyReport;
+import org.acme.callcenter.service.ReplayService;
+
+@Path("/replay")
+public class ReplayResource {
+
+    private static final String TEXT_CSV = "text/csv";
+
+    @Inject
+    ReplayService replayService;
+
+    @POST
+    @Consumes(TEXT_CSV)
+    @Produces(MediaType.APPLICATION_JSON)
+    public LatencyReport replayCsv(String trace, @QueryParam("speed") @DefaultValue("10") double speed)
+            throws IOException {
+        return replayService.replay(ArrivalTraceReader.readCsv(new StringReader(trace)), speed);
+    }
+
+    @POST
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    public LatencyReport replayJson(List<CallArrival> trace, @QueryParam("speed") @DefaultValue("10") double speed) {
+        return replayService.replay(trace, speed);
+    }
+}
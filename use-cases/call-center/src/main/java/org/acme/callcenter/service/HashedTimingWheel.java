@@ -0,0 +1,151 @@
+package org.acme.callcenter.service;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jboss.logging.Logger;
+
+/**
+ * Runs many short tasks, such as the ends of the simulated calls, after a delay, with constant overhead per task.
+ * <p>
+ * The timeouts are hashed by their deadline tick into the buckets of a wheel,
+ * which a single thread advances by one bucket per tick, running the expired tasks of that bucket.
+ * Scheduling only appends to a lock-free queue, which that thread drains into the buckets on the next tick.
+ * Cancelling only marks the timeout, which is dropped when its bucket comes around.
+ * A task runs up to one tick late, so the tick must be small compared to the delays.
+ */
+final class HashedTimingWheel {
+
+    private static final Logger LOGGER = Logger.getLogger(HashedTimingWheel.class);
+
+    private final long tickNanos;
+    private final ArrayDeque<Timeout>[] buckets;
+    private final int bucketMask;
+    private final Queue<Timeout> newTimeouts = new ConcurrentLinkedQueue<>();
+    private final ScheduledExecutorService ticker;
+    private final long startNanos;
+    // Only accessed by the ticker thread.
+    private long tick = 0L;
+
+    /**
+     * @param tickDuration the precision of the delays
+     * @param bucketCount rounded up to a power of 2; delays up to {@code tickDuration * bucketCount}
+     *        are expired without ever being looked at before their deadline
+     * @param threadName the name of the ticker thread
+     */
+    @SuppressWarnings("unchecked")
+    HashedTimingWheel(Duration tickDuration, int bucketCount, String threadName) {
+        if (tickDuration.isNegative() || tickDuration.isZero()) {
+            throw new IllegalArgumentException("The tickDuration (" + tickDuration + ") must be positive.");
+        }
+        if (bucketCount < 1 || bucketCount > (1 << 30)) {
+            throw new IllegalArgumentException("The bucketCount (" + bucketCount + ") must be between 1 and 2^30.");
+        }
+        this.tickNanos = tickDuration.toNanos();
+        int powerOfTwoBucketCount = Integer.highestOneBit(bucketCount - 1) << 1;
+        this.buckets = new ArrayDeque[Math.max(1, powerOfTwoBucketCount)];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new ArrayDeque<>();
+        }
+        this.bucketMask = buckets.length - 1;
+        this.ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, threadName);
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.startNanos = System.nanoTime();
+        ticker.scheduleAtFixedRate(this::advance, tickNanos, tickNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Thread-safe.
+     *
+     * @param task never null, runs on the ticker thread, so it must be short
+     * @return never null
+     */
+    Timeout schedule(Runnable task, long delay, TimeUnit timeUnit) {
+        Timeout timeout = new Timeout(task, System.nanoTime() - startNanos + timeUnit.toNanos(delay));
+        newTimeouts.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * The timeouts that are scheduled and not expired or cancelled yet are never run.
+     */
+    void stop() {
+        ticker.shutdownNow();
+    }
+
+    private void advance() {
+        Timeout timeout;
+        while ((timeout = newTimeouts.poll()) != null) {
+            if (!timeout.isCancelled()) {
+                // Tick t runs at (t + 1) * tickNanos, so it is the first tick at or after the deadline.
+                long deadlineTick = Math.max(tick, Math.floorDiv(timeout.deadlineNanos + tickNanos - 1, tickNanos) - 1);
+                timeout.remainingRounds = (deadlineTick - tick) / buckets.length;
+                buckets[(int) (deadlineTick & bucketMask)].add(timeout);
+            }
+        }
+        Iterator<Timeout> iterator = buckets[(int) (tick & bucketMask)].iterator();
+        while (iterator.hasNext()) {
+            timeout = iterator.next();
+            if (timeout.isCancelled()) {
+                iterator.remove();
+            } else if (timeout.remainingRounds > 0) {
+                timeout.remainingRounds--;
+            } else {
+                iterator.remove();
+                timeout.expire();
+            }
+        }
+        tick++;
+    }
+
+    static final class Timeout {
+
+        private static final int SCHEDULED = 0;
+        private static final int CANCELLED = 1;
+        private static final int EXPIRED = 2;
+
+        private final Runnable task;
+        private final long deadlineNanos;
+        private final AtomicInteger state = new AtomicInteger(SCHEDULED);
+        // Only accessed by the ticker thread.
+        private long remainingRounds;
+
+        private Timeout(Runnable task, long deadlineNanos) {
+            this.task = task;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        /**
+         * @return false if the task already ran (or is running) or was already cancelled
+         */
+        boolean cancel() {
+            return state.compareAndSet(SCHEDULED, CANCELLED);
+        }
+
+        boolean isCancelled() {
+            return state.get() == CANCELLED;
+        }
+
+        private void expire() {
+            if (!state.compareAndSet(SCHEDULED, EXPIRED)) {
+                return;
+            }
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                // Keep the wheel turning for the other tasks.
+                LOGGER.warn("A scheduled task failed.", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package org.acme.callcenter.service;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * The real time from adding a call until a best solution assigns it to an agent, over all the calls of a replay.
+ * The percentiles are null if no call was assigned.
+ */
+public class LatencyReport {
+
+    private final int callCount;
+    private final int assignedCallCount;
+    private final double speed;
+    private final Duration p50;
+    private final Duration p95;
+    private final Duration p99;
+    private final Duration max;
+
+    LatencyReport(int callCount, long[] assignmentLatencyNanos, double speed) {
+        this.callCount = callCount;
+        this.assignedCallCount = assignmentLatencyNanos.length;
+        this.speed = speed;
+        long[] sortedLatencyNanos = assignmentLatencyNanos.clone();
+        Arrays.sort(sortedLatencyNanos);
+        this.p50 = percentile(sortedLatencyNanos, 50);
+        this.p95 = percentile(sortedLatencyNanos, 95);
+        this.p99 = percentile(sortedLatencyNanos, 99);
+        this.max = percentile(sortedLatencyNanos, 100);
+    }
+
+    /**
+     * Nearest rank: the smallest latency that is at least as large as the given percent of the latencies.
+     */
+    private static Duration percentile(long[] sortedLatencyNanos, int percent) {
+        if (sortedLatencyNanos.length == 0) {
+            return null;
+        }
+        int rank = (int) Math.ceil(percent / 100.0 * sortedLatencyNanos.length);
+        return Duration.ofNanos(sortedLatencyNanos[Math.max(rank, 1) - 1]);
+    }
+
+    public int getCallCount() {
+        return callCount;
+    }
+
+    /**
+     * @return the calls that were not assigned before the end of the replay are missing
+     */
+    public int getAssignedCallCount() {
+        return assignedCallCount;
+    }
+
+    public double getSpeed() {
+        return speed;
+    }
+
+    public Duration getP50() {
+        return p50;
+    }
+
+    public Duration getP95() {
+        return p95;
+    }
+
+    public Duration getP99() {
+        return p99;
+    }
+
+    public Duration getMax() {
+        return max;
+    }
+}
@@ -0,0 +1,154 @@
+package org.acme.callcenter.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import org.acme.callcenter.data.CallArrival;
+import org.acme.callcenter.data.DataGenerator;
+import org.acme.callcenter.domain.Agent;
+import org.acme.callcenter.domain.Call;
+import org.acme.callcenter.domain.CallCenterClock;
+import org.acme.callcenter.domain.VirtualClock;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Replays a recorded arrival trace faster than the real time, to benchmark how fast the solver assigns new calls.
+ * <p>
+ * The call center runs on a {@link VirtualClock} during the replay, so the calls arrive, wait and end
+ * as in the trace, only {@code speed} times faster. The latencies in the {@link LatencyReport} are in real time,
+ * from {@link SolverService#addCall(Call)} to the first best solution that assigns the call to an agent.
+ */
+@ApplicationScoped
+public class ReplayService {
+
+    /**
+     * How long to wait for the assignment of the last calls, after the last arrival of a replay.
+     */
+    @ConfigProperty(name = "call-center.replay.assignment-timeout", defaultValue = "10s")
+    Duration assignmentTimeout;
+
+    private final SolverService solverService;
+    private final SimulationService simulationService;
+    private final DataGenerator dataGenerator;
+    private final AtomicBoolean replaying = new AtomicBoolean(false);
+
+    @Inject
+    public ReplayService(SolverService solverService, SimulationService simulationService,
+            DataGenerator dataGenerator) {
+        this.solverService = solverService;
+        this.simulationService = simulationService;
+        this.dataGenerator = dataGenerator;
+    }
+
+    /**
+     * Blocks until all the calls are assigned or the {@link #assignmentTimeout} is over.
+     * The solver must not be running; it is started with an empty call center and stopped at the end.
+     *
+     * @param speed how many times faster than the real time, for example 10 to 100
+     */
+    public LatencyReport replay(List<CallArrival> arrivals, double speed) {
+        for (CallArrival arrival : arrivals) {
+            if (!(arrival.getOffsetSeconds() >= 0.0) || Double.isInfinite(arrival.getOffsetSeconds())) {
+                throw new IllegalArgumentException(
+                        "The offsetSeconds (" + arrival.getOffsetSeconds() + ") must not be negative.");
+            }
+            if (arrival.getDurationSeconds() <= 0) {
+                throw new IllegalArgumentException(
+                        "The durationSeconds (" + arrival.getDurationSeconds() + ") must be positive.");
+            }
+            if (arrival.getRequiredSkills() == null) {
+                throw new IllegalArgumentException("The requiredSkills must not be null.");
+            }
+        }
+        VirtualClock clock = new VirtualClock(Instant.now(), speed, ZoneId.systemDefault());
+        if (!replaying.compareAndSet(false, true)) {
+            throw new IllegalStateException("Another replay is running.");
+        }
+        try {
+            if (solverService.isSolving()) {
+                throw new IllegalStateException("The solver must be stopped before a replay.");
+            }
+            return replay(arrivals, clock);
+        } finally {
+            replaying.set(false);
+        }
+    }
+
+    private LatencyReport replay(List<CallArrival> arrivals, VirtualClock clock) {
+        List<CallArrival> sortedArrivals = arrivals.stream()
+                .sorted(Comparator.comparingDouble(CallArrival::getOffsetSeconds))
+                .collect(Collectors.toList());
+        Map<Long, Long> addNanoTimes = new ConcurrentHashMap<>();
+        Queue<Long> latencyNanos = new ConcurrentLinkedQueue<>();
+        CountDownLatch allAssigned = new CountDownLatch(arrivals.size());
+        AtomicReference<Throwable> solvingError = new AtomicReference<>();
+
+        CallCenterClock.setClock(clock);
+        simulationService.scaleCallEndTick(clock.getSpeed());
+        try {
+            // The changes registered while the solver was stopped are kept for the next start,
+            // because they are made for the call center that the replay does not solve.
+            solverService.startSolving(dataGenerator.generateCallCenter(), bestSolution -> {
+                if (!addNanoTimes.isEmpty()) {
+                    // The waiting calls that are not assigned yet are not in any chain, so they are not visited.
+                    long nanoTime = System.nanoTime();
+                    for (Agent agent : bestSolution.getAgents()) {
+                        for (Call call = agent.getNextCall(); call != null; call = call.getNextCall()) {
+                            Long addNanoTime = addNanoTimes.remove(call.getId());
+                            if (addNanoTime != null) {
+                                latencyNanos.add(nanoTime - addNanoTime);
+                                allAssigned.countDown();
+                            }
+                        }
+                    }
+                }
+                simulationService.onNewBestSolution(bestSolution);
+            }, solvingError::set, false);
+
+            long startNanoTime = System.nanoTime();
+            for (CallArrival arrival : sortedArrivals) {
+                long arrivalNanoTime = startNanoTime
+                        + (long) (arrival.getOffsetSeconds() * 1_000_000_000.0 / clock.getSpeed());
+                long remainingNanos;
+                while ((remainingNanos = arrivalNanoTime - System.nanoTime()) > 0L) {
+                    LockSupport.parkNanos(remainingNanos);
+                    if (Thread.currentThread().isInterrupted()) {
+                        throw new IllegalStateException("The replay was interrupted.");
+                    }
+                }
+                Call call = dataGenerator.generateCall(arrival.getRequiredSkills(), arrival.getDurationSeconds());
+                addNanoTimes.put(call.getId(), System.nanoTime());
+                solverService.addCall(call);
+            }
+            allAssigned.await(assignmentTimeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("The replay was interrupted.", e);
+        } finally {
+            solverService.stopSolving();
+            simulationService.scaleCallEndTick(1.0);
+            CallCenterClock.resetClock();
+        }
+        if (solvingError.get() != null) {
+            throw new IllegalStateException("Exception occurred during solving.", solvingError.get());
+        }
+        return new LatencyReport(arrivals.size(), latencyNanos.stream().mapToLong(Long::longValue).toArray(),
+                clock.getSpeed());
+    }
+}
@@ -1,7 +1,6 @@
 package org.acme.callcenter.service;
 
 import java.time.Duration;
-import java.time.LocalTime;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.Executors;
@@ -10,6 +9,7 @@ import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
+import jakarta.annotation.PreDestroy;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 
@@ -17,15 +17,22 @@ import org.acme.callcenter.data.DataGenerator;
 import org.acme.callcenter.domain.Agent;
 import org.acme.callcenter.domain.Call;
 import org.acme.callcenter.domain.CallCenter;
+import org.acme.callcenter.domain.CallCenterClock;
+import org.acme.callcenter.service.HashedTimingWheel.Timeout;
 
 @ApplicationScoped
 public class SimulationService {
 
     private static final int MAX_DURATION_SECONDS = 60;
     private static final int MIN_DURATION_SECONDS = 10;
-    private static final int MAX_FREQUENCY_PER_MINUTE = 60;
+    private static final long NANOS_PER_MINUTE = TimeUnit.MINUTES.toNanos(1L);
+    private static final long CALL_END_TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(100L);
+    private static final long MIN_CALL_END_TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(1L);
 
     private final ScheduledExecutorService scheduledExecutorService = Executors.newSingleThreadScheduledExecutor();
+    // Thousands of calls can be in progress, each with a scheduled end that is often cancelled by prolonging the call.
+    // Replaced during a replay, so the ends are as precise in the call center time as they are in the real time.
+    private volatile HashedTimingWheel callEndWheel = newCallEndWheel(1.0);
     private final SolverService solverService;
     private final DataGenerator dataGenerator;
     private final ConcurrentMap<Long, CallInProgress> callsInProgress = new ConcurrentHashMap<>();
@@ -43,8 +50,36 @@ public class SimulationService {
         this.dataGenerator = dataGenerator;
     }
 
-    private ScheduledFuture<?> scheduleCallEnd(Call call, long delay, TimeUnit timeUnit) {
-        return scheduledExecutorService.schedule(() -> {
+    @PreDestroy
+    void shutdown() {
+        scheduledExecutorService.shutdownNow();
+        callEndWheel.stop();
+    }
+
+    private static HashedTimingWheel newCallEndWheel(double speed) {
+        long tickNanos = Math.max(MIN_CALL_END_TICK_NANOS, (long) (CALL_END_TICK_NANOS / speed));
+        return new HashedTimingWheel(Duration.ofNanos(tickNanos), 512, "CallEndWheel");
+    }
+
+    /**
+     * Scales the tick of the scheduled call ends down by the speed of the {@link CallCenterClock},
+     * because a call ends up to one tick late, which is {@code speed} times longer in the call center time.
+     * The calls in progress are {@link #cancelCallsInProgress() cancelled}, because their ends are not moved.
+     *
+     * @param speed how many times faster than the real time the call center clock runs, 1.0 for the real time
+     */
+    public void scaleCallEndTick(double speed) {
+        if (!(speed > 0.0) || Double.isInfinite(speed)) {
+            throw new IllegalArgumentException("The speed (" + speed + ") must be positive and finite.");
+        }
+        cancelCallsInProgress();
+        HashedTimingWheel previousCallEndWheel = callEndWheel;
+        callEndWheel = newCallEndWheel(speed);
+        previousCallEndWheel.stop();
+    }
+
+    private Timeout scheduleCallEnd(Call call, long delay, TimeUnit timeUnit) {
+        return callEndWheel.schedule(() -> {
             callsInProgress.computeIfPresent(call.getId(), (callId, callInProgress) -> {
                 solverService.removeCall(callId);
                 return null;
@@ -53,9 +88,9 @@ public class SimulationService {
     }
 
     public void restartSimulation(int frequencyPerMinute, int durationSeconds) {
-        if (frequencyPerMinute < 0 || frequencyPerMinute > MAX_FREQUENCY_PER_MINUTE) {
+        if (frequencyPerMinute < 0) {
             throw new IllegalArgumentException(
-                    "FrequencyPerMinute (" + frequencyPerMinute + ") must be between 0 and " + MAX_FREQUENCY_PER_MINUTE + ".");
+                    "FrequencyPerMinute (" + frequencyPerMinute + ") must not be negative.");
         }
         if (durationSeconds < MIN_DURATION_SECONDS || durationSeconds > MAX_DURATION_SECONDS) {
             throw new IllegalArgumentException(
@@ -84,10 +119,10 @@ public class SimulationService {
         if (frequency == 0) {
             return;
         }
-        int delayInSeconds = 60 / frequency;
+        long periodNanos = NANOS_PER_MINUTE / frequency;
 
         addNewCallScheduledFuture = scheduledExecutorService.scheduleAtFixedRate(
-                () -> solverService.addCall(dataGenerator.generateCall(duration)), 0, delayInSeconds, TimeUnit.SECONDS);
+                () -> solverService.addCall(dataGenerator.generateCall(duration)), 0, periodNanos, TimeUnit.NANOSECONDS);
     }
 
     public void stopSimulation() {
@@ -103,37 +138,52 @@ public class SimulationService {
      */
     public void prolongCall(long callId) {
         callsInProgress.computeIfPresent(callId, (id, callInProgress) -> {
-            callInProgress.scheduledCallEnd.cancel(true);
+            callInProgress.scheduledCallEnd.cancel();
             Call call = callInProgress.call;
-            Duration remaining = call.getDuration().minus(Duration.between(call.getPickUpTime(), LocalTime.now()));
-            long nextCallEndSeconds = remaining.plusMinutes(1).getSeconds(); // Prolong the call by a minute.
-            return new CallInProgress(call, scheduleCallEnd(call, nextCallEndSeconds, TimeUnit.SECONDS));
+            Duration remaining = call.getDuration().minus(Duration.between(call.getPickUpTime(), CallCenterClock.now()));
+            long nextCallEndNanos = CallCenterClock.toRealNanos(remaining.plusMinutes(1)); // Prolong the call by a minute.
+            return new CallInProgress(call, scheduleCallEnd(call, nextCallEndNanos, TimeUnit.NANOSECONDS));
+        });
+    }
+
+    /**
+     * Forgets the calls in progress without ending them, for example after a replay.
+     */
+    public void cancelCallsInProgress() {
+        callsInProgress.values().removeIf(callInProgress -> {
+            callInProgress.scheduledCallEnd.cancel();
+            return true;
         });
     }
 
     /**
      * Not thread-safe. The method is called from the Solver thread.
+     * <p>
+     * The calls that agents are answering are the first calls of their chains, so only those are visited,
+     * whatever the number of calls waiting in the queues.
+     * The ones already in progress since a previous best solution are skipped by a single lookup.
      */
     public void onNewBestSolution(CallCenter newBestSolution) {
-        newBestSolution.getCalls().forEach(call -> {
-            if (call.getPreviousCallOrAgent() != null && call.getPreviousCallOrAgent() instanceof Agent) {
+        for (Agent agent : newBestSolution.getAgents()) {
+            Call call = agent.getNextCall();
+            if (call != null) {
                 callsInProgress.computeIfAbsent(call.getId(), callId -> {
                     // Schedule finishing a call by an agent.
-                    ScheduledFuture<?> existingCallScheduledFuture =
-                            scheduleCallEnd(call, call.getDuration().getSeconds(), TimeUnit.SECONDS);
+                    Timeout scheduledCallEnd = scheduleCallEnd(call, CallCenterClock.toRealNanos(call.getDuration()),
+                            TimeUnit.NANOSECONDS);
                     // Pick-up time needs to be set, as it hasn't been propagated to this best solution yet.
-                    call.setPickUpTime(LocalTime.now());
-                    return new CallInProgress(call, existingCallScheduledFuture);
+                    call.setPickUpTime(CallCenterClock.now());
+                    return new CallInProgress(call, scheduledCallEnd);
                 });
             }
-        });
+        }
     }
 
     private static class CallInProgress {
         private final Call call;
-        private final ScheduledFuture<?> scheduledCallEnd;
+        private final Timeout scheduledCallEnd;
 
-        public CallInProgress(Call call, ScheduledFuture<?> scheduledCallEnd) {
+        public CallInProgress(Call call, Timeout scheduledCallEnd) {
             this.call = call;
             this.scheduledCallEnd = scheduledCallEnd;
         }
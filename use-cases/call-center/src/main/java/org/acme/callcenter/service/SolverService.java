@@ -1,11 +1,21 @@
 package org.acme.callcenter.service;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
+import jakarta.annotation.PreDestroy;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 
@@ -13,9 +23,11 @@ import org.acme.callcenter.domain.Agent;
 import org.acme.callcenter.domain.Call;
 import org.acme.callcenter.domain.CallCenter;
 import org.acme.callcenter.solver.change.AddCallProblemChange;
-import org.acme.callcenter.solver.change.PinCallProblemChange;
+import org.acme.callcenter.solver.change.CompositeProblemChange;
+import org.acme.callcenter.solver.change.PinCallsProblemChange;
 import org.acme.callcenter.solver.change.ProlongCallByMinuteProblemChange;
 import org.acme.callcenter.solver.change.RemoveCallProblemChange;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.optaplanner.core.api.solver.SolverManager;
 import org.optaplanner.core.api.solver.SolverStatus;
 import org.optaplanner.core.api.solver.change.ProblemChange;
@@ -26,37 +38,114 @@ public class SolverService {
     private final SolverManager<CallCenter, Long> solverManager;
     public static final long SINGLETON_ID = 1L;
 
+    /**
+     * Problem changes that arrive within this window after the first one are applied together,
+     * so the solver restarts once per batch instead of once per change.
+     */
+    @ConfigProperty(name = "call-center.problem-change-batch.window", defaultValue = "0.05s")
+    Duration batchWindow;
+
+    /**
+     * A batch is applied as soon as it has this many changes, even if its window is not over yet.
+     */
+    @ConfigProperty(name = "call-center.problem-change-batch.max-size", defaultValue = "100")
+    int batchMaxSize;
+
     private final BlockingQueue<WaitingProblemChange> waitingProblemChanges = new LinkedBlockingQueue<>();
+    // The calls with a pin change that the solver has not applied yet,
+    // so the next best solutions, which still have these calls unpinned, do not pin them again.
+    private final Set<Long> callIdsBeingPinned = ConcurrentHashMap.newKeySet();
+
+    private final ScheduledExecutorService batchScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ProblemChangeBatcher");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Guarded by this.
+    private List<WaitingProblemChange> batch = new ArrayList<>();
+    private ScheduledFuture<?> scheduledBatchSubmission;
 
     @Inject
     public SolverService(SolverManager<CallCenter, Long> solverManager) {
         this.solverManager = solverManager;
     }
 
-    private void pinCallAssignedToAgents(List<Call> calls) {
-        calls.stream()
-                .filter(call -> !call.isPinned()
-                        && call.getPreviousCallOrAgent() != null
-                        && call.getPreviousCallOrAgent() instanceof Agent)
-                .map(PinCallProblemChange::new)
-                .forEach(problemChange -> solverManager.addProblemChange(SINGLETON_ID, problemChange));
+    /**
+     * Fails the changes that the solver will not apply anymore: the pending batch and the changes
+     * registered while the solver was stopped.
+     */
+    @PreDestroy
+    void shutdown() {
+        List<WaitingProblemChange> unappliedProblemChanges;
+        synchronized (this) {
+            batchScheduler.shutdownNow();
+            unappliedProblemChanges = takeBatch();
+        }
+        waitingProblemChanges.drainTo(unappliedProblemChanges);
+        IllegalStateException exception = new IllegalStateException(
+                "The solver service shut down before the problem change was applied.");
+        for (WaitingProblemChange waitingProblemChange : unappliedProblemChanges) {
+            waitingProblemChange.getCompletion().completeExceptionally(exception);
+        }
+    }
+
+    /**
+     * Pins all the newly answered calls of a best solution with one problem change,
+     * because every problem change restarts the solver and leads to another best solution.
+     * The answered calls are the first calls of the agents, so the waiting calls are not visited.
+     *
+     * @return the calls that this problem change pins, empty if they are all pinned or being pinned already
+     */
+    List<Call> pinCallAssignedToAgents(List<Agent> agents) {
+        List<Call> callsToPin = new ArrayList<>();
+        for (Agent agent : agents) {
+            Call call = agent.getNextCall();
+            if (call != null && !call.isPinned() && callIdsBeingPinned.add(call.getId())) {
+                callsToPin.add(call);
+            }
+        }
+        if (callsToPin.isEmpty()) {
+            return callsToPin;
+        }
+        CompletableFuture<Void> pinning;
+        try {
+            pinning = solverManager.addProblemChange(SINGLETON_ID, new PinCallsProblemChange(callsToPin));
+        } catch (IllegalStateException e) {
+            // The solver has just stopped, the calls will be pinned after the next start.
+            callsToPin.forEach(call -> callIdsBeingPinned.remove(call.getId()));
+            return List.of();
+        }
+        pinning.whenComplete(
+                (result, throwable) -> callsToPin.forEach(call -> callIdsBeingPinned.remove(call.getId())));
+        return callsToPin;
     }
 
     public void startSolving(CallCenter inputProblem,
             Consumer<CallCenter> bestSolutionConsumer, Consumer<Throwable> errorHandler) {
+        startSolving(inputProblem, bestSolutionConsumer, errorHandler, true);
+    }
+
+    /**
+     * @param applyWaitingProblemChanges false to keep the changes registered while the solver was stopped
+     *        for the next start, for example if the input problem is not the call center that they were made for
+     */
+    void startSolving(CallCenter inputProblem, Consumer<CallCenter> bestSolutionConsumer,
+            Consumer<Throwable> errorHandler, boolean applyWaitingProblemChanges) {
         solverManager.solveAndListen(SINGLETON_ID, id -> inputProblem, bestSolution -> {
             if (bestSolution.getScore().isSolutionInitialized()) {
                 bestSolutionConsumer.accept(bestSolution);
-                pinCallAssignedToAgents(bestSolution.getCalls());
+                pinCallAssignedToAgents(bestSolution.getAgents());
             }
         }, (id, error) -> errorHandler.accept(error));
+        if (!applyWaitingProblemChanges) {
+            return;
+        }
 
-        for (WaitingProblemChange waitingProblemChange : waitingProblemChanges) {
-            CompletableFuture<Void> changeInProgress =
-                    solverManager.addProblemChange(SINGLETON_ID, waitingProblemChange.getProblemChange());
-            changeInProgress.thenRun(() -> waitingProblemChange.getCompletion().complete(null));
+        List<WaitingProblemChange> problemChangesWhileNotSolving = new ArrayList<>();
+        waitingProblemChanges.drainTo(problemChangesWhileNotSolving);
+        if (!problemChangesWhileNotSolving.isEmpty()) {
+            submit(problemChangesWhileNotSolving);
         }
-        waitingProblemChanges.clear();
     }
 
     public void stopSolving() {
@@ -80,17 +169,84 @@ public class SolverService {
     }
 
     private CompletableFuture<Void> registerProblemChange(ProblemChange<CallCenter> problemChange) {
+        /*
+         * Expose a temporary CompletableFuture that will get completed once the solver processes the batch
+         * of this change, or, if the solver is not running, once it is started again and processes the change.
+         */
+        CompletableFuture<Void> completion = new CompletableFuture<>();
+        WaitingProblemChange waitingProblemChange = new WaitingProblemChange(completion, problemChange);
         if (isSolving()) {
-            return solverManager.addProblemChange(SINGLETON_ID, problemChange);
+            addToBatch(waitingProblemChange);
         } else {
-            /*
-             * Expose a temporary CompletableFuture that will get completed once the solver is started again
-             * and processes the change.
-             */
-            CompletableFuture<Void> completion = new CompletableFuture<>();
-            waitingProblemChanges.add(new WaitingProblemChange(completion, problemChange));
-            return completion;
+            waitingProblemChanges.add(waitingProblemChange);
+        }
+        return completion;
+    }
+
+    private void addToBatch(WaitingProblemChange waitingProblemChange) {
+        List<WaitingProblemChange> fullBatch = null;
+        synchronized (this) {
+            if (batchScheduler.isShutdown()) {
+                waitingProblemChange.getCompletion().completeExceptionally(
+                        new IllegalStateException("The solver service has shut down."));
+                return;
+            }
+            batch.add(waitingProblemChange);
+            if (batch.size() >= batchMaxSize || batchWindow.isZero()) {
+                fullBatch = takeBatch();
+            } else if (batch.size() == 1) {
+                scheduledBatchSubmission = batchScheduler.schedule(this::submitBatch, batchWindow.toNanos(),
+                        TimeUnit.NANOSECONDS);
+            }
+        }
+        if (fullBatch != null) {
+            submit(fullBatch);
+        }
+    }
+
+    private void submitBatch() {
+        List<WaitingProblemChange> windowBatch;
+        synchronized (this) {
+            windowBatch = takeBatch();
         }
+        if (!windowBatch.isEmpty()) {
+            submit(windowBatch);
+        }
+    }
+
+    private List<WaitingProblemChange> takeBatch() {
+        if (scheduledBatchSubmission != null) {
+            scheduledBatchSubmission.cancel(false);
+            scheduledBatchSubmission = null;
+        }
+        List<WaitingProblemChange> takenBatch = batch;
+        batch = new ArrayList<>();
+        return takenBatch;
+    }
+
+    private void submit(List<WaitingProblemChange> problemChanges) {
+        ProblemChange<CallCenter> problemChange = problemChanges.size() == 1
+                ? problemChanges.get(0).getProblemChange()
+                : new CompositeProblemChange(problemChanges.stream()
+                        .map(WaitingProblemChange::getProblemChange)
+                        .collect(Collectors.toList()));
+        CompletableFuture<Void> changeInProgress;
+        try {
+            changeInProgress = solverManager.addProblemChange(SINGLETON_ID, problemChange);
+        } catch (IllegalStateException e) {
+            // The solver stopped during the batch window, so the changes wait for the next start.
+            waitingProblemChanges.addAll(problemChanges);
+            return;
+        }
+        changeInProgress.whenComplete((result, throwable) -> {
+            for (WaitingProblemChange waitingProblemChange : problemChanges) {
+                if (throwable == null) {
+                    waitingProblemChange.getCompletion().complete(null);
+                } else {
+                    waitingProblemChange.getCompletion().completeExceptionally(throwable);
+                }
+            }
+        });
     }
 
     private static class WaitingProblemChange {
@@ -26,8 +26,8 @@ public class CallCenterConstraintsProvider implements ConstraintProvider {
     Constraint minimizeWaitingTime(ConstraintFactory constraintFactory) {
         return constraintFactory.forEach(Call.class)
                 .filter(call -> call.getNextCall() == null)
-                .penalize(HardSoftScore.ONE_SOFT, call -> Math.toIntExact(call.getEstimatedWaiting().getSeconds()
-                                * call.getEstimatedWaiting().getSeconds()))
+                .penalize(HardSoftScore.ONE_SOFT, call -> Math.toIntExact(call.getEstimatedWaitingSeconds()
+                                * call.getEstimatedWaitingSeconds()))
                 .asConstraint("Minimize waiting time");
     }
 }
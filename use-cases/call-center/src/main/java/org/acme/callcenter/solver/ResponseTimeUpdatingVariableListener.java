@@ -1,9 +1,8 @@
 package org.acme.callcenter.solver;
 
-import java.time.Duration;
-
 import org.acme.callcenter.domain.Call;
 import org.acme.callcenter.domain.CallCenter;
+import org.acme.callcenter.domain.CallCenterClock;
 import org.acme.callcenter.domain.PreviousCallOrAgent;
 import org.optaplanner.core.api.domain.variable.VariableListener;
 import org.optaplanner.core.api.score.director.ScoreDirector;
@@ -40,25 +39,25 @@ public class ResponseTimeUpdatingVariableListener implements VariableListener<Ca
 
     }
 
+    /**
+     * Propagates the estimated waiting down the chain of the changed call, in primitive nanoseconds.
+     * The clock is read once per change, not once per call.
+     * The walk stops at the first call whose estimate does not change,
+     * because the estimates after it only depend on that estimate and on the durations of the calls.
+     */
     protected void updateResponseTime(ScoreDirector<CallCenter> scoreDirector, Call call) {
         PreviousCallOrAgent previous = call.getPreviousCallOrAgent();
+        long nowNanoOfDay = CallCenterClock.now().toNanoOfDay();
+        long estimatedWaitingNanos = previous == null ? Call.NO_ESTIMATE : previous.getNanosTillPickUp(nowNanoOfDay);
         Call shadowCall = call;
-        Duration previousDurationTillPickUp = (previous == null ? null : previous.getDurationTillPickUp());
-        Duration estimatedWaiting = calculateWaitingTimeEstimate(shadowCall, previousDurationTillPickUp);
-        while (shadowCall != null) {
-            scoreDirector.beforeVariableChanged(shadowCall, "estimatedWaiting");
-            shadowCall.setEstimatedWaiting(estimatedWaiting);
-            scoreDirector.afterVariableChanged(shadowCall, "estimatedWaiting");
-            previousDurationTillPickUp = shadowCall.getDurationTillPickUp();
+        while (shadowCall != null && shadowCall.getEstimatedWaitingNanos() != estimatedWaitingNanos) {
+            scoreDirector.beforeVariableChanged(shadowCall, "estimatedWaitingNanos");
+            shadowCall.setEstimatedWaitingNanos(estimatedWaitingNanos);
+            scoreDirector.afterVariableChanged(shadowCall, "estimatedWaitingNanos");
+            if (estimatedWaitingNanos != Call.NO_ESTIMATE) {
+                estimatedWaitingNanos = shadowCall.getNanosTillPickUp(nowNanoOfDay);
+            }
             shadowCall = shadowCall.getNextCall();
-            estimatedWaiting = calculateWaitingTimeEstimate(shadowCall, previousDurationTillPickUp);
-        }
-    }
-
-    private Duration calculateWaitingTimeEstimate(Call call, Duration previousEndTime) {
-        if (call == null || previousEndTime == null) {
-            return null;
         }
-        return previousEndTime;
     }
 }
@@ -0,0 +1,31 @@
+package org.acme.callcenter.solver.change;
+
+import java.util.List;
+
+import org.acme.callcenter.domain.CallCenter;
+import org.optaplanner.core.api.solver.change.ProblemChange;
+import org.optaplanner.core.api.solver.change.ProblemChangeDirector;
+
+/**
+ * Applies several problem changes, in order, as one change, so the solver restarts and recalculates the score
+ * once for all of them instead of once per change.
+ */
+public class CompositeProblemChange implements ProblemChange<CallCenter> {
+
+    private final List<ProblemChange<CallCenter>> problemChanges;
+
+    public CompositeProblemChange(List<ProblemChange<CallCenter>> problemChanges) {
+        this.problemChanges = List.copyOf(problemChanges);
+    }
+
+    @Override
+    public void doChange(CallCenter workingCallCenter, ProblemChangeDirector problemChangeDirector) {
+        for (ProblemChange<CallCenter> problemChange : problemChanges) {
+            problemChange.doChange(workingCallCenter, problemChangeDirector);
+        }
+    }
+
+    public List<ProblemChange<CallCenter>> getProblemChanges() {
+        return problemChanges;
+    }
+}
@@ -0,0 +1,40 @@
+package org.acme.callcenter.solver.change;
+
+import java.time.LocalTime;
+import java.util.List;
+
+import org.acme.callcenter.domain.Call;
+import org.acme.callcenter.domain.CallCenter;
+import org.acme.callcenter.domain.CallCenterClock;
+import org.optaplanner.core.api.solver.change.ProblemChange;
+import org.optaplanner.core.api.solver.change.ProblemChangeDirector;
+
+/**
+ * Pins all the calls that agents picked up in one best solution, in one change.
+ * Calls that are already pinned or no longer exist in the working solution are skipped.
+ */
+public class PinCallsProblemChange implements ProblemChange<CallCenter> {
+
+    private final List<Call> calls;
+
+    public PinCallsProblemChange(List<Call> calls) {
+        this.calls = List.copyOf(calls);
+    }
+
+    @Override
+    public void doChange(CallCenter workingCallCenter, ProblemChangeDirector problemChangeDirector) {
+        LocalTime pickUpTime = CallCenterClock.now();
+        for (Call call : calls) {
+            problemChangeDirector.lookUpWorkingObject(call)
+                    .filter(workingCall -> !workingCall.isPinned())
+                    .ifPresent(workingCall -> problemChangeDirector.changeProblemProperty(workingCall, pinnedCall -> {
+                        pinnedCall.setPinned(true);
+                        pinnedCall.setPickUpTime(pickUpTime);
+                    }));
+        }
+    }
+
+    public List<Call> getCalls() {
+        return calls;
+    }
+}
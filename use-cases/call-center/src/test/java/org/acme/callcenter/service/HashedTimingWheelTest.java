@@ -0,0 +1,64 @@
+package org.acme.callcenter.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.acme.callcenter.service.HashedTimingWheel.Timeout;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class HashedTimingWheelTest {
+
+    // Few buckets, so that the longer delays take several rounds of the wheel.
+    private final HashedTimingWheel wheel = new HashedTimingWheel(Duration.ofMillis(10L), 4, "TestWheel");
+
+    @AfterEach
+    void tearDown() {
+        wheel.stop();
+    }
+
+    @Test
+    @org.junit.jupiter.api.Timeout(10)
+    void runsInDeadlineOrderAfterDelay() throws InterruptedException {
+        List<Integer> runOrder = new CopyOnWriteArrayList<>();
+        CountDownLatch allRun = new CountDownLatch(3);
+        long startNanos = System.nanoTime();
+        wheel.schedule(() -> {
+            runOrder.add(300);
+            allRun.countDown();
+        }, 300L, TimeUnit.MILLISECONDS);
+        wheel.schedule(() -> {
+            runOrder.add(0);
+            allRun.countDown();
+        }, 0L, TimeUnit.MILLISECONDS);
+        wheel.schedule(() -> {
+            runOrder.add(120);
+            allRun.countDown();
+        }, 120L, TimeUnit.MILLISECONDS);
+
+        allRun.await();
+        assertThat(System.nanoTime() - startNanos).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(300L));
+        assertThat(runOrder).containsExactly(0, 120, 300);
+    }
+
+    @Test
+    @org.junit.jupiter.api.Timeout(10)
+    void cancelledTimeoutDoesNotRun() throws InterruptedException {
+        List<String> runTasks = new CopyOnWriteArrayList<>();
+        Timeout cancelled = wheel.schedule(() -> runTasks.add("cancelled"), 50L, TimeUnit.MILLISECONDS);
+        CountDownLatch laterRun = new CountDownLatch(1);
+        Timeout later = wheel.schedule(laterRun::countDown, 100L, TimeUnit.MILLISECONDS);
+
+        assertThat(cancelled.cancel()).isTrue();
+        assertThat(cancelled.cancel()).isFalse();
+        laterRun.await();
+        assertThat(runTasks).isEmpty();
+        // Too late to cancel.
+        assertThat(later.cancel()).isFalse();
+    }
+}
@@ -0,0 +1,64 @@
+package org.acme.callcenter.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.Clock;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import jakarta.inject.Inject;
+
+import org.acme.callcenter.data.ArrivalTraceReader;
+import org.acme.callcenter.data.CallArrival;
+import org.acme.callcenter.domain.CallCenterClock;
+import org.acme.callcenter.domain.Skill;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import io.quarkus.test.junit.QuarkusTest;
+
+@QuarkusTest
+public class ReplayServiceTest {
+
+    @Inject
+    ReplayService replayService;
+
+    @Inject
+    SolverService solverService;
+
+    @Test
+    @Timeout(60)
+    void replayCsvTrace() throws IOException {
+        // 40 calls over 20 seconds, replayed in 1 second.
+        String trace = "offsetSeconds,durationSeconds,requiredSkills\n"
+                + IntStream.range(0, 40)
+                        .mapToObj(i -> (i * 0.5) + ",30," + (i % 2 == 0 ? "EN|Car insurance" : "SPANISH"))
+                        .collect(Collectors.joining("\n"));
+        List<CallArrival> arrivals = ArrivalTraceReader.readCsv(new StringReader(trace));
+        assertThat(arrivals).hasSize(40);
+        assertThat(arrivals.get(1).getOffsetSeconds()).isEqualTo(0.5);
+        // Skills are spelled as in JSON or by their enum constant.
+        assertThat(arrivals.get(0).getRequiredSkills()).containsExactlyInAnyOrder(Skill.ENGLISH, Skill.CAR_INSURANCE);
+        assertThat(arrivals.get(1).getRequiredSkills()).containsExactly(Skill.SPANISH);
+
+        // Registered while the solver is stopped, for the call center that is solved after the replay.
+        CompletableFuture<Void> waitingRemoval = solverService.removeCall(Long.MAX_VALUE);
+
+        LatencyReport report = replayService.replay(arrivals, 20.0);
+
+        assertThat(report.getCallCount()).isEqualTo(40);
+        assertThat(report.getAssignedCallCount()).isEqualTo(40);
+        assertThat(report.getP50()).isPositive();
+        assertThat(report.getP95()).isGreaterThanOrEqualTo(report.getP50());
+        assertThat(report.getP99()).isGreaterThanOrEqualTo(report.getP95());
+        assertThat(report.getMax()).isGreaterThanOrEqualTo(report.getP99());
+        // The call center is back on the system clock.
+        assertThat(CallCenterClock.getClock()).isEqualTo(Clock.systemDefaultZone());
+        // The replay did not apply it to its own call center.
+        assertThat(waitingRemoval).isNotDone();
+    }
+}
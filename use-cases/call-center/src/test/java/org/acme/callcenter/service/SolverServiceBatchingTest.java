@@ -0,0 +1,116 @@
+package org.acme.callcenter.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import jakarta.inject.Inject;
+
+import org.acme.callcenter.data.DataGenerator;
+import org.acme.callcenter.domain.Call;
+import org.acme.callcenter.domain.CallCenter;
+import org.acme.callcenter.domain.Skill;
+import org.acme.callcenter.solver.change.CompositeProblemChange;
+import org.acme.callcenter.solver.change.PinCallsProblemChange;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.optaplanner.core.api.solver.SolverManager;
+import org.optaplanner.core.api.solver.change.ProblemChange;
+
+import io.quarkus.test.junit.QuarkusTest;
+
+@QuarkusTest
+public class SolverServiceBatchingTest {
+
+    @Inject
+    DataGenerator dataGenerator;
+
+    @Inject
+    SolverManager<CallCenter, Long> solverManager;
+
+    private final List<ProblemChange<CallCenter>> submittedProblemChanges = new CopyOnWriteArrayList<>();
+    private SolverService solverService;
+
+    @BeforeEach
+    void setUp() {
+        solverService = new SolverService(recordingSolverManager(solverManager, submittedProblemChanges));
+        // The window never ends during a test, so a batch is only submitted when it is full.
+        solverService.batchWindow = Duration.ofMinutes(10);
+        solverService.batchMaxSize = 100;
+        solverService.startSolving(dataGenerator.generateCallCenter(), bestSolution -> {
+        }, error -> {
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        solverService.stopSolving();
+    }
+
+    @Test
+    @Timeout(60)
+    void submitOneProblemChangePerBatch() throws InterruptedException, ExecutionException, TimeoutException {
+        List<CompletableFuture<Void>> additions = IntStream.range(0, 200)
+                .mapToObj(i -> solverService.addCall(new Call(2_000L + i, "123-456-" + i, Skill.ENGLISH)))
+                .collect(Collectors.toList());
+
+        CompletableFuture.allOf(additions.toArray(CompletableFuture[]::new)).get(1, TimeUnit.MINUTES);
+        assertThat(getSubmittedCallChanges())
+                .hasSize(2)
+                .allSatisfy(problemChange -> assertThat(problemChange).isInstanceOfSatisfying(
+                        CompositeProblemChange.class, batch -> assertThat(batch.getProblemChanges()).hasSize(100)));
+    }
+
+    @Test
+    @Timeout(60)
+    void shutdownFailsPendingBatch() {
+        CompletableFuture<Void> addition = solverService.addCall(new Call(3_000L, "123-456-7890", Skill.ENGLISH));
+        assertThat(addition).isNotDone();
+
+        solverService.shutdown();
+        assertThat(addition).isCompletedExceptionally();
+        assertThat(getSubmittedCallChanges()).isEmpty();
+        assertThat(solverService.addCall(new Call(3_001L, "123-456-7891", Skill.ENGLISH)))
+                .isCompletedExceptionally();
+    }
+
+    /**
+     * The submitted changes without the ones that pin the answered calls of the best solutions.
+     */
+    private List<ProblemChange<CallCenter>> getSubmittedCallChanges() {
+        return submittedProblemChanges.stream()
+                .filter(problemChange -> !(problemChange instanceof PinCallsProblemChange))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Delegates to the solver manager and records the problem changes submitted to it.
+     */
+    @SuppressWarnings("unchecked")
+    private static SolverManager<CallCenter, Long> recordingSolverManager(SolverManager<CallCenter, Long> delegate,
+            List<ProblemChange<CallCenter>> submittedProblemChanges) {
+        return (SolverManager<CallCenter, Long>) Proxy.newProxyInstance(SolverManager.class.getClassLoader(),
+                new Class<?>[] { SolverManager.class }, (proxy, method, args) -> {
+                    if (method.getName().equals("addProblemChange")) {
+                        submittedProblemChanges.add((ProblemChange<CallCenter>) args[1]);
+                    }
+                    try {
+                        return method.invoke(delegate, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+}
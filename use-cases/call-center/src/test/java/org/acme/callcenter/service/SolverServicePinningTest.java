@@ -0,0 +1,77 @@
+package org.acme.callcenter.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import jakarta.inject.Inject;
+
+import org.acme.callcenter.data.DataGenerator;
+import org.acme.callcenter.domain.Agent;
+import org.acme.callcenter.domain.Call;
+import org.acme.callcenter.domain.CallCenter;
+import org.acme.callcenter.domain.Skill;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.optaplanner.core.api.solver.SolverManager;
+
+import io.quarkus.test.junit.QuarkusTest;
+
+@QuarkusTest
+public class SolverServicePinningTest {
+
+    @Inject
+    DataGenerator dataGenerator;
+
+    @Inject
+    SolverService solverService;
+
+    @Inject
+    SolverManager<CallCenter, Long> solverManager;
+
+    @AfterEach
+    void tearDown() {
+        solverService.stopSolving();
+    }
+
+    @Test
+    @Timeout(60)
+    void doNotPinCallAgainWhileItsPinChangeIsInFlight() throws InterruptedException {
+        solverService.startSolving(dataGenerator.generateCallCenter(), bestSolution -> {
+        }, error -> {
+        });
+        // Keeps the solver busy, so the pin change queued behind this change stays in flight.
+        CountDownLatch solverBlocked = new CountDownLatch(1);
+        CountDownLatch solverReleased = new CountDownLatch(1);
+        CompletableFuture<Void> blockingChange = solverManager.addProblemChange(SolverService.SINGLETON_ID,
+                (callCenter, problemChangeDirector) -> {
+                    solverBlocked.countDown();
+                    try {
+                        solverReleased.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+        try {
+            solverBlocked.await();
+            Agent agent = new Agent(1_000_000L, "Carl", Skill.ENGLISH);
+            Call answeredCall = new Call(1_000_000L, "123-456-7890", Skill.ENGLISH);
+            agent.setNextCall(answeredCall);
+            Agent agentWithPinnedCall = new Agent(1_000_001L, "Ann", Skill.ENGLISH);
+            Call pinnedCall = new Call(1_000_001L, "123-456-7891", Skill.ENGLISH);
+            pinnedCall.setPinned(true);
+            agentWithPinnedCall.setNextCall(pinnedCall);
+
+            assertThat(solverService.pinCallAssignedToAgents(List.of(agent, agentWithPinnedCall)))
+                    .containsExactly(answeredCall);
+            // The next best solution still has the call unpinned.
+            assertThat(solverService.pinCallAssignedToAgents(List.of(agent, agentWithPinnedCall))).isEmpty();
+        } finally {
+            solverReleased.countDown();
+        }
+        blockingChange.join();
+    }
+}
@@ -0,0 +1,138 @@
+package org.acme.callcenter.solver;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.reflect.Proxy;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.acme.callcenter.domain.Agent;
+import org.acme.callcenter.domain.Call;
+import org.acme.callcenter.domain.CallCenter;
+import org.acme.callcenter.domain.CallCenterClock;
+import org.acme.callcenter.domain.PreviousCallOrAgent;
+import org.acme.callcenter.domain.Skill;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.optaplanner.core.api.score.director.ScoreDirector;
+
+class ResponseTimeUpdatingVariableListenerTest {
+
+    private final ResponseTimeUpdatingVariableListener variableListener = new ResponseTimeUpdatingVariableListener();
+    private final List<Call> changedCalls = new ArrayList<>();
+    private final ScoreDirector<CallCenter> scoreDirector = recordingScoreDirector(changedCalls);
+
+    @BeforeEach
+    void setUp() {
+        CallCenterClock.setClock(Clock.fixed(Instant.parse("2026-01-01T10:00:00Z"), ZoneOffset.UTC));
+    }
+
+    @AfterEach
+    void tearDown() {
+        CallCenterClock.resetClock();
+    }
+
+    @Test
+    void pinnedCallWithPickUpTimeAtHeadOfChain() {
+        Agent agent = new Agent(1L, "Carl", Skill.ENGLISH);
+        Call answeredCall = newCall(1L, 60);
+        answeredCall.setPinned(true);
+        answeredCall.setPickUpTime(LocalTime.of(9, 59, 30));
+        Call call2 = newCall(2L, 30);
+        Call call3 = newCall(3L, 45);
+        chain(agent, answeredCall, call2, call3);
+
+        variableListener.afterVariableChanged(scoreDirector, answeredCall);
+
+        assertThat(changedCalls).containsExactly(answeredCall, call2, call3);
+        assertThat(answeredCall.getEstimatedWaiting()).isEqualTo(Duration.ZERO);
+        // Only the remaining 30 seconds of the answered call are waited for.
+        assertThat(call2.getEstimatedWaiting()).isEqualTo(Duration.ofSeconds(30));
+        assertThat(call3.getEstimatedWaiting()).isEqualTo(Duration.ofSeconds(60));
+    }
+
+    @Test
+    void downstreamEstimatesStayCorrectWhenWalkStopsEarly() {
+        Agent agent = new Agent(1L, "Carl", Skill.ENGLISH);
+        Call answeredCall = newCall(1L, 60);
+        answeredCall.setPinned(true);
+        answeredCall.setPickUpTime(LocalTime.of(9, 59, 30));
+        Call call2 = newCall(2L, 30);
+        Call call3 = newCall(3L, 45);
+        Call call4 = newCall(4L, 20);
+        chain(agent, answeredCall, call2, call3, call4);
+        variableListener.afterVariableChanged(scoreDirector, answeredCall);
+        changedCalls.clear();
+
+        // Replace call 2 by a call of the same duration: call 3 keeps its estimate, so call 4 is not visited.
+        Call call5 = newCall(5L, 30);
+        call2.setPreviousCallOrAgent(null);
+        call2.setNextCall(null);
+        chain(agent, answeredCall, call5, call3, call4);
+        variableListener.afterVariableChanged(scoreDirector, call2);
+        variableListener.afterVariableChanged(scoreDirector, call5);
+
+        assertThat(changedCalls).containsExactly(call2, call5);
+        assertThat(call2.getEstimatedWaitingNanos()).isEqualTo(Call.NO_ESTIMATE);
+        List<Duration> estimatedWaitings = getEstimatedWaitings(answeredCall, call5, call3, call4);
+        assertThat(estimatedWaitings).containsExactly(Duration.ZERO, Duration.ofSeconds(30),
+                Duration.ofSeconds(60), Duration.ofSeconds(105));
+
+        // From scratch, the walk visits the whole chain and must reach the same estimates.
+        for (Call call : List.of(answeredCall, call5, call3, call4)) {
+            call.setEstimatedWaitingNanos(Call.NO_ESTIMATE);
+        }
+        variableListener.afterVariableChanged(scoreDirector, answeredCall);
+        assertThat(getEstimatedWaitings(answeredCall, call5, call3, call4)).isEqualTo(estimatedWaitings);
+    }
+
+    private static Call newCall(long id, int durationSeconds) {
+        return new Call(id, "123-456-789" + id, Set.of(Skill.ENGLISH), durationSeconds);
+    }
+
+    private static void chain(Agent agent, Call... calls) {
+        PreviousCallOrAgent previous = agent;
+        for (Call call : calls) {
+            call.setPreviousCallOrAgent(previous);
+            call.setAgent(agent);
+            previous.setNextCall(call);
+            previous = call;
+        }
+        previous.setNextCall(null);
+    }
+
+    private static List<Duration> getEstimatedWaitings(Call... calls) {
+        List<Duration> estimatedWaitings = new ArrayList<>();
+        for (Call call : calls) {
+            estimatedWaitings.add(call.getEstimatedWaiting());
+        }
+        return estimatedWaitings;
+    }
+
+    /**
+     * Records the calls whose estimated waiting changes and supports nothing else.
+     */
+    @SuppressWarnings("unchecked")
+    private static ScoreDirector<CallCenter> recordingScoreDirector(List<Call> changedCalls) {
+        return (ScoreDirector<CallCenter>) Proxy.newProxyInstance(ScoreDirector.class.getClassLoader(),
+                new Class<?>[] { ScoreDirector.class }, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "beforeVariableChanged":
+                            assertThat(args[1]).isEqualTo("estimatedWaitingNanos");
+                            changedCalls.add((Call) args[0]);
+                            return null;
+                        case "afterVariableChanged":
+                            return null;
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+}
@@ -7,6 +7,7 @@ import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Supplier;
+import java.util.stream.IntStream;
 
 import jakarta.inject.Inject;
 
@@ -52,6 +53,21 @@ public class SolverServiceTest {
         assertThat(agentWithCalls.getSkills()).contains(Skill.ENGLISH, Skill.CAR_INSURANCE);
     }
 
+    @Test
+    @Timeout(60)
+    void addManyCallsInBatches() {
+        // More calls than fit in one batch.
+        Supplier<CompletableFuture<Void>>[] addCalls = IntStream.range(0, 250)
+                .mapToObj(i -> new Call(1_000L + i, "123-456-" + i, Skill.ENGLISH, Skill.CAR_INSURANCE))
+                .<Supplier<CompletableFuture<Void>>> map(call -> () -> solverService.addCall(call))
+                .toArray(Supplier[]::new);
+        CallCenter bestSolution = solve(dataGenerator.generateCallCenter(), addCalls);
+
+        assertThat(bestSolution.getCalls()).hasSize(250);
+        assertThat(bestSolution.getAgents().stream().mapToInt(agent -> agent.getAssignedCalls().size()).sum())
+                .isEqualTo(250);
+    }
+
     @Test
     @Timeout(60)
     void prolongCall() {
@@ -0,0 +1,104 @@
+package org.acme.callcenter.solver.change;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.acme.callcenter.domain.Call;
+import org.acme.callcenter.domain.CallCenter;
+import org.acme.callcenter.domain.Skill;
+import org.junit.jupiter.api.Test;
+import org.optaplanner.core.api.solver.change.ProblemChangeDirector;
+
+class PinCallsProblemChangeTest {
+
+    @Test
+    void skipPinnedAndRemovedCalls() {
+        Call waitingCall = new Call(1L, "123-456-7891", Skill.ENGLISH);
+        Call pinnedCall = new Call(2L, "123-456-7892", Skill.ENGLISH);
+        pinnedCall.setPinned(true);
+        Call removedCall = new Call(3L, "123-456-7893", Skill.ENGLISH);
+        WorkingCallDirector problemChangeDirector = new WorkingCallDirector(List.of(waitingCall, pinnedCall));
+
+        // Copies of the calls of a best solution, like the ones SolverService pins.
+        new PinCallsProblemChange(List.of(new Call(1L, "123-456-7891", Skill.ENGLISH),
+                new Call(2L, "123-456-7892", Skill.ENGLISH), removedCall))
+                .doChange(new CallCenter(), problemChangeDirector);
+
+        assertThat(problemChangeDirector.changedCalls).containsExactly(waitingCall);
+        assertThat(waitingCall.isPinned()).isTrue();
+        assertThat(waitingCall.getPickUpTime()).isNotNull();
+        assertThat(pinnedCall.getPickUpTime()).isNull();
+        assertThat(removedCall.isPinned()).isFalse();
+    }
+
+    /**
+     * Looks up the working calls by id and only supports changing their problem properties.
+     */
+    private static final class WorkingCallDirector implements ProblemChangeDirector {
+
+        private final Map<Long, Call> workingCallMap;
+        private final List<Call> changedCalls = new ArrayList<>();
+
+        private WorkingCallDirector(List<Call> workingCalls) {
+            workingCallMap = workingCalls.stream().collect(Collectors.toMap(Call::getId, Function.identity()));
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <EntityOrProblemFact> Optional<EntityOrProblemFact> lookUpWorkingObject(
+                EntityOrProblemFact externalObject) {
+            return Optional.ofNullable((EntityOrProblemFact) workingCallMap.get(((Call) externalObject).getId()));
+        }
+
+        @Override
+        public <EntityOrProblemFact> EntityOrProblemFact lookUpWorkingObjectOrFail(
+                EntityOrProblemFact externalObject) {
+            return lookUpWorkingObject(externalObject).orElseThrow();
+        }
+
+        @Override
+        public <EntityOrProblemFact> void changeProblemProperty(EntityOrProblemFact problemFactOrEntity,
+                Consumer<EntityOrProblemFact> problemFactOrEntityConsumer) {
+            changedCalls.add((Call) problemFactOrEntity);
+            problemFactOrEntityConsumer.accept(problemFactOrEntity);
+        }
+
+        @Override
+        public <Entity> void addEntity(Entity entity, Consumer<Entity> entityConsumer) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public <Entity> void removeEntity(Entity entity, Consumer<Entity> entityConsumer) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public <Entity> void changeVariable(Entity entity, String variableName, Consumer<Entity> entityConsumer) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public <ProblemFact> void addProblemFact(ProblemFact problemFact, Consumer<ProblemFact> problemFactConsumer) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public <ProblemFact> void removeProblemFact(ProblemFact problemFact,
+                Consumer<ProblemFact> problemFactConsumer) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void updateShadowVariables() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
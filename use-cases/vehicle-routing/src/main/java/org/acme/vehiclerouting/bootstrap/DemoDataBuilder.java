@@ -20,7 +20,7 @@ public class DemoDataBuilder {
 
     private static final AtomicLong sequence = new AtomicLong();
 
-    private final DistanceCalculator distanceCalculator = new EuclideanDistanceCalculator();
+    private DistanceCalculator distanceCalculator = new EuclideanDistanceCalculator();
 
     private Location southWestCorner;
     private Location northEastCorner;
@@ -30,6 +30,7 @@ public class DemoDataBuilder {
     private int minDemand;
     private int maxDemand;
     private int vehicleCapacity;
+    private long seed = 0L;
 
     private DemoDataBuilder() {
     }
@@ -78,6 +79,19 @@ public class DemoDataBuilder {
         return this;
     }
 
+    /**
+     * The same seed and settings always build the same locations and demands.
+     */
+    public DemoDataBuilder setSeed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    public DemoDataBuilder setDistanceCalculator(DistanceCalculator distanceCalculator) {
+        this.distanceCalculator = distanceCalculator;
+        return this;
+    }
+
     public VehicleRoutingSolution build() {
         if (minDemand < 1) {
             throw new IllegalStateException("minDemand (" + minDemand + ") must be greater than zero.");
@@ -118,7 +132,7 @@ public class DemoDataBuilder {
 
         String name = "demo";
 
-        Random random = new Random(0);
+        Random random = new Random(seed);
         PrimitiveIterator.OfDouble latitudes = random
                 .doubles(southWestCorner.getLatitude(), northEastCorner.getLatitude()).iterator();
         PrimitiveIterator.OfDouble longitudes = random
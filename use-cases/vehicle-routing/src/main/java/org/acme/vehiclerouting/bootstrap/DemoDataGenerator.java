@@ -6,19 +6,23 @@ import jakarta.enterprise.event.Observes;
 import io.quarkus.runtime.StartupEvent;
 import org.acme.vehiclerouting.domain.Location;
 import org.acme.vehiclerouting.domain.VehicleRoutingSolution;
+import org.acme.vehiclerouting.domain.geo.DistanceCalculator;
 import org.acme.vehiclerouting.persistence.VehicleRoutingSolutionRepository;
 
 @ApplicationScoped
 public class DemoDataGenerator {
 
     private final VehicleRoutingSolutionRepository repository;
+    private final DistanceCalculator distanceCalculator;
 
-    public DemoDataGenerator(VehicleRoutingSolutionRepository repository) {
+    public DemoDataGenerator(VehicleRoutingSolutionRepository repository, DistanceCalculator distanceCalculator) {
         this.repository = repository;
+        this.distanceCalculator = distanceCalculator;
     }
 
     public void generateDemoData(@Observes StartupEvent startupEvent) {
         VehicleRoutingSolution problem = DemoDataBuilder.builder()
+                .setDistanceCalculator(distanceCalculator)
                 .setMinDemand(1)
                 .setMaxDemand(2)
                 .setVehicleCapacity(25)
@@ -29,6 +33,6 @@ public class DemoDataGenerator {
                 .setNorthEastCorner(new Location(0L, 43.809291, 11.290195))
                 .build();
 
-        repository.update(problem);
+        repository.update(VehicleRoutingSolutionRepository.DEFAULT_PROBLEM_ID, problem);
     }
 }
@@ -0,0 +1,73 @@
+package org.acme.vehiclerouting.bootstrap;
+
+import java.nio.file.Path;
+import java.util.Optional;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Produces;
+
+import org.acme.vehiclerouting.domain.geo.CachingDistanceCalculator;
+import org.acme.vehiclerouting.domain.geo.DistanceCalculator;
+import org.acme.vehiclerouting.domain.geo.EuclideanDistanceCalculator;
+import org.acme.vehiclerouting.domain.geo.HaversineDistanceCalculator;
+import org.acme.vehiclerouting.domain.geo.LazyDistanceCalculator;
+import org.acme.vehiclerouting.domain.geo.RoadNetworkDistanceCalculator;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+@ApplicationScoped
+public class DistanceCalculatorProducer {
+
+    public enum DistanceCalculatorType {
+        EUCLIDEAN,
+        HAVERSINE,
+        ROAD_NETWORK
+    }
+
+    @ConfigProperty(name = "vehicle-routing.distance-calculator", defaultValue = "EUCLIDEAN")
+    DistanceCalculatorType distanceCalculatorType;
+
+    @ConfigProperty(name = "vehicle-routing.road-network-file")
+    Optional<Path> roadNetworkFile;
+
+    @ConfigProperty(name = "vehicle-routing.distance-matrix-cache-directory")
+    Optional<Path> distanceMatrixCacheDirectory;
+
+    @ConfigProperty(name = "vehicle-routing.lazy-distance-matrix.minimum-location-count")
+    Optional<Integer> lazyDistanceMatrixMinimumLocationCount;
+
+    @ConfigProperty(name = "vehicle-routing.lazy-distance-matrix.nearest-count", defaultValue = "40")
+    int lazyDistanceMatrixNearestCount;
+
+    @ConfigProperty(name = "vehicle-routing.lazy-distance-matrix.cache-size", defaultValue = "1048576")
+    int lazyDistanceMatrixCacheSize;
+
+    @Produces
+    @ApplicationScoped
+    DistanceCalculator distanceCalculator() {
+        DistanceCalculator distanceCalculator;
+        switch (distanceCalculatorType) {
+            case EUCLIDEAN:
+                distanceCalculator = new EuclideanDistanceCalculator();
+                break;
+            case HAVERSINE:
+                distanceCalculator = new HaversineDistanceCalculator();
+                break;
+            case ROAD_NETWORK:
+                distanceCalculator = new RoadNetworkDistanceCalculator(roadNetworkFile.orElseThrow(
+                        () -> new IllegalStateException("The distance calculator (" + distanceCalculatorType
+                                + ") requires the property vehicle-routing.road-network-file.")));
+                break;
+            default:
+                throw new IllegalStateException("Unsupported distance calculator (" + distanceCalculatorType + ").");
+        }
+        if (distanceMatrixCacheDirectory.isPresent()) {
+            distanceCalculator = new CachingDistanceCalculator(distanceCalculator, distanceMatrixCacheDirectory.get());
+        }
+        if (lazyDistanceMatrixMinimumLocationCount.isPresent()) {
+            distanceCalculator = new LazyDistanceCalculator(distanceCalculator,
+                    lazyDistanceMatrixMinimumLocationCount.get(), lazyDistanceMatrixNearestCount,
+                    lazyDistanceMatrixCacheSize);
+        }
+        return distanceCalculator;
+    }
+}
@@ -1,11 +1,28 @@
 package org.acme.vehiclerouting.domain;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.optaplanner.core.api.domain.entity.PlanningEntity;
+import org.optaplanner.core.api.domain.lookup.PlanningId;
+import org.optaplanner.core.api.domain.variable.InverseRelationShadowVariable;
+import org.optaplanner.core.api.domain.variable.NextElementShadowVariable;
+import org.optaplanner.core.api.domain.variable.PreviousElementShadowVariable;
+
+@PlanningEntity
 public class Customer {
 
+    @PlanningId
     private long id;
     private Location location;
     private int demand;
 
+    // Shadow variables
+    @InverseRelationShadowVariable(sourceVariableName = "customerList")
+    private Vehicle vehicle;
+    @PreviousElementShadowVariable(sourceVariableName = "customerList")
+    private Customer previousCustomer;
+    @NextElementShadowVariable(sourceVariableName = "customerList")
+    private Customer nextCustomer;
+
     public Customer() {
     }
 
@@ -39,10 +56,60 @@ public class Customer {
         this.demand = demand;
     }
 
+    @JsonIgnore
+    public Vehicle getVehicle() {
+        return vehicle;
+    }
+
+    public void setVehicle(Vehicle vehicle) {
+        this.vehicle = vehicle;
+    }
+
+    @JsonIgnore
+    public Customer getPreviousCustomer() {
+        return previousCustomer;
+    }
+
+    public void setPreviousCustomer(Customer previousCustomer) {
+        this.previousCustomer = previousCustomer;
+    }
+
+    @JsonIgnore
+    public Customer getNextCustomer() {
+        return nextCustomer;
+    }
+
+    public void setNextCustomer(Customer nextCustomer) {
+        this.nextCustomer = nextCustomer;
+    }
+
     // ************************************************************************
     // Complex methods
     // ************************************************************************
 
+    /**
+     * Distance of the edges of the vehicle's route that touch this customer and that this customer is responsible for:
+     * the edge from the previous customer (or the depot) and, for the last customer, the edge back to the depot.
+     * Summed over all assigned customers, this is the total distance of all routes,
+     * but a move only changes the contribution of the few customers around the changed edges.
+     *
+     * @return distance in meters, {@code 0} if the customer is not assigned to a vehicle
+     */
+    @JsonIgnore
+    public long getDistanceFromPreviousStandstillMeters() {
+        if (vehicle == null) {
+            return 0L;
+        }
+        Location depotLocation = vehicle.getDepot().getLocation();
+        long distance = previousCustomer == null
+                ? depotLocation.getDistanceTo(location)
+                : previousCustomer.getLocation().getDistanceTo(location);
+        if (nextCustomer == null) {
+            distance += location.getDistanceTo(depotLocation);
+        }
+        return distance;
+    }
+
     @Override
     public String toString() {
         return "Customer{" +
@@ -1,18 +1,20 @@
 package org.acme.vehiclerouting.domain;
 
-import java.util.Map;
-
 import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import org.acme.vehiclerouting.domain.geo.DistanceMatrix;
+import org.optaplanner.core.api.domain.lookup.PlanningId;
 
 @JsonFormat(shape = JsonFormat.Shape.ARRAY)
-@JsonIgnoreProperties({ "id" })
+@JsonIgnoreProperties({ "id", "index", "distanceMatrix" })
 public class Location {
 
+    @PlanningId
     private final long id;
     private final double latitude;
     private final double longitude;
-    private Map<Location, Long> distanceMap;
+    private DistanceMatrix distanceMatrix;
+    private int index;
 
     public Location(long id, double latitude, double longitude) {
         this.id = id;
@@ -33,12 +35,27 @@ public class Location {
     }
 
     /**
-     * Set the distance map. Distances are in meters.
+     * Index of this location in its {@link DistanceMatrix}.
+     *
+     * @return never negative
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    public DistanceMatrix getDistanceMatrix() {
+        return distanceMatrix;
+    }
+
+    /**
+     * Set the distance matrix shared by all locations of the same problem. Distances are in meters.
      *
-     * @param distanceMap a map containing distances from here to other locations
+     * @param distanceMatrix never null, contains distances between all locations of the problem
+     * @param index row and column of this location in the distance matrix
      */
-    public void setDistanceMap(Map<Location, Long> distanceMap) {
-        this.distanceMap = distanceMap;
+    public void setDistanceMatrix(DistanceMatrix distanceMatrix, int index) {
+        this.distanceMatrix = distanceMatrix;
+        this.index = index;
     }
 
     /**
@@ -48,7 +65,17 @@ public class Location {
      * @return distance in meters
      */
     public long getDistanceTo(Location location) {
-        return distanceMap.get(location);
+        return distanceMatrix.getDistance(index, location.index);
+    }
+
+    /**
+     * Distance to the given location for nearby selection, see {@link DistanceMatrix#getNearbyDistance(int, int)}.
+     *
+     * @param location other location
+     * @return distance in meters, or an estimate of it
+     */
+    public long getNearbyDistanceTo(Location location) {
+        return distanceMatrix.getNearbyDistance(index, location.index);
     }
 
     // ************************************************************************
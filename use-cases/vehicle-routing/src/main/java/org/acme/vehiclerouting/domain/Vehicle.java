@@ -5,11 +5,13 @@ import java.util.Collections;
 import java.util.List;
 
 import org.optaplanner.core.api.domain.entity.PlanningEntity;
+import org.optaplanner.core.api.domain.lookup.PlanningId;
 import org.optaplanner.core.api.domain.variable.PlanningListVariable;
 
 @PlanningEntity
 public class Vehicle {
 
+    @PlanningId
     private long id;
     private int capacity;
     private Depot depot;
@@ -3,6 +3,7 @@ package org.acme.vehiclerouting.domain;
 import java.util.Arrays;
 import java.util.List;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import org.acme.vehiclerouting.bootstrap.DemoDataBuilder;
 import org.optaplanner.core.api.domain.solution.PlanningEntityCollectionProperty;
 import org.optaplanner.core.api.domain.solution.PlanningScore;
@@ -25,6 +26,8 @@ public class VehicleRoutingSolution {
     @PlanningEntityCollectionProperty
     private List<Vehicle> vehicleList;
 
+    // Customer only has shadow variables, which are updated from the vehicles' customer lists,
+    // so it does not need to be registered as an entity collection.
     @ProblemFactCollectionProperty
     @ValueRangeProvider
     private List<Customer> customerList;
@@ -35,6 +38,9 @@ public class VehicleRoutingSolution {
     private Location southWestCorner;
     private Location northEastCorner;
 
+    // Never decreases, so the id of a removed customer (or its location) is never given to a new one.
+    private long nextCustomerId;
+
     public VehicleRoutingSolution() {
     }
 
@@ -48,6 +54,10 @@ public class VehicleRoutingSolution {
         this.customerList = customerList;
         this.southWestCorner = southWestCorner;
         this.northEastCorner = northEastCorner;
+        long maxId = Math.max(
+                locationList.stream().mapToLong(Location::getId).max().orElse(0L),
+                customerList.stream().mapToLong(Customer::getId).max().orElse(0L));
+        this.nextCustomerId = maxId + 1L;
     }
 
     public static VehicleRoutingSolution empty() {
@@ -109,6 +119,18 @@ public class VehicleRoutingSolution {
         this.score = score;
     }
 
+    /**
+     * @return the id of the next customer added while solving, which its location gets too
+     */
+    @JsonIgnore
+    public long getNextCustomerId() {
+        return nextCustomerId;
+    }
+
+    public void setNextCustomerId(long nextCustomerId) {
+        this.nextCustomerId = nextCustomerId;
+    }
+
     // ************************************************************************
     // Complex methods
     // ************************************************************************
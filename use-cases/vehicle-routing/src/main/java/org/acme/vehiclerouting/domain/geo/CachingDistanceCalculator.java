@@ -0,0 +1,133 @@
+package org.acme.vehiclerouting.domain.geo;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.List;
+
+import org.acme.vehiclerouting.domain.Location;
+
+/**
+ * Caches the distance matrices calculated by another {@link DistanceCalculator} in memory-mapped files.
+ * <p>
+ * Each file is keyed by a hash of the {@link DistanceCalculator#getCacheKey() delegate cache key}
+ * and the coordinates of the locations, in order.
+ * So a road network that changes gets new files instead of the matrices of the old one.
+ * A later calculation for the same locations maps the existing file instead of recalculating it,
+ * so the matrix is neither recalculated nor copied onto the heap.
+ * Matrices too big to be mapped in one piece (more than {@link #MAX_CACHED_SIZE} locations)
+ * are calculated on the heap by the delegate.
+ */
+public class CachingDistanceCalculator implements DistanceCalculator {
+
+    public static final int MAX_CACHED_SIZE = (int) Math.sqrt(Integer.MAX_VALUE / Long.BYTES);
+
+    private static final String FILE_PREFIX = "distance-matrix-";
+    private static final String FILE_SUFFIX = ".bin";
+
+    private final DistanceCalculator delegate;
+    private final Path cacheDirectory;
+
+    public CachingDistanceCalculator(DistanceCalculator delegate, Path cacheDirectory) {
+        this.delegate = delegate;
+        this.cacheDirectory = cacheDirectory;
+    }
+
+    @Override
+    public String getCacheKey() {
+        return delegate.getCacheKey();
+    }
+
+    @Override
+    public boolean isGeographic() {
+        return delegate.isGeographic();
+    }
+
+    @Override
+    public long calculateDistance(Location from, Location to) {
+        return delegate.calculateDistance(from, to);
+    }
+
+    @Override
+    public DistanceMatrix calculateDistanceMatrix(List<Location> locationList) {
+        int size = locationList.size();
+        if (size > MAX_CACHED_SIZE) {
+            return delegate.calculateDistanceMatrix(locationList);
+        }
+        try {
+            Files.createDirectories(cacheDirectory);
+            Path cacheFile = cacheDirectory.resolve(FILE_PREFIX + calculateKey(locationList) + FILE_SUFFIX);
+            long byteSize = (long) size * size * Long.BYTES;
+            if (!Files.exists(cacheFile) || Files.size(cacheFile) != byteSize) {
+                Path tempFile = Files.createTempFile(cacheDirectory, FILE_PREFIX, ".tmp");
+                try {
+                    MappedByteBuffer buffer = map(tempFile, byteSize, FileChannel.MapMode.READ_WRITE);
+                    delegate.calculateDistanceMatrix(locationList, toDistanceMatrix(size, buffer));
+                    buffer.force();
+                    Files.move(tempFile, cacheFile, StandardCopyOption.ATOMIC_MOVE,
+                            StandardCopyOption.REPLACE_EXISTING);
+                } finally {
+                    Files.deleteIfExists(tempFile);
+                }
+            }
+            // Private (copy-on-write) mapping, so changes to the returned matrix never corrupt the cache file.
+            return toDistanceMatrix(size, map(cacheFile, byteSize, FileChannel.MapMode.PRIVATE));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to cache the distance matrix in directory ("
+                    + cacheDirectory + ").", e);
+        }
+    }
+
+    @Override
+    public void calculateDistanceMatrix(List<Location> locationList, DistanceMatrix distanceMatrix) {
+        delegate.calculateDistanceMatrix(locationList, distanceMatrix);
+    }
+
+    @Override
+    public void addToDistanceMatrix(Location location, Collection<Location> locationList) {
+        delegate.addToDistanceMatrix(location, locationList);
+    }
+
+    private static MappedByteBuffer map(Path file, long byteSize, FileChannel.MapMode mapMode) throws IOException {
+        // The mapping stays valid after the channel is closed.
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(mapMode, 0L, byteSize);
+        }
+    }
+
+    private static DistanceMatrix toDistanceMatrix(int size, MappedByteBuffer buffer) {
+        return new DistanceMatrix(size, buffer.order(ByteOrder.LITTLE_ENDIAN).asLongBuffer());
+    }
+
+    private String calculateKey(List<Location> locationList) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("The JVM does not support SHA-256.", e);
+        }
+        digest.update(delegate.getCacheKey().getBytes(StandardCharsets.UTF_8));
+        ByteBuffer coordinates = ByteBuffer.allocate(2 * Double.BYTES);
+        for (Location location : locationList) {
+            coordinates.clear();
+            coordinates.putDouble(location.getLatitude()).putDouble(location.getLongitude()).flip();
+            digest.update(coordinates);
+        }
+        StringBuilder key = new StringBuilder();
+        for (byte b : digest.digest()) {
+            key.append(String.format("%02x", b));
+        }
+        return key.toString();
+    }
+}
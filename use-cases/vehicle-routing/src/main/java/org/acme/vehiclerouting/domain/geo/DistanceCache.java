@@ -0,0 +1,87 @@
+package org.acme.vehiclerouting.domain.geo;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded, lock-free cache of distances by (from, to) key, safe for concurrent move evaluation.
+ * <p>
+ * The slots are divided into small stripes of {@link #WAYS} slots, selected by the hash of the key.
+ * Within a stripe, the entry to evict is chosen by the CLOCK algorithm (an approximation of least recently used):
+ * a hit marks its entry as referenced and the eviction skips referenced entries once, clearing their mark.
+ * Entries are immutable apart from that mark and replaced with a compare-and-set,
+ * so readers never block and never see a key with the value of another key.
+ * A lost race only means that a distance is calculated again.
+ */
+final class DistanceCache {
+
+    static final long MISSING = Long.MIN_VALUE;
+
+    private static final int WAYS = 4;
+
+    private final AtomicReferenceArray<Entry> slots;
+    private final int stripeMask;
+
+    /**
+     * @param capacity the maximum number of entries, rounded down to a power of 2 (at least {@link #WAYS})
+     */
+    DistanceCache(int capacity) {
+        int stripeCount = Integer.highestOneBit(Math.max(1, capacity / WAYS));
+        this.slots = new AtomicReferenceArray<>(stripeCount * WAYS);
+        this.stripeMask = stripeCount - 1;
+    }
+
+    int getCapacity() {
+        return slots.length();
+    }
+
+    /**
+     * @return {@link #MISSING} if the key is not cached
+     */
+    long get(long key) {
+        int start = stripeStart(key);
+        for (int i = start; i < start + WAYS; i++) {
+            Entry entry = slots.get(i);
+            if (entry != null && entry.key == key) {
+                if (!entry.referenced) {
+                    entry.referenced = true;
+                }
+                return entry.value;
+            }
+        }
+        return MISSING;
+    }
+
+    void put(long key, long value) {
+        int start = stripeStart(key);
+        Entry newEntry = new Entry(key, value);
+        // Two rounds, because the first one may only clear the references.
+        for (int round = 0; round < 2; round++) {
+            for (int i = start; i < start + WAYS; i++) {
+                Entry entry = slots.get(i);
+                if (entry == null || !entry.referenced) {
+                    slots.compareAndSet(i, entry, newEntry);
+                    return;
+                }
+                entry.referenced = false;
+            }
+        }
+    }
+
+    private int stripeStart(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return ((int) (hash >>> 32) & stripeMask) * WAYS;
+    }
+
+    private static final class Entry {
+
+        private final long key;
+        private final long value;
+        // Racy on purpose: a lost update only affects which entry is evicted.
+        private boolean referenced = false;
+
+        private Entry(long key, long value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+}
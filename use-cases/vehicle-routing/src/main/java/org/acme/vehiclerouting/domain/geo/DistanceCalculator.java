@@ -1,9 +1,12 @@
 package org.acme.vehiclerouting.domain.geo;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import org.acme.vehiclerouting.domain.Location;
 
@@ -18,6 +21,28 @@ public interface DistanceCalculator {
      */
     long calculateDistance(Location from, Location to);
 
+    /**
+     * Identifies the distances this calculator returns, for caches that outlive it
+     * (see {@link CachingDistanceCalculator}).
+     * Calculators whose distances depend on more than their type, such as on a data file, must override this.
+     *
+     * @return never null, equal for two calculators if and only if they return the same distances
+     */
+    default String getCacheKey() {
+        return getClass().getName();
+    }
+
+    /**
+     * Whether the coordinates of the locations are degrees, which bounds them to [-90, 90] for the latitude
+     * and [-180, 180] for the longitude.
+     * Calculators of plane coordinates, such as those of imported benchmark instances, must override this.
+     *
+     * @return true if the latitude and the longitude of a location are degrees
+     */
+    default boolean isGeographic() {
+        return true;
+    }
+
     /**
      * Bulk calculation of distance.
      * Typically much more scalable than {@link #calculateDistance(Location, Location)} iteratively.
@@ -39,12 +64,72 @@ public interface DistanceCalculator {
     }
 
     /**
-     * Calculate distance matrix for the given list of locations and assign distance maps accordingly.
+     * Calculate the dense distance matrix between all the given locations.
+     * The row and column of each location is its position in {@code locationList}.
+     *
+     * @param locationList never null
+     * @return never null
+     */
+    default DistanceMatrix calculateDistanceMatrix(List<Location> locationList) {
+        DistanceMatrix distanceMatrix = new DistanceMatrix(locationList.size());
+        calculateDistanceMatrix(locationList, distanceMatrix);
+        return distanceMatrix;
+    }
+
+    /**
+     * Fill the given dense distance matrix with the distances between all the given locations.
+     * The row and column of each location is its position in {@code locationList}.
+     * <p>
+     * Rows are calculated in parallel on the common {@link java.util.concurrent.ForkJoinPool},
+     * so {@link #calculateDistance(Location, Location)} must be thread-safe.
      *
-     * @param locationList
+     * @param locationList never null
+     * @param distanceMatrix never null, its size must be equal to the size of {@code locationList}
+     */
+    default void calculateDistanceMatrix(List<Location> locationList, DistanceMatrix distanceMatrix) {
+        int size = locationList.size();
+        IntStream.range(0, size).parallel().forEach(fromIndex -> {
+            Location from = locationList.get(fromIndex);
+            for (int toIndex = 0; toIndex < size; toIndex++) {
+                distanceMatrix.setDistance(fromIndex, toIndex, calculateDistance(from, locationList.get(toIndex)));
+            }
+        });
+    }
+
+    /**
+     * Calculate distance matrix for the given list of locations and assign it to each location,
+     * together with the location's index in that matrix.
+     * The matrix remembers this calculator, for the locations added to it later.
+     *
+     * @param locationList never null
      */
     default void initDistanceMaps(Collection<Location> locationList) {
-        Map<Location, Map<Location, Long>> distanceMatrix = calculateBulkDistance(locationList, locationList);
-        locationList.forEach(location -> location.setDistanceMap(distanceMatrix.get(location)));
+        List<Location> indexedLocationList = new ArrayList<>(locationList);
+        DistanceMatrix distanceMatrix = calculateDistanceMatrix(indexedLocationList);
+        distanceMatrix.setDistanceCalculator(this);
+        for (int i = 0; i < indexedLocationList.size(); i++) {
+            indexedLocationList.get(i).setDistanceMatrix(distanceMatrix, i);
+        }
+    }
+
+    /**
+     * Add a new location to the distance matrix of the given locations, which is already initialized
+     * (see {@link #initDistanceMaps(Collection)}), and assign that matrix to the new location.
+     * Only the row and column of the new location are calculated.
+     *
+     * @param location never null, not yet in the distance matrix
+     * @param locationList never null, not empty, all locations that share the distance matrix
+     */
+    default void addToDistanceMatrix(Location location, Collection<Location> locationList) {
+        DistanceMatrix distanceMatrix = locationList.iterator().next().getDistanceMatrix();
+        int size = distanceMatrix.getSize();
+        // Locations that were removed from the problem keep their (unused) index in the matrix.
+        long[] distancesFrom = new long[size + 1];
+        long[] distancesTo = new long[size + 1];
+        for (Location other : locationList) {
+            distancesFrom[other.getIndex()] = calculateDistance(location, other);
+            distancesTo[other.getIndex()] = calculateDistance(other, location);
+        }
+        location.setDistanceMatrix(distanceMatrix, distanceMatrix.addLocation(distancesFrom, distancesTo));
     }
 }
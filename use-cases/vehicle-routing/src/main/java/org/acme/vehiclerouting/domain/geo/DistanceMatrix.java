@@ -0,0 +1,178 @@
+package org.acme.vehiclerouting.domain.geo;
+
+import java.nio.LongBuffer;
+import java.util.Arrays;
+
+/**
+ * Dense distance matrix shared by all {@link org.acme.vehiclerouting.domain.Location locations} of a problem.
+ * Distances are in meters and stored row-major in a single primitive buffer,
+ * so that a lookup is a single read without boxing.
+ * The buffer is either a heap array or a memory-mapped file (see {@link CachingDistanceCalculator}).
+ * A heap array is read directly, so only a mapped file pays for the buffer indirection and its bounds checks.
+ * <p>
+ * Locations added while solving (see {@link #addLocation(long[], long[])}) do not resize that buffer.
+ * Each added location gets its own row and column instead, which only cover the locations before it
+ * (the distances to later locations are in their rows and columns).
+ * So adding a location costs O(size) and never blocks the solver threads that read the matrix.
+ * <p>
+ * A matrix in lazy mode (see {@link LazyDistanceCalculator}) has no dense part at all
+ * and gets all its distances from a {@link LazyDistanceTable}.
+ */
+public final class DistanceMatrix {
+
+    private final int size;
+    private final LongBuffer distances;
+    // The array behind the distances buffer, null if that buffer is memory-mapped.
+    private final long[] heapDistances;
+    private final LazyDistanceTable lazyDistanceTable;
+    private volatile DistanceCalculator distanceCalculator;
+    private volatile AddedLocations addedLocations = new AddedLocations(new long[0][], new long[0][]);
+
+    public DistanceMatrix(int size) {
+        this(size, LongBuffer.wrap(new long[checkedLength(size)]));
+    }
+
+    public DistanceMatrix(int size, LongBuffer distances) {
+        if (distances.capacity() != checkedLength(size)) {
+            throw new IllegalArgumentException("The distances capacity (" + distances.capacity()
+                    + ") must be equal to size (" + size + ") squared.");
+        }
+        this.size = size;
+        this.distances = distances;
+        this.heapDistances = distances.hasArray() && distances.arrayOffset() == 0 ? distances.array() : null;
+        this.lazyDistanceTable = null;
+    }
+
+    DistanceMatrix(LazyDistanceTable lazyDistanceTable) {
+        this.size = 0;
+        this.distances = LongBuffer.allocate(0);
+        this.heapDistances = null;
+        this.lazyDistanceTable = lazyDistanceTable;
+    }
+
+    static int checkedLength(int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("The size (" + size + ") must not be negative.");
+        }
+        long length = (long) size * size;
+        if (length > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("The size (" + size + ") is too big for a dense distance matrix.");
+        }
+        return (int) length;
+    }
+
+    /**
+     * @return the number of locations, including the added ones
+     */
+    public int getSize() {
+        if (lazyDistanceTable != null) {
+            return lazyDistanceTable.getSize();
+        }
+        return size + addedLocations.rows.length;
+    }
+
+    /**
+     * @return the calculator that filled this matrix (see {@link DistanceCalculator#initDistanceMaps}),
+     *         which also calculates the distances of the locations added to it, so all distances share one unit;
+     *         null if this matrix was not filled by {@code initDistanceMaps()}
+     */
+    public DistanceCalculator getDistanceCalculator() {
+        return distanceCalculator;
+    }
+
+    void setDistanceCalculator(DistanceCalculator distanceCalculator) {
+        this.distanceCalculator = distanceCalculator;
+    }
+
+    /**
+     * @return null unless this matrix is in lazy mode
+     */
+    LazyDistanceTable getLazyDistanceTable() {
+        return lazyDistanceTable;
+    }
+
+    /**
+     * @param fromIndex index of the starting location
+     * @param toIndex index of the target location
+     * @return distance in meters
+     */
+    public long getDistance(int fromIndex, int toIndex) {
+        if (fromIndex < size && toIndex < size) {
+            return heapDistances != null ? heapDistances[fromIndex * size + toIndex]
+                    : distances.get(fromIndex * size + toIndex);
+        }
+        if (lazyDistanceTable != null) {
+            return lazyDistanceTable.getDistance(fromIndex, toIndex);
+        }
+        AddedLocations added = addedLocations;
+        return fromIndex >= toIndex ? added.rows[fromIndex - size][toIndex]
+                : added.columns[toIndex - size][fromIndex];
+    }
+
+    /**
+     * For nearby selection, which ranks the locations around {@code fromIndex} for all n² pairs.
+     * Equal to {@link #getDistance(int, int)}, except in lazy mode, where the distances that were not
+     * precalculated are estimated, so that ranking does not flush the cache (see {@link LazyDistanceTable}).
+     *
+     * @param fromIndex index of the starting location
+     * @param toIndex index of the target location
+     * @return distance in meters, or an estimate of it
+     */
+    public long getNearbyDistance(int fromIndex, int toIndex) {
+        if (lazyDistanceTable != null) {
+            return lazyDistanceTable.getNearbyDistance(fromIndex, toIndex);
+        }
+        return getDistance(fromIndex, toIndex);
+    }
+
+    /**
+     * Only for the dense part of the matrix, use {@link #addLocation(long[], long[])} for the rest.
+     */
+    public void setDistance(int fromIndex, int toIndex, long distance) {
+        if (fromIndex >= size || toIndex >= size) {
+            throw new IllegalArgumentException("The fromIndex (" + fromIndex + ") and toIndex (" + toIndex
+                    + ") must be lower than the dense size (" + size + ").");
+        }
+        distances.put(fromIndex * size + toIndex, distance);
+    }
+
+    /**
+     * Add a location after all the existing ones.
+     *
+     * @param distancesFrom never null, the distance from the new location to each location,
+     *        indexed by {@link #getSize()} before this call, plus the distance to itself
+     * @param distancesTo never null, the distance from each location to the new location, indexed the same way
+     * @return the index of the new location
+     */
+    public synchronized int addLocation(long[] distancesFrom, long[] distancesTo) {
+        if (lazyDistanceTable != null) {
+            throw new IllegalStateException("A lazy distance matrix calculates the distances of a new location "
+                    + "itself, use LazyDistanceCalculator.addToDistanceMatrix() instead.");
+        }
+        int index = getSize();
+        if (distancesFrom.length != index + 1 || distancesTo.length != index + 1) {
+            throw new IllegalArgumentException("The distancesFrom length (" + distancesFrom.length
+                    + ") and distancesTo length (" + distancesTo.length + ") must be equal to the new size ("
+                    + (index + 1) + ").");
+        }
+        AddedLocations added = addedLocations;
+        long[][] rows = Arrays.copyOf(added.rows, added.rows.length + 1);
+        long[][] columns = Arrays.copyOf(added.columns, added.columns.length + 1);
+        rows[rows.length - 1] = distancesFrom.clone();
+        columns[columns.length - 1] = distancesTo.clone();
+        // Published in one write, so a reader never sees a row without its column.
+        addedLocations = new AddedLocations(rows, columns);
+        return index;
+    }
+
+    private static final class AddedLocations {
+
+        private final long[][] rows;
+        private final long[][] columns;
+
+        private AddedLocations(long[][] rows, long[][] columns) {
+            this.rows = rows;
+            this.columns = columns;
+        }
+    }
+}
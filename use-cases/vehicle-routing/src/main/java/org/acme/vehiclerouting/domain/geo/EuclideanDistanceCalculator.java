@@ -3,6 +3,9 @@ package org.acme.vehiclerouting.domain.geo;
 import static java.lang.Math.ceil;
 import static java.lang.Math.sqrt;
 
+import java.util.List;
+import java.util.stream.IntStream;
+
 import org.acme.vehiclerouting.domain.Location;
 
 public class EuclideanDistanceCalculator implements DistanceCalculator {
@@ -16,8 +19,34 @@ public class EuclideanDistanceCalculator implements DistanceCalculator {
         if (from.equals(to)) {
             return 0L;
         }
-        double latitudeDiff = to.getLatitude() - from.getLatitude();
-        double longitudeDiff = to.getLongitude() - from.getLongitude();
+        return calculateDistance(to.getLatitude() - from.getLatitude(), to.getLongitude() - from.getLongitude());
+    }
+
+    /**
+     * Copies the coordinates into primitive arrays first, so that the inner loop of each row
+     * is a tight loop over doubles that the JIT compiler can unroll and vectorize.
+     */
+    @Override
+    public void calculateDistanceMatrix(List<Location> locationList, DistanceMatrix distanceMatrix) {
+        int size = locationList.size();
+        double[] latitudes = new double[size];
+        double[] longitudes = new double[size];
+        for (int i = 0; i < size; i++) {
+            Location location = locationList.get(i);
+            latitudes[i] = location.getLatitude();
+            longitudes[i] = location.getLongitude();
+        }
+        IntStream.range(0, size).parallel().forEach(fromIndex -> {
+            double fromLatitude = latitudes[fromIndex];
+            double fromLongitude = longitudes[fromIndex];
+            for (int toIndex = 0; toIndex < size; toIndex++) {
+                distanceMatrix.setDistance(fromIndex, toIndex,
+                        calculateDistance(latitudes[toIndex] - fromLatitude, longitudes[toIndex] - fromLongitude));
+            }
+        });
+    }
+
+    private static long calculateDistance(double latitudeDiff, double longitudeDiff) {
         return (long) ceil(sqrt(latitudeDiff * latitudeDiff + longitudeDiff * longitudeDiff) * METERS_PER_DEGREE);
     }
 }
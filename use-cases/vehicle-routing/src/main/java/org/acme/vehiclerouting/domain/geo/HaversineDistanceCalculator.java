@@ -0,0 +1,80 @@
+package org.acme.vehiclerouting.domain.geo;
+
+import static java.lang.Math.asin;
+import static java.lang.Math.ceil;
+import static java.lang.Math.cos;
+import static java.lang.Math.sin;
+import static java.lang.Math.sqrt;
+import static java.lang.Math.toRadians;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.acme.vehiclerouting.domain.Location;
+
+/**
+ * Great-circle distance on a spherical earth.
+ * Unlike {@link EuclideanDistanceCalculator}, longitude degrees shrink away from the equator.
+ */
+public class HaversineDistanceCalculator implements DistanceCalculator {
+
+    public static final double EARTH_RADIUS_IN_METERS = 6_371_000.0;
+
+    @Override
+    public long calculateDistance(Location from, Location to) {
+        if (from.equals(to)) {
+            return 0L;
+        }
+        double fromLatitude = toRadians(from.getLatitude());
+        double toLatitude = toRadians(to.getLatitude());
+        return calculateDistance(fromLatitude, toRadians(from.getLongitude()), cos(fromLatitude),
+                toLatitude, toRadians(to.getLongitude()), cos(toLatitude));
+    }
+
+    /**
+     * Converts the coordinates into radians and precalculates their cosines once,
+     * so that the inner loop of each row is a tight loop over doubles.
+     */
+    @Override
+    public void calculateDistanceMatrix(List<Location> locationList, DistanceMatrix distanceMatrix) {
+        int size = locationList.size();
+        double[] latitudes = new double[size];
+        double[] longitudes = new double[size];
+        double[] latitudeCosines = new double[size];
+        for (int i = 0; i < size; i++) {
+            Location location = locationList.get(i);
+            latitudes[i] = toRadians(location.getLatitude());
+            longitudes[i] = toRadians(location.getLongitude());
+            latitudeCosines[i] = cos(latitudes[i]);
+        }
+        IntStream.range(0, size).parallel().forEach(fromIndex -> {
+            double fromLatitude = latitudes[fromIndex];
+            double fromLongitude = longitudes[fromIndex];
+            double fromLatitudeCosine = latitudeCosines[fromIndex];
+            for (int toIndex = 0; toIndex < size; toIndex++) {
+                distanceMatrix.setDistance(fromIndex, toIndex,
+                        calculateDistance(fromLatitude, fromLongitude, fromLatitudeCosine,
+                                latitudes[toIndex], longitudes[toIndex], latitudeCosines[toIndex]));
+            }
+        });
+    }
+
+    /**
+     * @param fromLatitude in radians
+     * @param fromLongitude in radians
+     * @param fromLatitudeCosine cosine of {@code fromLatitude}
+     * @param toLatitude in radians
+     * @param toLongitude in radians
+     * @param toLatitudeCosine cosine of {@code toLatitude}
+     * @return distance in meters
+     */
+    static long calculateDistance(double fromLatitude, double fromLongitude, double fromLatitudeCosine,
+            double toLatitude, double toLongitude, double toLatitudeCosine) {
+        double latitudeHalfSine = sin((toLatitude - fromLatitude) / 2.0);
+        double longitudeHalfSine = sin((toLongitude - fromLongitude) / 2.0);
+        double a = latitudeHalfSine * latitudeHalfSine
+                + fromLatitudeCosine * toLatitudeCosine * longitudeHalfSine * longitudeHalfSine;
+        // Rounding errors can push a just above 1 for antipodal points
+        return (long) ceil(2.0 * EARTH_RADIUS_IN_METERS * asin(sqrt(Math.min(a, 1.0))));
+    }
+}
@@ -0,0 +1,84 @@
+package org.acme.vehiclerouting.domain.geo;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.acme.vehiclerouting.domain.Location;
+
+/**
+ * Calculates the distance matrices of huge problems lazily, for which a dense matrix does not fit in memory
+ * (100k locations take 80 GB).
+ * <p>
+ * Problems with fewer than {@code minimumLocationCount} locations still get a dense matrix from the delegate.
+ * Bigger ones get a matrix in lazy mode: only the distances to the {@code nearestCount} nearest locations
+ * of every location are calculated up front, which covers most of the distances that nearby selection uses.
+ * The other distances are calculated by the delegate on first use and kept in a bounded cache,
+ * which evicts the least recently used ones (approximately) and is safe for multithreaded move evaluation.
+ * See {@link LazyDistanceTable}.
+ */
+public class LazyDistanceCalculator implements DistanceCalculator {
+
+    private final DistanceCalculator delegate;
+    private final int minimumLocationCount;
+    private final int nearestCount;
+    private final int cacheCapacity;
+
+    /**
+     * @param delegate never null, must be thread-safe
+     * @param minimumLocationCount problems with fewer locations get a dense matrix
+     * @param nearestCount the number of precalculated distances per location
+     * @param cacheCapacity the maximum number of other distances that are kept
+     */
+    public LazyDistanceCalculator(DistanceCalculator delegate, int minimumLocationCount, int nearestCount,
+            int cacheCapacity) {
+        if (nearestCount < 0) {
+            throw new IllegalArgumentException("The nearestCount (" + nearestCount + ") must not be negative.");
+        }
+        if (cacheCapacity < 1) {
+            throw new IllegalArgumentException("The cacheCapacity (" + cacheCapacity + ") must be positive.");
+        }
+        this.delegate = delegate;
+        this.minimumLocationCount = minimumLocationCount;
+        this.nearestCount = nearestCount;
+        this.cacheCapacity = cacheCapacity;
+    }
+
+    @Override
+    public String getCacheKey() {
+        return delegate.getCacheKey();
+    }
+
+    @Override
+    public boolean isGeographic() {
+        return delegate.isGeographic();
+    }
+
+    @Override
+    public long calculateDistance(Location from, Location to) {
+        return delegate.calculateDistance(from, to);
+    }
+
+    @Override
+    public DistanceMatrix calculateDistanceMatrix(List<Location> locationList) {
+        if (locationList.size() < minimumLocationCount) {
+            return delegate.calculateDistanceMatrix(locationList);
+        }
+        return new DistanceMatrix(new LazyDistanceTable(locationList, delegate, nearestCount, cacheCapacity));
+    }
+
+    @Override
+    public void calculateDistanceMatrix(List<Location> locationList, DistanceMatrix distanceMatrix) {
+        delegate.calculateDistanceMatrix(locationList, distanceMatrix);
+    }
+
+    @Override
+    public void addToDistanceMatrix(Location location, Collection<Location> locationList) {
+        DistanceMatrix distanceMatrix = locationList.iterator().next().getDistanceMatrix();
+        LazyDistanceTable lazyDistanceTable = distanceMatrix.getLazyDistanceTable();
+        if (lazyDistanceTable == null) {
+            delegate.addToDistanceMatrix(location, locationList);
+        } else {
+            location.setDistanceMatrix(distanceMatrix, lazyDistanceTable.addLocation(location));
+        }
+    }
+}
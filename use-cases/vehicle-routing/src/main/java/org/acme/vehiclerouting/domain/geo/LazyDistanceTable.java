@@ -0,0 +1,288 @@
+package org.acme.vehiclerouting.domain.geo;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.acme.vehiclerouting.domain.Location;
+
+/**
+ * The distances of a {@link DistanceMatrix} in lazy mode, see {@link LazyDistanceCalculator}.
+ * <p>
+ * For every location, the distances to its {@code nearestCount} nearest locations are calculated up front
+ * and stored in one row of primitive arrays, sorted by location index for a binary search.
+ * All other distances are calculated on first use and kept in a bounded {@link DistanceCache}.
+ * So memory is O(n * nearestCount + cacheCapacity) instead of O(n²).
+ * <p>
+ * Nearby selection ranks all n² pairs once, so it gets {@link #getNearbyDistance(int, int) estimates}
+ * for the distances outside the rows, which neither calculate nor cache anything.
+ * <p>
+ * The nearest locations are found with a uniform grid over the coordinates,
+ * so the precalculation takes O(n * nearestCount) distance calculations instead of O(n²).
+ */
+final class LazyDistanceTable {
+
+    private final DistanceCalculator distanceCalculator;
+    private final int eagerSize;
+    private final int nearestCount;
+    // Row i holds the nearest locations of location i, from i * nearestCount (inclusive), sorted by index.
+    private final int[] nearestIndices;
+    private final long[] nearestDistances;
+    // The longest distance in the row of each location.
+    private final long[] farthestNearestDistances;
+    private final DistanceCache cache;
+    // Copy-on-write, so locations can be added while solver threads read it.
+    private volatile Location[] locations;
+
+    LazyDistanceTable(List<Location> locationList, DistanceCalculator distanceCalculator, int nearestCount,
+            int cacheCapacity) {
+        this.distanceCalculator = distanceCalculator;
+        this.locations = locationList.toArray(new Location[0]);
+        this.eagerSize = locations.length;
+        this.nearestCount = Math.max(0, Math.min(nearestCount, eagerSize - 1));
+        this.nearestIndices = new int[eagerSize * this.nearestCount];
+        this.nearestDistances = new long[eagerSize * this.nearestCount];
+        this.farthestNearestDistances = new long[eagerSize];
+        this.cache = new DistanceCache(cacheCapacity);
+        if (this.nearestCount > 0) {
+            CoordinateGrid grid = new CoordinateGrid(locations, this.nearestCount);
+            IntStream.range(0, eagerSize).parallel().forEach(grid::findNearest);
+        }
+    }
+
+    int getSize() {
+        return locations.length;
+    }
+
+    int getNearestCount() {
+        return nearestCount;
+    }
+
+    long getDistance(int fromIndex, int toIndex) {
+        if (fromIndex == toIndex) {
+            return 0L;
+        }
+        int position = findNearestPosition(fromIndex, toIndex);
+        if (position >= 0) {
+            return nearestDistances[position];
+        }
+        long key = ((long) fromIndex << 32) | toIndex;
+        long distance = cache.get(key);
+        if (distance == DistanceCache.MISSING) {
+            Location[] currentLocations = locations;
+            distance = distanceCalculator.calculateDistance(currentLocations[fromIndex], currentLocations[toIndex]);
+            cache.put(key, distance);
+        }
+        return distance;
+    }
+
+    /**
+     * Ranks the locations in the row of {@code fromIndex} by their distance and all others after them,
+     * by their straight-line distance over the coordinates.
+     *
+     * @return the distance if it was precalculated, otherwise an estimate that is at least the longest distance
+     *         in the row of {@code fromIndex}
+     */
+    long getNearbyDistance(int fromIndex, int toIndex) {
+        if (fromIndex == toIndex) {
+            return 0L;
+        }
+        int position = findNearestPosition(fromIndex, toIndex);
+        if (position >= 0) {
+            return nearestDistances[position];
+        }
+        Location[] currentLocations = locations;
+        Location from = currentLocations[fromIndex];
+        Location to = currentLocations[toIndex];
+        long straightLineDistance = (long) Math.ceil(Math.hypot(to.getLatitude() - from.getLatitude(),
+                to.getLongitude() - from.getLongitude()) * EuclideanDistanceCalculator.METERS_PER_DEGREE);
+        return (fromIndex < eagerSize ? farthestNearestDistances[fromIndex] : 0L) + straightLineDistance;
+    }
+
+    /**
+     * @return the position of {@code toIndex} in the row of {@code fromIndex}, negative if it is not in that row
+     */
+    private int findNearestPosition(int fromIndex, int toIndex) {
+        if (fromIndex >= eagerSize) {
+            return -1;
+        }
+        int rowStart = fromIndex * nearestCount;
+        return Arrays.binarySearch(nearestIndices, rowStart, rowStart + nearestCount, toIndex);
+    }
+
+    /**
+     * Added locations have no precalculated row, all their distances go through the cache.
+     *
+     * @return the index of the added location
+     */
+    synchronized int addLocation(Location location) {
+        Location[] newLocations = Arrays.copyOf(locations, locations.length + 1);
+        newLocations[locations.length] = location;
+        locations = newLocations;
+        return newLocations.length - 1;
+    }
+
+    /**
+     * Buckets the locations by latitude and longitude, so that neighboring cells hold the nearest locations
+     * in coordinate space. That is exact for the Euclidean distance and close enough for the others,
+     * because the distances in a row are calculated by the distance calculator anyway.
+     */
+    private final class CoordinateGrid {
+
+        private final double[] ys;
+        private final double[] xs;
+        private final double minY;
+        private final double minX;
+        private final double cellSize;
+        private final int rowCount;
+        private final int columnCount;
+        private final int[] cellStarts;
+        private final int[] cellLocations;
+
+        private CoordinateGrid(Location[] locations, int nearestCount) {
+            int size = locations.length;
+            ys = new double[size];
+            xs = new double[size];
+            for (int i = 0; i < size; i++) {
+                ys[i] = locations[i].getLatitude();
+                xs[i] = locations[i].getLongitude();
+            }
+            minY = Arrays.stream(ys).min().orElse(0.0);
+            minX = Arrays.stream(xs).min().orElse(0.0);
+            double spanY = Arrays.stream(ys).max().orElse(0.0) - minY;
+            double spanX = Arrays.stream(xs).max().orElse(0.0) - minX;
+            // Aim for about nearestCount locations per cell, so a few rings of cells are enough.
+            // The second term bounds the cell count to O(size) when the locations are (almost) on a line.
+            cellSize = Math.max(1e-9, Math.max(Math.sqrt(spanY * spanX * nearestCount / size),
+                    Math.max(spanY, spanX) / size));
+            rowCount = (int) (spanY / cellSize) + 1;
+            columnCount = (int) (spanX / cellSize) + 1;
+            cellStarts = new int[rowCount * columnCount + 1];
+            int[] cells = new int[size];
+            for (int i = 0; i < size; i++) {
+                cells[i] = row(ys[i]) * columnCount + column(xs[i]);
+                cellStarts[cells[i] + 1]++;
+            }
+            for (int cell = 0; cell < rowCount * columnCount; cell++) {
+                cellStarts[cell + 1] += cellStarts[cell];
+            }
+            cellLocations = new int[size];
+            int[] insertPositions = Arrays.copyOf(cellStarts, rowCount * columnCount);
+            for (int i = 0; i < size; i++) {
+                cellLocations[insertPositions[cells[i]]++] = i;
+            }
+        }
+
+        private int row(double y) {
+            return Math.min(rowCount - 1, (int) ((y - minY) / cellSize));
+        }
+
+        private int column(double x) {
+            return Math.min(columnCount - 1, (int) ((x - minX) / cellSize));
+        }
+
+        /**
+         * Fills the row of the given location, searching ring after ring of cells around it
+         * until no cell further out can hold a nearer location.
+         */
+        private void findNearest(int index) {
+            // Max-heap on the squared coordinate distance, so the farthest candidate is replaced first.
+            int[] heapIndices = new int[nearestCount];
+            double[] heapDistances = new double[nearestCount];
+            int heapSize = 0;
+            int centerRow = row(ys[index]);
+            int centerColumn = column(xs[index]);
+            int maxRing = Math.max(rowCount, columnCount);
+            for (int ring = 0; ring <= maxRing; ring++) {
+                if (heapSize == nearestCount) {
+                    double reach = (ring - 1) * cellSize;
+                    if (reach > 0.0 && reach * reach >= heapDistances[0]) {
+                        break;
+                    }
+                }
+                for (int row = centerRow - ring; row <= centerRow + ring; row++) {
+                    if (row < 0 || row >= rowCount) {
+                        continue;
+                    }
+                    boolean edgeRow = row == centerRow - ring || row == centerRow + ring;
+                    int columnStep = edgeRow ? 1 : Math.max(1, 2 * ring);
+                    for (int column = centerColumn - ring; column <= centerColumn + ring; column += columnStep) {
+                        if (column < 0 || column >= columnCount) {
+                            continue;
+                        }
+                        int cell = row * columnCount + column;
+                        for (int i = cellStarts[cell]; i < cellStarts[cell + 1]; i++) {
+                            int other = cellLocations[i];
+                            if (other == index) {
+                                continue;
+                            }
+                            double dy = ys[other] - ys[index];
+                            double dx = xs[other] - xs[index];
+                            double distance = dy * dy + dx * dx;
+                            if (heapSize < nearestCount) {
+                                heapIndices[heapSize] = other;
+                                heapDistances[heapSize] = distance;
+                                siftUp(heapIndices, heapDistances, heapSize++);
+                            } else if (distance < heapDistances[0]) {
+                                heapIndices[0] = other;
+                                heapDistances[0] = distance;
+                                siftDown(heapIndices, heapDistances, heapSize);
+                            }
+                        }
+                    }
+                }
+            }
+            Arrays.sort(heapIndices, 0, heapSize);
+            int rowStart = index * nearestCount;
+            Location from = locations[index];
+            long farthestDistance = 0L;
+            for (int i = 0; i < heapSize; i++) {
+                nearestIndices[rowStart + i] = heapIndices[i];
+                long distance = distanceCalculator.calculateDistance(from, locations[heapIndices[i]]);
+                nearestDistances[rowStart + i] = distance;
+                farthestDistance = Math.max(farthestDistance, distance);
+            }
+            farthestNearestDistances[index] = farthestDistance;
+        }
+
+        private void siftUp(int[] heapIndices, double[] heapDistances, int position) {
+            while (position > 0) {
+                int parent = (position - 1) / 2;
+                if (heapDistances[parent] >= heapDistances[position]) {
+                    return;
+                }
+                swap(heapIndices, heapDistances, parent, position);
+                position = parent;
+            }
+        }
+
+        private void siftDown(int[] heapIndices, double[] heapDistances, int heapSize) {
+            int position = 0;
+            while (true) {
+                int largest = position;
+                int left = 2 * position + 1;
+                int right = left + 1;
+                if (left < heapSize && heapDistances[left] > heapDistances[largest]) {
+                    largest = left;
+                }
+                if (right < heapSize && heapDistances[right] > heapDistances[largest]) {
+                    largest = right;
+                }
+                if (largest == position) {
+                    return;
+                }
+                swap(heapIndices, heapDistances, largest, position);
+                position = largest;
+            }
+        }
+
+        private void swap(int[] heapIndices, double[] heapDistances, int a, int b) {
+            int index = heapIndices[a];
+            heapIndices[a] = heapIndices[b];
+            heapIndices[b] = index;
+            double distance = heapDistances[a];
+            heapDistances[a] = heapDistances[b];
+            heapDistances[b] = distance;
+        }
+    }
+}
@@ -0,0 +1,466 @@
+package org.acme.vehiclerouting.domain.geo;
+
+import static java.lang.Math.cos;
+import static java.lang.Math.toRadians;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+/**
+ * Directed road graph, loaded from a preprocessed extract (for example of OpenStreetMap) on the local disk.
+ * <p>
+ * The file is plain text. Empty lines and lines starting with {@code #} are ignored. The first line holds
+ * {@code <nodeCount> <edgeCount>}, followed by one {@code <latitude> <longitude>} line per node
+ * (the node index is its position) and one {@code <fromNodeIndex> <toNodeIndex> <lengthInMeters>} line per edge.
+ * Two-way roads need an edge in each direction.
+ * <p>
+ * The edges are kept in compressed sparse row arrays and the nodes in a uniform grid,
+ * to snap locations to their nearest node.
+ */
+public final class RoadNetwork {
+
+    private final int nodeCount;
+    private final double[] latitudes;
+    private final double[] longitudes;
+    // Compressed sparse row: the edges leaving node n are edgeStarts[n] (inclusive) to edgeStarts[n + 1] (exclusive).
+    private final int[] edgeStarts;
+    private final int[] edgeTargets;
+    private final int[] edgeLengths;
+    // The same edges reversed: the edges arriving at node n, with their source in reverseEdgeSources.
+    private final int[] reverseEdgeStarts;
+    private final int[] reverseEdgeSources;
+    private final int[] reverseEdgeLengths;
+
+    // Uniform grid for nearest node lookups: cell (row, column) holds nodes cellStarts[cell] to cellStarts[cell + 1].
+    private final double minLatitude;
+    private final double minLongitude;
+    private final double cellSize;
+    private final int rowCount;
+    private final int columnCount;
+    private final int[] cellStarts;
+    private final int[] cellNodes;
+
+    private final String contentHash;
+
+    RoadNetwork(double[] latitudes, double[] longitudes, int[] edgeFroms, int[] edgeTargets, int[] edgeLengths) {
+        this.nodeCount = latitudes.length;
+        if (nodeCount == 0) {
+            throw new IllegalArgumentException("The road network must have at least one node.");
+        }
+        this.latitudes = latitudes;
+        this.longitudes = longitudes;
+
+        int edgeCount = edgeFroms.length;
+        this.edgeStarts = new int[nodeCount + 1];
+        this.edgeTargets = new int[edgeCount];
+        this.edgeLengths = new int[edgeCount];
+        toCompressedSparseRows(edgeFroms, edgeTargets, edgeLengths, this.edgeStarts, this.edgeTargets,
+                this.edgeLengths);
+        this.reverseEdgeStarts = new int[nodeCount + 1];
+        this.reverseEdgeSources = new int[edgeCount];
+        this.reverseEdgeLengths = new int[edgeCount];
+        toCompressedSparseRows(edgeTargets, edgeFroms, edgeLengths, this.reverseEdgeStarts, this.reverseEdgeSources,
+                this.reverseEdgeLengths);
+
+        minLatitude = Arrays.stream(latitudes).min().getAsDouble();
+        minLongitude = Arrays.stream(longitudes).min().getAsDouble();
+        double latitudeSpan = Arrays.stream(latitudes).max().getAsDouble() - minLatitude;
+        double longitudeSpan = Arrays.stream(longitudes).max().getAsDouble() - minLongitude;
+        // Aim for about 16 nodes per cell
+        cellSize = Math.max(1e-4, Math.sqrt(latitudeSpan * longitudeSpan * 16.0 / nodeCount));
+        rowCount = (int) (latitudeSpan / cellSize) + 1;
+        columnCount = (int) (longitudeSpan / cellSize) + 1;
+        cellStarts = new int[rowCount * columnCount + 1];
+        int[] nodeCells = new int[nodeCount];
+        for (int node = 0; node < nodeCount; node++) {
+            nodeCells[node] = row(latitudes[node]) * columnCount + column(longitudes[node]);
+            cellStarts[nodeCells[node] + 1]++;
+        }
+        for (int cell = 0; cell < rowCount * columnCount; cell++) {
+            cellStarts[cell + 1] += cellStarts[cell];
+        }
+        cellNodes = new int[nodeCount];
+        int[] cellInsertPositions = Arrays.copyOf(cellStarts, rowCount * columnCount);
+        for (int node = 0; node < nodeCount; node++) {
+            cellNodes[cellInsertPositions[nodeCells[node]]++] = node;
+        }
+        contentHash = calculateContentHash();
+    }
+
+    private static void toCompressedSparseRows(int[] froms, int[] tos, int[] lengths,
+            int[] starts, int[] sortedTos, int[] sortedLengths) {
+        int nodeCount = starts.length - 1;
+        for (int from : froms) {
+            starts[from + 1]++;
+        }
+        for (int node = 0; node < nodeCount; node++) {
+            starts[node + 1] += starts[node];
+        }
+        int[] insertPositions = Arrays.copyOf(starts, nodeCount);
+        for (int edge = 0; edge < froms.length; edge++) {
+            int position = insertPositions[froms[edge]]++;
+            sortedTos[position] = tos[edge];
+            sortedLengths[position] = lengths[edge];
+        }
+    }
+
+    private String calculateContentHash() {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("The JVM does not support SHA-256.", e);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        for (int node = 0; node < nodeCount; node++) {
+            if (buffer.remaining() < 2 * Double.BYTES) {
+                digest.update(buffer.flip());
+                buffer.clear();
+            }
+            buffer.putDouble(latitudes[node]).putDouble(longitudes[node]);
+        }
+        for (int node = 0; node < nodeCount; node++) {
+            for (int edge = edgeStarts[node]; edge < edgeStarts[node + 1]; edge++) {
+                if (buffer.remaining() < 3 * Integer.BYTES) {
+                    digest.update(buffer.flip());
+                    buffer.clear();
+                }
+                buffer.putInt(node).putInt(edgeTargets[edge]).putInt(edgeLengths[edge]);
+            }
+        }
+        digest.update(buffer.flip());
+        StringBuilder hash = new StringBuilder();
+        for (byte b : digest.digest()) {
+            hash.append(String.format("%02x", b));
+        }
+        return hash.toString();
+    }
+
+    public static RoadNetwork read(Path path) {
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String[] header = nextTokens(reader, path);
+            int nodeCount = Integer.parseInt(header[0]);
+            int edgeCount = Integer.parseInt(header[1]);
+            double[] latitudes = new double[nodeCount];
+            double[] longitudes = new double[nodeCount];
+            for (int node = 0; node < nodeCount; node++) {
+                String[] tokens = nextTokens(reader, path);
+                latitudes[node] = Double.parseDouble(tokens[0]);
+                longitudes[node] = Double.parseDouble(tokens[1]);
+            }
+            int[] edgeFroms = new int[edgeCount];
+            int[] edgeTargets = new int[edgeCount];
+            int[] edgeLengths = new int[edgeCount];
+            for (int edge = 0; edge < edgeCount; edge++) {
+                String[] tokens = nextTokens(reader, path);
+                edgeFroms[edge] = checkNode(Integer.parseInt(tokens[0]), nodeCount, path);
+                edgeTargets[edge] = checkNode(Integer.parseInt(tokens[1]), nodeCount, path);
+                edgeLengths[edge] = checkEdgeLength(Integer.parseInt(tokens[2]), path);
+            }
+            return new RoadNetwork(latitudes, longitudes, edgeFroms, edgeTargets, edgeLengths);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read the road network (" + path + ").", e);
+        }
+    }
+
+    private static String[] nextTokens(BufferedReader reader, Path path) throws IOException {
+        String line;
+        do {
+            line = reader.readLine();
+            if (line == null) {
+                throw new IllegalArgumentException("The road network (" + path + ") ends unexpectedly.");
+            }
+            line = line.trim();
+        } while (line.isEmpty() || line.startsWith("#"));
+        return line.split("\\s+");
+    }
+
+    private static int checkNode(int node, int nodeCount, Path path) {
+        if (node < 0 || node >= nodeCount) {
+            throw new IllegalArgumentException("The road network (" + path + ") has an edge with node index ("
+                    + node + ") outside of the node count (" + nodeCount + ").");
+        }
+        return node;
+    }
+
+    private static int checkEdgeLength(int edgeLength, Path path) {
+        // Dijkstra settles a node for good, so a negative edge could lead to a shorter path that is never found.
+        if (edgeLength < 0) {
+            throw new IllegalArgumentException("The road network (" + path + ") has an edge with a length ("
+                    + edgeLength + ") that is negative.");
+        }
+        return edgeLength;
+    }
+
+    /**
+     * @return a hash of the nodes and edges, which changes whenever the road network file is edited or replaced
+     */
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    public double getLatitude(int node) {
+        return latitudes[node];
+    }
+
+    public double getLongitude(int node) {
+        return longitudes[node];
+    }
+
+    private int row(double latitude) {
+        return Math.max(0, Math.min(rowCount - 1, (int) ((latitude - minLatitude) / cellSize)));
+    }
+
+    private int column(double longitude) {
+        return Math.max(0, Math.min(columnCount - 1, (int) ((longitude - minLongitude) / cellSize)));
+    }
+
+    /**
+     * Searches the grid in growing rings of cells around the given coordinates,
+     * until no unvisited cell can hold a nearer node.
+     *
+     * @return index of the node nearest to the given coordinates
+     */
+    public int findNearestNode(double latitude, double longitude) {
+        double longitudeScale = cos(toRadians(latitude));
+        int centerRow = row(latitude);
+        int centerColumn = column(longitude);
+        int maxRing = Math.max(rowCount, columnCount);
+        int nearestNode = -1;
+        double nearestSquaredDistance = Double.MAX_VALUE;
+        for (int ring = 0; ring <= maxRing; ring++) {
+            for (int row = centerRow - ring; row <= centerRow + ring; row++) {
+                if (row < 0 || row >= rowCount) {
+                    continue;
+                }
+                boolean borderRow = row == centerRow - ring || row == centerRow + ring;
+                int columnStep = borderRow ? 1 : Math.max(1, 2 * ring);
+                for (int column = centerColumn - ring; column <= centerColumn + ring; column += columnStep) {
+                    if (column < 0 || column >= columnCount) {
+                        continue;
+                    }
+                    int cell = row * columnCount + column;
+                    for (int i = cellStarts[cell]; i < cellStarts[cell + 1]; i++) {
+                        int node = cellNodes[i];
+                        double latitudeDiff = latitudes[node] - latitude;
+                        double longitudeDiff = (longitudes[node] - longitude) * longitudeScale;
+                        double squaredDistance = latitudeDiff * latitudeDiff + longitudeDiff * longitudeDiff;
+                        if (squaredDistance < nearestSquaredDistance) {
+                            nearestSquaredDistance = squaredDistance;
+                            nearestNode = node;
+                        }
+                    }
+                }
+            }
+            // Any node outside this ring is at least ring cells away, in latitude or in (scaled) longitude
+            double ringDistance = ring * cellSize * longitudeScale;
+            if (nearestNode >= 0 && nearestSquaredDistance <= ringDistance * ringDistance) {
+                break;
+            }
+        }
+        return nearestNode;
+    }
+
+    /**
+     * Dijkstra from one source node, which stops as soon as all target nodes are settled.
+     *
+     * @param sourceNode the start node
+     * @param targetNodes never null, {@code targetNodes[i]} is a node index
+     * @param targetNodeMask never null, {@code true} for each node index in {@code targetNodes}
+     * @param targetNodeCount number of distinct nodes in {@code targetNodes}
+     * @param workspace never null, owned by the calling thread
+     * @param distances never null, filled with the shortest path length in meters to each of {@code targetNodes},
+     *        or {@link Long#MAX_VALUE} if unreachable
+     */
+    void calculateShortestPaths(int sourceNode, int[] targetNodes, boolean[] targetNodeMask, int targetNodeCount,
+            Workspace workspace, long[] distances) {
+        calculateShortestPaths(sourceNode, targetNodes, targetNodeMask, targetNodeCount, workspace, distances,
+                edgeStarts, edgeTargets, edgeLengths);
+    }
+
+    /**
+     * Dijkstra between two nodes, which stops as soon as the target node is settled.
+     *
+     * @param workspace never null, owned by the calling thread
+     * @return the shortest path length in meters, or {@link Long#MAX_VALUE} if unreachable
+     */
+    long calculateShortestPath(int sourceNode, int targetNode, Workspace workspace) {
+        int[] targetNodes = workspace.singleTargetNode;
+        targetNodes[0] = targetNode;
+        workspace.singleTargetNodeMask[targetNode] = true;
+        try {
+            calculateShortestPaths(sourceNode, targetNodes, workspace.singleTargetNodeMask, 1, workspace,
+                    workspace.singleTargetDistance);
+        } finally {
+            workspace.singleTargetNodeMask[targetNode] = false;
+        }
+        return workspace.singleTargetDistance[0];
+    }
+
+    /**
+     * Dijkstra over the reversed edges, the counterpart of
+     * {@link #calculateShortestPaths(int, int[], boolean[], int, Workspace, long[])} for the paths that end
+     * in one node.
+     *
+     * @param targetNode the end node
+     * @param sourceNodes never null, {@code sourceNodes[i]} is a node index
+     * @param sourceNodeMask never null, {@code true} for each node index in {@code sourceNodes}
+     * @param sourceNodeCount number of distinct nodes in {@code sourceNodes}
+     * @param workspace never null, owned by the calling thread
+     * @param distances never null, filled with the shortest path length in meters from each of {@code sourceNodes},
+     *        or {@link Long#MAX_VALUE} if unreachable
+     */
+    void calculateReverseShortestPaths(int targetNode, int[] sourceNodes, boolean[] sourceNodeMask,
+            int sourceNodeCount, Workspace workspace, long[] distances) {
+        calculateShortestPaths(targetNode, sourceNodes, sourceNodeMask, sourceNodeCount, workspace, distances,
+                reverseEdgeStarts, reverseEdgeSources, reverseEdgeLengths);
+    }
+
+    private static void calculateShortestPaths(int sourceNode, int[] targetNodes, boolean[] targetNodeMask,
+            int targetNodeCount, Workspace workspace, long[] distances,
+            int[] edgeStarts, int[] edgeTargets, int[] edgeLengths) {
+        long[] nodeDistances = workspace.nodeDistances;
+        workspace.reset();
+        workspace.visit(sourceNode, 0L);
+        int unsettledTargetCount = targetNodeCount;
+        while (unsettledTargetCount > 0 && !workspace.heap.isEmpty()) {
+            long distance = workspace.heap.peekKey();
+            int node = workspace.heap.poll();
+            if (distance > nodeDistances[node]) {
+                continue; // Stale heap entry
+            }
+            if (targetNodeMask[node]) {
+                unsettledTargetCount--;
+            }
+            for (int edge = edgeStarts[node]; edge < edgeStarts[node + 1]; edge++) {
+                int target = edgeTargets[edge];
+                long targetDistance = distance + edgeLengths[edge];
+                if (targetDistance < nodeDistances[target]) {
+                    workspace.visit(target, targetDistance);
+                }
+            }
+        }
+        for (int i = 0; i < targetNodes.length; i++) {
+            distances[i] = nodeDistances[targetNodes[i]];
+        }
+    }
+
+    Workspace createWorkspace() {
+        return new Workspace(nodeCount);
+    }
+
+    /**
+     * Per thread Dijkstra state, reused across searches: only the nodes touched by the previous search are reset.
+     */
+    static final class Workspace {
+
+        private final long[] nodeDistances;
+        private final int[] touchedNodes;
+        private int touchedNodeCount = 0;
+        private final MinHeap heap = new MinHeap();
+        // For calculateShortestPath(), so a single pair search allocates nothing.
+        private final int[] singleTargetNode = new int[1];
+        private final boolean[] singleTargetNodeMask;
+        private final long[] singleTargetDistance = new long[1];
+
+        private Workspace(int nodeCount) {
+            nodeDistances = new long[nodeCount];
+            Arrays.fill(nodeDistances, Long.MAX_VALUE);
+            touchedNodes = new int[nodeCount];
+            singleTargetNodeMask = new boolean[nodeCount];
+        }
+
+        private void reset() {
+            for (int i = 0; i < touchedNodeCount; i++) {
+                nodeDistances[touchedNodes[i]] = Long.MAX_VALUE;
+            }
+            touchedNodeCount = 0;
+            heap.clear();
+        }
+
+        private void visit(int node, long distance) {
+            if (nodeDistances[node] == Long.MAX_VALUE) {
+                touchedNodes[touchedNodeCount++] = node;
+            }
+            nodeDistances[node] = distance;
+            heap.add(distance, node);
+        }
+    }
+
+    /**
+     * Binary min-heap of (distance, node) pairs in primitive arrays, without decrease-key (stale entries are skipped).
+     */
+    private static final class MinHeap {
+
+        private long[] keys = new long[64];
+        private int[] values = new int[64];
+        private int size = 0;
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void clear() {
+            size = 0;
+        }
+
+        long peekKey() {
+            return keys[0];
+        }
+
+        void add(long key, int value) {
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+            }
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (keys[parent] <= key) {
+                    break;
+                }
+                keys[i] = keys[parent];
+                values[i] = values[parent];
+                i = parent;
+            }
+            keys[i] = key;
+            values[i] = value;
+        }
+
+        int poll() {
+            int result = values[0];
+            size--;
+            long key = keys[size];
+            int value = values[size];
+            int i = 0;
+            int half = size >>> 1;
+            while (i < half) {
+                int child = 2 * i + 1;
+                if (child + 1 < size && keys[child + 1] < keys[child]) {
+                    child++;
+                }
+                if (key <= keys[child]) {
+                    break;
+                }
+                keys[i] = keys[child];
+                values[i] = values[child];
+                i = child;
+            }
+            keys[i] = key;
+            values[i] = value;
+            return result;
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package org.acme.vehiclerouting.domain.geo;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.acme.vehiclerouting.domain.Location;
+
+/**
+ * Driving distance over a local {@link RoadNetwork}, so no external routing service is called during solving.
+ * <p>
+ * Each location is snapped to its nearest road node. The distance between two locations is the distance
+ * to the nearest node of the first one, the shortest path between both nodes and the distance from the
+ * nearest node of the second one. If there is no path, the {@link HaversineDistanceCalculator} fallback is used.
+ * <p>
+ * The bulk calculation runs one Dijkstra search per distinct source node (in parallel),
+ * each of which stops as soon as all target nodes are settled.
+ * A location added while solving needs only two searches: one from its node and one to it.
+ */
+public class RoadNetworkDistanceCalculator implements DistanceCalculator {
+
+    private final RoadNetwork roadNetwork;
+    private final HaversineDistanceCalculator fallbackDistanceCalculator = new HaversineDistanceCalculator();
+    // Each workspace holds O(nodeCount) arrays, so every thread reuses its own for all its searches.
+    private final ThreadLocal<RoadNetwork.Workspace> workspaces;
+
+    public RoadNetworkDistanceCalculator(RoadNetwork roadNetwork) {
+        this.roadNetwork = roadNetwork;
+        this.workspaces = ThreadLocal.withInitial(roadNetwork::createWorkspace);
+    }
+
+    public RoadNetworkDistanceCalculator(Path roadNetworkPath) {
+        this(RoadNetwork.read(roadNetworkPath));
+    }
+
+    @Override
+    public String getCacheKey() {
+        return getClass().getName() + ":" + roadNetwork.getContentHash();
+    }
+
+    @Override
+    public long calculateDistance(Location from, Location to) {
+        if (from.equals(to)) {
+            return 0L;
+        }
+        int fromNode = roadNetwork.findNearestNode(from.getLatitude(), from.getLongitude());
+        int toNode = roadNetwork.findNearestNode(to.getLatitude(), to.getLongitude());
+        long nodeDistance = roadNetwork.calculateShortestPath(fromNode, toNode, workspaces.get());
+        if (nodeDistance == Long.MAX_VALUE) {
+            return fallbackDistanceCalculator.calculateDistance(from, to);
+        }
+        return calculateSnapDistance(from, fromNode) + nodeDistance + calculateSnapDistance(to, toNode);
+    }
+
+    private long calculateSnapDistance(Location location, int node) {
+        return fallbackDistanceCalculator.calculateDistance(location,
+                new Location(-1L, roadNetwork.getLatitude(node), roadNetwork.getLongitude(node)));
+    }
+
+    @Override
+    public void calculateDistanceMatrix(List<Location> locationList, DistanceMatrix distanceMatrix) {
+        int size = locationList.size();
+        SnappedLocations snappedLocations = new SnappedLocations(locationList);
+        // Sorting the location indexes by node puts the locations snapped to the same node next to each other,
+        // so their rows share one search.
+        long[] nodeLocationIndexes = new long[size];
+        for (int i = 0; i < size; i++) {
+            nodeLocationIndexes[i] = ((long) snappedLocations.nodes[i] << 32) | i;
+        }
+        Arrays.sort(nodeLocationIndexes);
+        int[] groupStarts = new int[snappedLocations.distinctNodeCount + 1];
+        int groupCount = 0;
+        for (int i = 0; i < size; i++) {
+            if (i == 0 || (nodeLocationIndexes[i] >>> 32) != (nodeLocationIndexes[i - 1] >>> 32)) {
+                groupStarts[groupCount++] = i;
+            }
+        }
+        groupStarts[groupCount] = size;
+        IntStream.range(0, groupCount).parallel().forEach(group -> {
+            long[] nodeDistances = new long[size];
+            int sourceNode = (int) (nodeLocationIndexes[groupStarts[group]] >>> 32);
+            roadNetwork.calculateShortestPaths(sourceNode, snappedLocations.nodes, snappedLocations.nodeMask,
+                    snappedLocations.distinctNodeCount, workspaces.get(), nodeDistances);
+            for (int i = groupStarts[group]; i < groupStarts[group + 1]; i++) {
+                int fromIndex = (int) nodeLocationIndexes[i];
+                Location from = locationList.get(fromIndex);
+                for (int toIndex = 0; toIndex < size; toIndex++) {
+                    long distance = fromIndex == toIndex ? 0L
+                            : snappedLocations.toLocationDistance(from, fromIndex, locationList.get(toIndex),
+                                    toIndex, nodeDistances[toIndex]);
+                    distanceMatrix.setDistance(fromIndex, toIndex, distance);
+                }
+            }
+        });
+    }
+
+    /**
+     * Snaps the locations once and runs one search from the new location and one (over the reversed edges) to it,
+     * instead of two single pair searches per location.
+     */
+    @Override
+    public void addToDistanceMatrix(Location location, Collection<Location> locationList) {
+        DistanceMatrix distanceMatrix = locationList.iterator().next().getDistanceMatrix();
+        int size = distanceMatrix.getSize();
+        List<Location> snappedLocationList = new ArrayList<>(locationList.size() + 1);
+        snappedLocationList.addAll(locationList);
+        snappedLocationList.add(location);
+        int locationIndex = snappedLocationList.size() - 1;
+        SnappedLocations snappedLocations = new SnappedLocations(snappedLocationList);
+        RoadNetwork.Workspace workspace = workspaces.get();
+        long[] nodeDistancesFrom = new long[snappedLocationList.size()];
+        roadNetwork.calculateShortestPaths(snappedLocations.nodes[locationIndex], snappedLocations.nodes,
+                snappedLocations.nodeMask, snappedLocations.distinctNodeCount, workspace, nodeDistancesFrom);
+        long[] nodeDistancesTo = new long[snappedLocationList.size()];
+        roadNetwork.calculateReverseShortestPaths(snappedLocations.nodes[locationIndex], snappedLocations.nodes,
+                snappedLocations.nodeMask, snappedLocations.distinctNodeCount, workspace, nodeDistancesTo);
+        // Locations that were removed from the problem keep their (unused) index in the matrix.
+        long[] distancesFrom = new long[size + 1];
+        long[] distancesTo = new long[size + 1];
+        for (int i = 0; i < locationIndex; i++) {
+            Location other = snappedLocationList.get(i);
+            distancesFrom[other.getIndex()] = snappedLocations.toLocationDistance(location, locationIndex,
+                    other, i, nodeDistancesFrom[i]);
+            distancesTo[other.getIndex()] = snappedLocations.toLocationDistance(other, i,
+                    location, locationIndex, nodeDistancesTo[i]);
+        }
+        location.setDistanceMatrix(distanceMatrix, distanceMatrix.addLocation(distancesFrom, distancesTo));
+    }
+
+    private final class SnappedLocations {
+
+        private final int[] nodes;
+        private final long[] snapDistances;
+        private final boolean[] nodeMask;
+        private final int distinctNodeCount;
+
+        private SnappedLocations(List<Location> locationList) {
+            int size = locationList.size();
+            nodes = new int[size];
+            snapDistances = new long[size];
+            nodeMask = new boolean[roadNetwork.getNodeCount()];
+            int distinctNodeCount = 0;
+            for (int i = 0; i < size; i++) {
+                Location location = locationList.get(i);
+                int node = roadNetwork.findNearestNode(location.getLatitude(), location.getLongitude());
+                nodes[i] = node;
+                snapDistances[i] = calculateSnapDistance(location, node);
+                if (!nodeMask[node]) {
+                    nodeMask[node] = true;
+                    distinctNodeCount++;
+                }
+            }
+            this.distinctNodeCount = distinctNodeCount;
+        }
+
+        private long toLocationDistance(Location from, int fromIndex, Location to, int toIndex, long nodeDistance) {
+            if (nodeDistance == Long.MAX_VALUE) {
+                return fallbackDistanceCalculator.calculateDistance(from, to);
+            }
+            return snapDistances[fromIndex] + nodeDistance + snapDistances[toIndex];
+        }
+    }
+}
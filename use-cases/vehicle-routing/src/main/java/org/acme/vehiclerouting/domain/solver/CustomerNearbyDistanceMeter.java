@@ -0,0 +1,31 @@
+package org.acme.vehiclerouting.domain.solver;
+
+import org.acme.vehiclerouting.domain.Customer;
+import org.acme.vehiclerouting.domain.Location;
+import org.acme.vehiclerouting.domain.Vehicle;
+import org.optaplanner.core.impl.heuristic.selector.common.nearby.NearbyDistanceMeter;
+
+/**
+ * Used by nearby selection (see {@code solverConfig.xml}) to bias list change and list swap moves
+ * towards the customers (or vehicle depots) closest to the moved customer.
+ * OptaPlanner only keeps the nearest destinations of each origin,
+ * up to the distribution size maximum, so the candidate lists take O(n * k) memory.
+ * But it measures all n² pairs to find them, so it uses {@link Location#getNearbyDistanceTo(Location)},
+ * which does not calculate (or cache) the distances that a lazy distance matrix did not precalculate.
+ */
+public class CustomerNearbyDistanceMeter implements NearbyDistanceMeter<Customer, Object> {
+
+    @Override
+    public double getNearbyDistance(Customer origin, Object destination) {
+        Location destinationLocation;
+        if (destination instanceof Customer) {
+            destinationLocation = ((Customer) destination).getLocation();
+        } else if (destination instanceof Vehicle) {
+            destinationLocation = ((Vehicle) destination).getDepot().getLocation();
+        } else {
+            throw new IllegalArgumentException("The destination (" + destination + ") is not a "
+                    + Customer.class.getSimpleName() + " or a " + Vehicle.class.getSimpleName() + ".");
+        }
+        return destinationLocation.getNearbyDistanceTo(origin.getLocation());
+    }
+}
@@ -1,17 +1,16 @@
 package org.acme.vehiclerouting.domain.solver;
 
-import static java.util.Comparator.comparingDouble;
+import static java.util.Comparator.comparing;
 import static java.util.Comparator.comparingLong;
 
 import java.util.Comparator;
 
 import org.acme.vehiclerouting.domain.Customer;
-import org.acme.vehiclerouting.domain.Depot;
 import org.acme.vehiclerouting.domain.VehicleRoutingSolution;
 import org.optaplanner.core.impl.heuristic.selector.common.decorator.SelectionSorterWeightFactory;
 
 /**
- * On large datasets, the constructed solution looks like pizza slices.
+ * On large datasets, the constructed solution looks like pizza slices around each depot.
  */
 public class DepotAngleCustomerDifficultyWeightFactory
         implements SelectionSorterWeightFactory<VehicleRoutingSolution, Customer> {
@@ -19,29 +18,24 @@ public class DepotAngleCustomerDifficultyWeightFactory
     @Override
     public DepotAngleCustomerDifficultyWeight createSorterWeight(VehicleRoutingSolution vehicleRoutingSolution,
             Customer customer) {
-        Depot depot = vehicleRoutingSolution.getDepotList().get(0);
         return new DepotAngleCustomerDifficultyWeight(customer,
-                customer.getLocation().getAngle(depot.getLocation()),
-                customer.getLocation().getDistanceTo(depot.getLocation())
-                        + depot.getLocation().getDistanceTo(customer.getLocation()));
+                DepotSweepPosition.of(customer.getLocation(), vehicleRoutingSolution.getDepotList()));
     }
 
     public static class DepotAngleCustomerDifficultyWeight
             implements Comparable<DepotAngleCustomerDifficultyWeight> {
 
-        private static final Comparator<DepotAngleCustomerDifficultyWeight> COMPARATOR = comparingDouble(
-                (DepotAngleCustomerDifficultyWeight weight) -> weight.depotAngle)
-                .thenComparingLong(weight -> weight.depotRoundTripDistance) // Ascending (further from the depot are more difficult)
+        private static final Comparator<DepotAngleCustomerDifficultyWeight> COMPARATOR = comparing(
+                (DepotAngleCustomerDifficultyWeight weight) -> weight.sweepPosition, DepotSweepPosition.COMPARATOR)
+                .thenComparingLong(weight -> weight.sweepPosition.getDepotRoundTripDistance()) // Ascending (further from the depot are more difficult)
                 .thenComparing(weight -> weight.customer, comparingLong(Customer::getId));
 
         private final Customer customer;
-        private final double depotAngle;
-        private final long depotRoundTripDistance;
+        private final DepotSweepPosition sweepPosition;
 
-        public DepotAngleCustomerDifficultyWeight(Customer customer, double depotAngle, long depotRoundTripDistance) {
+        public DepotAngleCustomerDifficultyWeight(Customer customer, DepotSweepPosition sweepPosition) {
             this.customer = customer;
-            this.depotAngle = depotAngle;
-            this.depotRoundTripDistance = depotRoundTripDistance;
+            this.sweepPosition = sweepPosition;
         }
 
         @Override
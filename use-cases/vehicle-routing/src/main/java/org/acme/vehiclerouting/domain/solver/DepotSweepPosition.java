@@ -0,0 +1,69 @@
+package org.acme.vehiclerouting.domain.solver;
+
+import static java.util.Comparator.comparingDouble;
+import static java.util.Comparator.comparingInt;
+
+import java.util.Comparator;
+import java.util.List;
+
+import org.acme.vehiclerouting.domain.Depot;
+import org.acme.vehiclerouting.domain.Location;
+
+/**
+ * The position of a location in a sweep around its nearest depot:
+ * locations are ordered by nearest depot first and by their angle around that depot second.
+ */
+public final class DepotSweepPosition {
+
+    public static final Comparator<DepotSweepPosition> COMPARATOR = comparingInt(DepotSweepPosition::getDepotIndex)
+            .thenComparing(comparingDouble(DepotSweepPosition::getDepotAngle));
+
+    private final int depotIndex;
+    private final double depotAngle;
+    private final long depotRoundTripDistance;
+
+    private DepotSweepPosition(int depotIndex, double depotAngle, long depotRoundTripDistance) {
+        this.depotIndex = depotIndex;
+        this.depotAngle = depotAngle;
+        this.depotRoundTripDistance = depotRoundTripDistance;
+    }
+
+    /**
+     * @param location never null
+     * @param depotList never null, not empty
+     * @return never null
+     */
+    public static DepotSweepPosition of(Location location, List<Depot> depotList) {
+        if (depotList.isEmpty()) {
+            throw new IllegalArgumentException("The depotList must not be empty to sweep the location ("
+                    + location + ").");
+        }
+        int nearestDepotIndex = 0;
+        long nearestRoundTripDistance = Long.MAX_VALUE;
+        for (int i = 0; i < depotList.size(); i++) {
+            Location depotLocation = depotList.get(i).getLocation();
+            long roundTripDistance = depotLocation.getDistanceTo(location) + location.getDistanceTo(depotLocation);
+            if (roundTripDistance < nearestRoundTripDistance) {
+                nearestDepotIndex = i;
+                nearestRoundTripDistance = roundTripDistance;
+            }
+        }
+        return new DepotSweepPosition(nearestDepotIndex,
+                location.getAngle(depotList.get(nearestDepotIndex).getLocation()), nearestRoundTripDistance);
+    }
+
+    /**
+     * @return the index of the nearest depot in the depot list
+     */
+    public int getDepotIndex() {
+        return depotIndex;
+    }
+
+    public double getDepotAngle() {
+        return depotAngle;
+    }
+
+    public long getDepotRoundTripDistance() {
+        return depotRoundTripDistance;
+    }
+}
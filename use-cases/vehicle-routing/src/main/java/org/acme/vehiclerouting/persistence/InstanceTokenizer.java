@@ -0,0 +1,160 @@
+package org.acme.vehiclerouting.persistence;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Single-pass tokenizer of the plain text benchmark instance files, reading a channel through a fixed buffer.
+ * <p>
+ * Numbers are parsed straight from the bytes, so the (large) coordinate and demand sections
+ * are never materialized as strings. Only the (few) header lines are.
+ */
+final class InstanceTokenizer {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final double[] POWERS_OF_TEN = { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+            1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18 };
+
+    private final ReadableByteChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private boolean endOfChannel = false;
+    private int lineNumber = 1;
+
+    InstanceTokenizer(ReadableByteChannel channel) {
+        this.channel = channel;
+        buffer.flip();
+    }
+
+    int getLineNumber() {
+        return lineNumber;
+    }
+
+    /**
+     * @return the rest of the current line, trimmed, or null at the end of the input
+     */
+    String nextLine() throws IOException {
+        if (!fill()) {
+            return null;
+        }
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        while (fill()) {
+            byte b = buffer.get();
+            if (b == '\n') {
+                lineNumber++;
+                break;
+            }
+            line.write(b);
+        }
+        return line.toString(StandardCharsets.UTF_8).trim();
+    }
+
+    /**
+     * Skips whitespace, including line breaks.
+     *
+     * @return true if there is a number next
+     */
+    boolean hasNextNumber() throws IOException {
+        skipWhitespace();
+        if (!fill()) {
+            return false;
+        }
+        byte b = buffer.get(buffer.position());
+        return (b >= '0' && b <= '9') || b == '-' || b == '+' || b == '.';
+    }
+
+    long nextLong() throws IOException {
+        double number = nextDouble();
+        if (number != Math.rint(number) || Math.abs(number) > (1L << 53)) {
+            throw new IllegalArgumentException("The number (" + number + ") on line " + lineNumber
+                    + " must be an integer.");
+        }
+        return (long) number;
+    }
+
+    double nextDouble() throws IOException {
+        if (!hasNextNumber()) {
+            throw new IllegalArgumentException("Expected a number on line " + lineNumber + ".");
+        }
+        boolean negative = false;
+        byte b = buffer.get(buffer.position());
+        if (b == '-' || b == '+') {
+            negative = b == '-';
+            buffer.get();
+        }
+        long mantissa = 0L;
+        int exponent = 0;
+        int digitCount = 0;
+        boolean fraction = false;
+        while (fill()) {
+            b = buffer.get(buffer.position());
+            if (b >= '0' && b <= '9') {
+                // Digits beyond the precision of a double only shift the exponent.
+                if (mantissa < Long.MAX_VALUE / 10L - 9L) {
+                    mantissa = mantissa * 10L + (b - '0');
+                    if (fraction) {
+                        exponent--;
+                    }
+                } else if (!fraction) {
+                    exponent++;
+                }
+                digitCount++;
+            } else if (b == '.' && !fraction) {
+                fraction = true;
+            } else {
+                break;
+            }
+            buffer.get();
+        }
+        if (digitCount == 0) {
+            throw new IllegalArgumentException("Expected a number on line " + lineNumber + ".");
+        }
+        if (fill() && (buffer.get(buffer.position()) == 'e' || buffer.get(buffer.position()) == 'E')) {
+            buffer.get();
+            exponent += (int) nextLong();
+        }
+        double number = mantissa;
+        if (exponent > 0) {
+            number *= powerOfTen(exponent);
+        } else if (exponent < 0) {
+            number /= powerOfTen(-exponent);
+        }
+        return negative ? -number : number;
+    }
+
+    private static double powerOfTen(int exponent) {
+        return exponent < POWERS_OF_TEN.length ? POWERS_OF_TEN[exponent] : Math.pow(10.0, exponent);
+    }
+
+    private void skipWhitespace() throws IOException {
+        while (fill()) {
+            byte b = buffer.get(buffer.position());
+            if (b == '\n') {
+                lineNumber++;
+            } else if (b != ' ' && b != '\t' && b != '\r') {
+                return;
+            }
+            buffer.get();
+        }
+    }
+
+    /**
+     * @return true if at least one byte is available
+     */
+    private boolean fill() throws IOException {
+        while (!buffer.hasRemaining()) {
+            if (endOfChannel) {
+                return false;
+            }
+            buffer.clear();
+            int readCount = channel.read(buffer);
+            buffer.flip();
+            if (readCount < 0) {
+                endOfChannel = true;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,217 @@
+package org.acme.vehiclerouting.persistence;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.interceptor.Interceptor;
+
+import io.quarkus.runtime.StartupEvent;
+import org.acme.vehiclerouting.domain.VehicleRoutingSolution;
+import org.acme.vehiclerouting.domain.geo.DistanceCalculator;
+import org.acme.vehiclerouting.persistence.VehicleRoutingCheckpointIO.Checkpoint;
+import org.acme.vehiclerouting.persistence.VehicleRoutingSolutionRepository.VersionedSolution;
+import org.acme.vehiclerouting.solver.SolverPool;
+import org.acme.vehiclerouting.solver.SolverPoolFullException;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+import org.optaplanner.core.api.solver.SolverStatus;
+
+/**
+ * Checkpoints the best solution of every problem to {@code vehicle-routing.checkpoint.directory},
+ * so a restart does not lose hours of solving. Disabled if that property is not set.
+ * <p>
+ * Every {@code vehicle-routing.checkpoint.interval}, a background thread writes the problems
+ * that have a new version in the {@link VehicleRoutingSolutionRepository} since their last checkpoint,
+ * see {@link VehicleRoutingCheckpointIO}. The solver threads only publish their best solution to the repository,
+ * so they never wait for the disk. The last checkpoint is written on shutdown.
+ * <p>
+ * On startup, the checkpoints are loaded into the repository (replacing the demo data)
+ * and the problems that were solving are solved again, starting from their checkpointed routes.
+ * The distances are recalculated with the calculator that the checkpoint names: the {@code EUC_2D} one
+ * of an imported problem (see {@link VehicleRoutingInstanceImporter}) or else the configured one.
+ * If the configured one no longer calculates the checkpointed distances (for example after the road network
+ * file was replaced), the checkpointed score is dropped, because it no longer matches the distances.
+ */
+@ApplicationScoped
+public class SolutionCheckpointer {
+
+    private static final Logger LOGGER = Logger.getLogger(SolutionCheckpointer.class);
+    private static final Pattern CHECKPOINT_FILE_NAME = Pattern.compile("problem-(\\d+)\\.checkpoint");
+
+    @ConfigProperty(name = "vehicle-routing.checkpoint.directory")
+    Optional<Path> directory;
+
+    @ConfigProperty(name = "vehicle-routing.checkpoint.interval", defaultValue = "1m")
+    Duration interval;
+
+    private final VehicleRoutingSolutionRepository repository;
+    private final SolverPool solverPool;
+    private final DistanceCalculator distanceCalculator;
+    // The version and solving state of the last checkpoint of each problem, to skip unchanged problems.
+    private final Map<Long, CheckpointState> writtenStateMap = new ConcurrentHashMap<>();
+    private ScheduledExecutorService scheduler;
+
+    public SolutionCheckpointer(VehicleRoutingSolutionRepository repository, SolverPool solverPool,
+            DistanceCalculator distanceCalculator) {
+        this.repository = repository;
+        this.solverPool = solverPool;
+        this.distanceCalculator = distanceCalculator;
+    }
+
+    // After the demo data, so a checkpoint of the default problem replaces it.
+    void resume(@Observes @Priority(Interceptor.Priority.APPLICATION + 1000) StartupEvent startupEvent) {
+        if (directory.isEmpty()) {
+            return;
+        }
+        Path checkpointDirectory = directory.get();
+        try {
+            Files.createDirectories(checkpointDirectory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create the checkpoint directory (" + checkpointDirectory
+                    + ").", e);
+        }
+        for (Path path : listCheckpoints(checkpointDirectory)) {
+            Matcher matcher = CHECKPOINT_FILE_NAME.matcher(path.getFileName().toString());
+            if (matcher.matches()) {
+                resume(Long.parseLong(matcher.group(1)), path);
+            }
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "SolutionCheckpointer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = interval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::checkpoint, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private static List<Path> listCheckpoints(Path checkpointDirectory) {
+        try (Stream<Path> pathStream = Files.list(checkpointDirectory)) {
+            return pathStream.sorted().collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to list the checkpoint directory (" + checkpointDirectory
+                    + ").", e);
+        }
+    }
+
+    private void resume(long problemId, Path path) {
+        Checkpoint checkpoint;
+        try {
+            checkpoint = VehicleRoutingCheckpointIO.read(path);
+        } catch (IOException | IllegalArgumentException e) {
+            // One damaged checkpoint must not keep the other problems from resuming.
+            LOGGER.warnf(e, "Skipping the checkpoint (%s) of the problem (%d).", path, problemId);
+            return;
+        }
+        VehicleRoutingSolution solution = checkpoint.getSolution();
+        findDistanceCalculator(problemId, path, checkpoint).initDistanceMaps(solution.getLocationList());
+        repository.update(problemId, solution);
+        repository.versionedSolution(problemId).ifPresent(versionedSolution -> writtenStateMap.put(problemId,
+                new CheckpointState(versionedSolution.getVersion(), checkpoint.isSolving())));
+        LOGGER.infof("Resumed the problem (%d) from the checkpoint (%s) with score (%s).", problemId, path,
+                solution.getScore());
+        if (checkpoint.isSolving()) {
+            try {
+                solverPool.solve(problemId);
+            } catch (SolverPoolFullException e) {
+                LOGGER.warnf("The problem (%d) is resumed, but not solving: %s", problemId, e.getMessage());
+            }
+        }
+    }
+
+    private DistanceCalculator findDistanceCalculator(long problemId, Path path, Checkpoint checkpoint) {
+        String distanceType = checkpoint.getDistanceType();
+        DistanceCalculator importedDistanceCalculator = VehicleRoutingInstanceImporter.EUC_2D_DISTANCE_CALCULATOR;
+        if (importedDistanceCalculator.getCacheKey().equals(distanceType)) {
+            return importedDistanceCalculator;
+        }
+        if (distanceType != null && !distanceType.equals(distanceCalculator.getCacheKey())) {
+            LOGGER.warnf("The checkpoint (%s) of the problem (%d) has distances (%s) that differ from the"
+                    + " configured distance calculator (%s), so its score is dropped.",
+                    path, problemId, distanceType, distanceCalculator.getCacheKey());
+            checkpoint.getSolution().setScore(null);
+        }
+        return distanceCalculator;
+    }
+
+    @PreDestroy
+    void stop() {
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.shutdownNow();
+        try {
+            scheduler.awaitTermination(interval.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        checkpoint();
+    }
+
+    /**
+     * Writes the problems that changed since their last checkpoint. Failures are logged and retried next time.
+     */
+    synchronized void checkpoint() {
+        for (Long problemId : repository.problemIds()) {
+            Optional<VersionedSolution> versionedSolution = repository.versionedSolution(problemId);
+            if (versionedSolution.isEmpty()) {
+                continue;
+            }
+            CheckpointState state = new CheckpointState(versionedSolution.get().getVersion(),
+                    solverPool.getSolverStatus(problemId) != SolverStatus.NOT_SOLVING);
+            if (state.equals(writtenStateMap.get(problemId))) {
+                continue;
+            }
+            Path path = directory.orElseThrow().resolve("problem-" + problemId + ".checkpoint");
+            try {
+                VehicleRoutingCheckpointIO.write(versionedSolution.get().getSolution(), state.solving, path);
+                writtenStateMap.put(problemId, state);
+            } catch (IOException | RuntimeException e) {
+                LOGGER.warnf(e, "Failed to write the checkpoint (%s) of the problem (%d).", path, problemId);
+            }
+        }
+    }
+
+    private static final class CheckpointState {
+
+        private final long version;
+        private final boolean solving;
+
+        private CheckpointState(long version, boolean solving) {
+            this.version = version;
+            this.solving = solving;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof CheckpointState)) {
+                return false;
+            }
+            CheckpointState other = (CheckpointState) o;
+            return version == other.version && solving == other.solving;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(version) * 31 + Boolean.hashCode(solving);
+        }
+    }
+}
@@ -0,0 +1,282 @@
+package org.acme.vehiclerouting.persistence;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.acme.vehiclerouting.domain.Customer;
+import org.acme.vehiclerouting.domain.Depot;
+import org.acme.vehiclerouting.domain.Location;
+import org.acme.vehiclerouting.domain.Vehicle;
+import org.acme.vehiclerouting.domain.VehicleRoutingSolution;
+import org.acme.vehiclerouting.domain.geo.DistanceCalculator;
+import org.acme.vehiclerouting.domain.geo.DistanceMatrix;
+import org.optaplanner.core.api.score.buildin.hardsoftlong.HardSoftLongScore;
+
+/**
+ * Reads and writes a {@link VehicleRoutingSolution} as a compact binary checkpoint.
+ * <p>
+ * The locations are written once, as id and coordinates. Everything else refers to them by position:
+ * depots and customers by location position, vehicles by depot position
+ * and each route as an array of customer positions. The distance matrix is not written,
+ * only the {@link DistanceCalculator#getCacheKey() key} of the calculator that filled it,
+ * so the reader of a checkpoint can recalculate it with that calculator (see {@link SolutionCheckpointer}).
+ * <p>
+ * A checkpoint is written to a temporary file, forced to the disk and then renamed over the previous one,
+ * so a crash while writing never leaves a partial checkpoint behind.
+ */
+public final class VehicleRoutingCheckpointIO {
+
+    private static final int MAGIC = 0x56525043; // "VRPC"
+    private static final int FORMAT_VERSION = 3;
+
+    private VehicleRoutingCheckpointIO() {
+    }
+
+    /**
+     * @param solution never null, not changed by this method
+     * @param solving whether the solver should resume when the checkpoint is read
+     * @param path the checkpoint file, replaced atomically
+     */
+    public static void write(VehicleRoutingSolution solution, boolean solving, Path path) throws IOException {
+        Path temporaryPath = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporaryPath, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel),
+                    64 * 1024));
+            write(solution, solving, out);
+            out.flush();
+            channel.force(false);
+        }
+        Files.move(temporaryPath, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static void write(VehicleRoutingSolution solution, boolean solving, DataOutputStream out)
+            throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        String distanceType = distanceType(solution);
+        out.writeBoolean(distanceType != null);
+        if (distanceType != null) {
+            out.writeUTF(distanceType);
+        }
+        out.writeBoolean(solving);
+        out.writeBoolean(solution.getName() != null);
+        if (solution.getName() != null) {
+            out.writeUTF(solution.getName());
+        }
+        HardSoftLongScore score = solution.getScore();
+        out.writeBoolean(score != null);
+        if (score != null) {
+            out.writeInt(score.initScore());
+            out.writeLong(score.hardScore());
+            out.writeLong(score.softScore());
+        }
+        out.writeLong(solution.getNextCustomerId());
+        List<Location> bounds = solution.getBounds();
+        writeLocation(bounds.get(0), out);
+        writeLocation(bounds.get(1), out);
+
+        List<Location> locationList = solution.getLocationList();
+        Map<Location, Integer> locationPositionMap = new IdentityHashMap<>(locationList.size());
+        out.writeInt(locationList.size());
+        for (Location location : locationList) {
+            locationPositionMap.put(location, locationPositionMap.size());
+            writeLocation(location, out);
+        }
+        List<Depot> depotList = solution.getDepotList();
+        Map<Depot, Integer> depotPositionMap = new IdentityHashMap<>(depotList.size());
+        out.writeInt(depotList.size());
+        for (Depot depot : depotList) {
+            depotPositionMap.put(depot, depotPositionMap.size());
+            out.writeLong(depot.getId());
+            out.writeInt(position(locationPositionMap, depot.getLocation()));
+        }
+        List<Customer> customerList = solution.getCustomerList();
+        Map<Customer, Integer> customerPositionMap = new IdentityHashMap<>(customerList.size());
+        out.writeInt(customerList.size());
+        for (Customer customer : customerList) {
+            customerPositionMap.put(customer, customerPositionMap.size());
+            out.writeLong(customer.getId());
+            out.writeInt(position(locationPositionMap, customer.getLocation()));
+            out.writeInt(customer.getDemand());
+        }
+        List<Vehicle> vehicleList = solution.getVehicleList();
+        out.writeInt(vehicleList.size());
+        for (Vehicle vehicle : vehicleList) {
+            out.writeLong(vehicle.getId());
+            out.writeInt(vehicle.getCapacity());
+            out.writeInt(position(depotPositionMap, vehicle.getDepot()));
+            List<Customer> route = vehicle.getCustomerList();
+            out.writeInt(route.size());
+            for (Customer customer : route) {
+                out.writeInt(position(customerPositionMap, customer));
+            }
+        }
+    }
+
+    private static String distanceType(VehicleRoutingSolution solution) {
+        List<Location> locationList = solution.getLocationList();
+        DistanceMatrix distanceMatrix = locationList.isEmpty() ? null : locationList.get(0).getDistanceMatrix();
+        DistanceCalculator distanceCalculator = distanceMatrix == null ? null : distanceMatrix.getDistanceCalculator();
+        return distanceCalculator == null ? null : distanceCalculator.getCacheKey();
+    }
+
+    private static void writeLocation(Location location, DataOutputStream out) throws IOException {
+        out.writeLong(location.getId());
+        out.writeDouble(location.getLatitude());
+        out.writeDouble(location.getLongitude());
+    }
+
+    private static <T> int position(Map<T, Integer> positionMap, T object) {
+        Integer position = positionMap.get(object);
+        if (position == null) {
+            throw new IllegalArgumentException("The object (" + object
+                    + ") is referenced, but missing from its collection in the solution.");
+        }
+        return position;
+    }
+
+    /**
+     * @param path never null
+     * @return never null, with the routes and their shadow variables, but without distance matrices
+     * @throws IllegalArgumentException if the file is not a valid checkpoint
+     */
+    public static Checkpoint read(Path path) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path),
+                64 * 1024))) {
+            return read(in);
+        } catch (EOFException e) {
+            throw new IllegalArgumentException("The checkpoint (" + path + ") is truncated.", e);
+        }
+    }
+
+    private static Checkpoint read(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IllegalArgumentException("The file is not a vehicle routing checkpoint.");
+        }
+        int formatVersion = in.readInt();
+        if (formatVersion != FORMAT_VERSION) {
+            throw new IllegalArgumentException("The checkpoint format version (" + formatVersion
+                    + ") is not supported, only " + FORMAT_VERSION + " is.");
+        }
+        String distanceType = in.readBoolean() ? in.readUTF() : null;
+        boolean solving = in.readBoolean();
+        String name = in.readBoolean() ? in.readUTF() : null;
+        HardSoftLongScore score = in.readBoolean()
+                ? HardSoftLongScore.ofUninitialized(in.readInt(), in.readLong(), in.readLong())
+                : null;
+        long nextCustomerId = in.readLong();
+        Location southWestCorner = readLocation(in);
+        Location northEastCorner = readLocation(in);
+
+        int locationCount = readCount(in);
+        List<Location> locationList = new ArrayList<>(locationCount);
+        for (int i = 0; i < locationCount; i++) {
+            locationList.add(readLocation(in));
+        }
+        int depotCount = readCount(in);
+        List<Depot> depotList = new ArrayList<>(depotCount);
+        for (int i = 0; i < depotCount; i++) {
+            depotList.add(new Depot(in.readLong(), readReference(in, locationList)));
+        }
+        int customerCount = readCount(in);
+        List<Customer> customerList = new ArrayList<>(customerCount);
+        for (int i = 0; i < customerCount; i++) {
+            customerList.add(new Customer(in.readLong(), readReference(in, locationList), in.readInt()));
+        }
+        int vehicleCount = readCount(in);
+        List<Vehicle> vehicleList = new ArrayList<>(vehicleCount);
+        for (int i = 0; i < vehicleCount; i++) {
+            Vehicle vehicle = new Vehicle(in.readLong(), in.readInt(), readReference(in, depotList));
+            int routeSize = readCount(in);
+            Customer previousCustomer = null;
+            for (int j = 0; j < routeSize; j++) {
+                Customer customer = readReference(in, customerList);
+                if (customer.getVehicle() != null) {
+                    throw new IllegalArgumentException("The customer (" + customer
+                            + ") is in the routes of multiple vehicles.");
+                }
+                vehicle.getCustomerList().add(customer);
+                customer.setVehicle(vehicle);
+                customer.setPreviousCustomer(previousCustomer);
+                if (previousCustomer != null) {
+                    previousCustomer.setNextCustomer(customer);
+                }
+                previousCustomer = customer;
+            }
+            vehicleList.add(vehicle);
+        }
+        VehicleRoutingSolution solution = new VehicleRoutingSolution(name, locationList, depotList, vehicleList,
+                customerList, southWestCorner, northEastCorner);
+        solution.setScore(score);
+        solution.setNextCustomerId(nextCustomerId);
+        return new Checkpoint(solution, solving, distanceType);
+    }
+
+    private static Location readLocation(DataInputStream in) throws IOException {
+        return new Location(in.readLong(), in.readDouble(), in.readDouble());
+    }
+
+    private static int readCount(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        if (count < 0) {
+            throw new IllegalArgumentException("The count (" + count + ") must not be negative.");
+        }
+        return count;
+    }
+
+    private static <T> T readReference(DataInputStream in, List<T> list) throws IOException {
+        int position = in.readInt();
+        if (position < 0 || position >= list.size()) {
+            throw new IllegalArgumentException("The reference (" + position + ") must be between 0 and "
+                    + (list.size() - 1) + ".");
+        }
+        return list.get(position);
+    }
+
+    public static final class Checkpoint {
+
+        private final VehicleRoutingSolution solution;
+        private final boolean solving;
+        private final String distanceType;
+
+        private Checkpoint(VehicleRoutingSolution solution, boolean solving, String distanceType) {
+            this.solution = solution;
+            this.solving = solving;
+            this.distanceType = distanceType;
+        }
+
+        public VehicleRoutingSolution getSolution() {
+            return solution;
+        }
+
+        /**
+         * @return true if the problem was solving when the checkpoint was written
+         */
+        public boolean isSolving() {
+            return solving;
+        }
+
+        /**
+         * @return the {@link DistanceCalculator#getCacheKey() key} of the calculator of the distances,
+         *         null if the checkpointed solution had no distance matrix
+         */
+        public String getDistanceType() {
+            return distanceType;
+        }
+    }
+}
@@ -0,0 +1,288 @@
+package org.acme.vehiclerouting.persistence;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.acme.vehiclerouting.domain.Customer;
+import org.acme.vehiclerouting.domain.Depot;
+import org.acme.vehiclerouting.domain.Location;
+import org.acme.vehiclerouting.domain.Vehicle;
+import org.acme.vehiclerouting.domain.VehicleRoutingSolution;
+import org.acme.vehiclerouting.domain.geo.DistanceCalculator;
+
+/**
+ * Imports the published capacitated vehicle routing benchmark instances,
+ * in the CVRPLIB ({@code .vrp}, TSPLIB style) or the Solomon format, which is detected from the first line.
+ * <p>
+ * The input is read once, through a fixed buffer, into primitive arrays.
+ * Only the resulting domain objects and the dense distance matrix are kept,
+ * so the file content is never held in memory next to them.
+ * <p>
+ * The x coordinate becomes the longitude and the y coordinate the latitude of each {@link Location}.
+ * Distances are the Euclidean distances rounded to the nearest integer ({@code EUC_2D}),
+ * so that scores can be compared with the published results.
+ * The time windows of the Solomon instances are ignored.
+ */
+public class VehicleRoutingInstanceImporter {
+
+    /**
+     * The {@code EUC_2D} distance of TSPLIB.
+     */
+    public static final DistanceCalculator EUC_2D_DISTANCE_CALCULATOR = new DistanceCalculator() {
+
+        @Override
+        public long calculateDistance(Location from, Location to) {
+            return Math.round(Math.hypot(to.getLongitude() - from.getLongitude(),
+                    to.getLatitude() - from.getLatitude()));
+        }
+
+        // Stable across builds, unlike the name of an anonymous class, because checkpoints refer to it.
+        @Override
+        public String getCacheKey() {
+            return "EUC_2D";
+        }
+
+        // The coordinates of the instances are on a plane, often in the hundreds.
+        @Override
+        public boolean isGeographic() {
+            return false;
+        }
+    };
+
+    private static final Pattern VEHICLE_COUNT_IN_NAME = Pattern.compile("-k(\\d+)");
+
+    public VehicleRoutingSolution read(Path path) {
+        try (FileChannel channel = FileChannel.open(path)) {
+            return read(channel);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read the instance (" + path + ").", e);
+        }
+    }
+
+    /**
+     * @param channel never null, not closed by this method
+     * @return never null, with all customers unassigned
+     * @throws IllegalArgumentException if the input is not a valid instance
+     */
+    public VehicleRoutingSolution read(ReadableByteChannel channel) throws IOException {
+        InstanceTokenizer tokenizer = new InstanceTokenizer(channel);
+        String firstLine = tokenizer.nextLine();
+        while (firstLine != null && firstLine.isEmpty()) {
+            firstLine = tokenizer.nextLine();
+        }
+        if (firstLine == null) {
+            throw new IllegalArgumentException("The instance is empty.");
+        }
+        // CVRPLIB starts with a "NAME : ..." specification, Solomon with the bare name.
+        return firstLine.contains(":") ? readCvrpLib(tokenizer, firstLine) : readSolomon(tokenizer, firstLine);
+    }
+
+    private VehicleRoutingSolution readCvrpLib(InstanceTokenizer tokenizer, String firstLine) throws IOException {
+        String name = null;
+        int dimension = -1;
+        int capacity = -1;
+        int vehicleCount = -1;
+        double[] xs = null;
+        double[] ys = null;
+        int[] demands = null;
+        List<Integer> depotNodeList = new ArrayList<>();
+        for (String line = firstLine; line != null; line = tokenizer.nextLine()) {
+            if (line.isEmpty()) {
+                continue;
+            }
+            if (line.startsWith("NODE_COORD_SECTION")) {
+                checkDimension(dimension, tokenizer);
+                xs = new double[dimension];
+                ys = new double[dimension];
+                for (int i = 0; i < dimension; i++) {
+                    int node = readNode(tokenizer, dimension);
+                    xs[node] = tokenizer.nextDouble();
+                    ys[node] = tokenizer.nextDouble();
+                }
+            } else if (line.startsWith("DEMAND_SECTION")) {
+                checkDimension(dimension, tokenizer);
+                demands = new int[dimension];
+                for (int i = 0; i < dimension; i++) {
+                    int node = readNode(tokenizer, dimension);
+                    demands[node] = (int) tokenizer.nextLong();
+                }
+            } else if (line.startsWith("DEPOT_SECTION")) {
+                checkDimension(dimension, tokenizer);
+                for (long depot = tokenizer.nextLong(); depot != -1L; depot = tokenizer.nextLong()) {
+                    depotNodeList.add(checkNode(depot, dimension, tokenizer));
+                }
+            } else if (line.startsWith("EOF")) {
+                break;
+            } else {
+                int separatorIndex = line.indexOf(':');
+                if (separatorIndex < 0) {
+                    throw new IllegalArgumentException("The line " + (tokenizer.getLineNumber() - 1) + " ("
+                            + line + ") is neither a specification nor a supported section.");
+                }
+                String key = line.substring(0, separatorIndex).trim();
+                String value = line.substring(separatorIndex + 1).trim();
+                switch (key) {
+                    case "NAME":
+                        name = value;
+                        break;
+                    case "DIMENSION":
+                        dimension = Integer.parseInt(value);
+                        break;
+                    case "CAPACITY":
+                        capacity = Integer.parseInt(value);
+                        break;
+                    case "VEHICLES":
+                        vehicleCount = Integer.parseInt(value);
+                        break;
+                    case "EDGE_WEIGHT_TYPE":
+                        if (!value.equals("EUC_2D")) {
+                            throw new IllegalArgumentException("The edge weight type (" + value
+                                    + ") is not supported, only EUC_2D is.");
+                        }
+                        break;
+                    default:
+                        // TYPE, COMMENT, ...
+                        break;
+                }
+            }
+        }
+        if (xs == null || demands == null || capacity < 1) {
+            throw new IllegalArgumentException("The instance (" + name
+                    + ") must have a CAPACITY, a NODE_COORD_SECTION and a DEMAND_SECTION.");
+        }
+        if (depotNodeList.isEmpty()) {
+            // The first node is the depot by convention.
+            depotNodeList.add(0);
+        }
+        if (vehicleCount < 0 && name != null) {
+            Matcher matcher = VEHICLE_COUNT_IN_NAME.matcher(name);
+            if (matcher.find()) {
+                vehicleCount = Integer.parseInt(matcher.group(1));
+            }
+        }
+        boolean[] depotMask = new boolean[dimension];
+        depotNodeList.forEach(node -> depotMask[node] = true);
+        if (vehicleCount < 0) {
+            long totalDemand = 0L;
+            for (int node = 0; node < dimension; node++) {
+                totalDemand += depotMask[node] ? 0 : demands[node];
+            }
+            vehicleCount = (int) Math.max(1L, (totalDemand + capacity - 1) / capacity);
+        }
+        return build(name, xs, ys, demands, depotMask, 1L, vehicleCount, capacity);
+    }
+
+    private VehicleRoutingSolution readSolomon(InstanceTokenizer tokenizer, String name) throws IOException {
+        String line = tokenizer.nextLine();
+        while (line != null && !line.startsWith("NUMBER")) {
+            line = tokenizer.nextLine();
+        }
+        if (line == null) {
+            throw new IllegalArgumentException("The instance (" + name + ") has no VEHICLE section.");
+        }
+        int vehicleCount = (int) tokenizer.nextLong();
+        int capacity = (int) tokenizer.nextLong();
+        // Skip the CUSTOMER section title and its column headers.
+        line = tokenizer.nextLine();
+        while (line != null && !tokenizer.hasNextNumber()) {
+            line = tokenizer.nextLine();
+        }
+        // The customer count is not in the file, so the arrays grow as needed.
+        int size = 0;
+        double[] xs = new double[128];
+        double[] ys = new double[128];
+        int[] demands = new int[128];
+        while (tokenizer.hasNextNumber()) {
+            if (size == xs.length) {
+                xs = Arrays.copyOf(xs, size * 2);
+                ys = Arrays.copyOf(ys, size * 2);
+                demands = Arrays.copyOf(demands, size * 2);
+            }
+            long customerNumber = tokenizer.nextLong();
+            if (customerNumber != size) {
+                throw new IllegalArgumentException("The customer number (" + customerNumber + ") on line "
+                        + tokenizer.getLineNumber() + " must be " + size + ".");
+            }
+            xs[size] = tokenizer.nextDouble();
+            ys[size] = tokenizer.nextDouble();
+            demands[size] = (int) tokenizer.nextLong();
+            // Ready time, due date and service time.
+            tokenizer.nextDouble();
+            tokenizer.nextDouble();
+            tokenizer.nextDouble();
+            size++;
+        }
+        if (size == 0) {
+            throw new IllegalArgumentException("The instance (" + name + ") has no depot.");
+        }
+        boolean[] depotMask = new boolean[size];
+        // Customer number 0 is the depot.
+        depotMask[0] = true;
+        return build(name, Arrays.copyOf(xs, size), Arrays.copyOf(ys, size), Arrays.copyOf(demands, size),
+                depotMask, 0L, vehicleCount, capacity);
+    }
+
+    private static VehicleRoutingSolution build(String name, double[] xs, double[] ys, int[] demands,
+            boolean[] depotMask, long firstNodeNumber, int vehicleCount, int capacity) {
+        int size = xs.length;
+        List<Location> locationList = new ArrayList<>(size);
+        List<Depot> depotList = new ArrayList<>();
+        List<Customer> customerList = new ArrayList<>(size);
+        double minX = Double.POSITIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        // The ids are the node numbers of the instance, so the routes can be compared with the published ones.
+        for (int node = 0; node < size; node++) {
+            long id = firstNodeNumber + node;
+            Location location = new Location(id, ys[node], xs[node]);
+            locationList.add(location);
+            if (depotMask[node]) {
+                depotList.add(new Depot(id, location));
+            } else {
+                customerList.add(new Customer(id, location, demands[node]));
+            }
+            minX = Math.min(minX, xs[node]);
+            minY = Math.min(minY, ys[node]);
+            maxX = Math.max(maxX, xs[node]);
+            maxY = Math.max(maxY, ys[node]);
+        }
+        List<Vehicle> vehicleList = new ArrayList<>(vehicleCount);
+        for (int i = 0; i < vehicleCount; i++) {
+            vehicleList.add(new Vehicle(i, capacity, depotList.get(i % depotList.size())));
+        }
+        EUC_2D_DISTANCE_CALCULATOR.initDistanceMaps(locationList);
+        return new VehicleRoutingSolution(name, locationList, depotList, vehicleList, customerList,
+                new Location(-1L, minY, minX), new Location(-2L, maxY, maxX));
+    }
+
+    private static void checkDimension(int dimension, InstanceTokenizer tokenizer) {
+        if (dimension < 1) {
+            throw new IllegalArgumentException("The DIMENSION must be specified before the section on line "
+                    + (tokenizer.getLineNumber() - 1) + ".");
+        }
+    }
+
+    /**
+     * @return the 0-based index of the 1-based node number
+     */
+    private static int readNode(InstanceTokenizer tokenizer, int dimension) throws IOException {
+        return checkNode(tokenizer.nextLong(), dimension, tokenizer);
+    }
+
+    private static int checkNode(long node, int dimension, InstanceTokenizer tokenizer) {
+        if (node < 1 || node > dimension) {
+            throw new IllegalArgumentException("The node (" + node + ") on line " + tokenizer.getLineNumber()
+                    + " must be between 1 and the dimension (" + dimension + ").");
+        }
+        return (int) node - 1;
+    }
+}
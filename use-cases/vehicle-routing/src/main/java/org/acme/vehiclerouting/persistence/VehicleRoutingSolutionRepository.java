@@ -1,6 +1,10 @@
 package org.acme.vehiclerouting.persistence;
 
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import jakarta.enterprise.context.ApplicationScoped;
 
@@ -9,13 +13,50 @@ import org.acme.vehiclerouting.domain.VehicleRoutingSolution;
 @ApplicationScoped
 public class VehicleRoutingSolutionRepository {
 
-    private VehicleRoutingSolution vehicleRoutingSolution;
+    /**
+     * The problem of the demo data, also served by the endpoints without a problem id.
+     */
+    public static final long DEFAULT_PROBLEM_ID = 0L;
 
-    public Optional<VehicleRoutingSolution> solution() {
-        return Optional.ofNullable(vehicleRoutingSolution);
+    private final ConcurrentMap<Long, VersionedSolution> solutionMap = new ConcurrentHashMap<>();
+    private final AtomicLong versionSequence = new AtomicLong();
+
+    public Set<Long> problemIds() {
+        return Set.copyOf(solutionMap.keySet());
+    }
+
+    public Optional<VehicleRoutingSolution> solution(long problemId) {
+        return versionedSolution(problemId).map(VersionedSolution::getSolution);
     }
 
-    public void update(VehicleRoutingSolution vehicleRoutingSolution) {
-        this.vehicleRoutingSolution = vehicleRoutingSolution;
+    public Optional<VersionedSolution> versionedSolution(long problemId) {
+        return Optional.ofNullable(solutionMap.get(problemId));
+    }
+
+    public void update(long problemId, VehicleRoutingSolution vehicleRoutingSolution) {
+        solutionMap.put(problemId, new VersionedSolution(versionSequence.incrementAndGet(), vehicleRoutingSolution));
+    }
+
+    /**
+     * A solution with a version that changes on every {@link #update(long, VehicleRoutingSolution)},
+     * so anything derived from the solution can be cached until the version changes.
+     */
+    public static final class VersionedSolution {
+
+        private final long version;
+        private final VehicleRoutingSolution solution;
+
+        private VersionedSolution(long version, VehicleRoutingSolution solution) {
+            this.version = version;
+            this.solution = solution;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        public VehicleRoutingSolution getSolution() {
+            return solution;
+        }
     }
 }
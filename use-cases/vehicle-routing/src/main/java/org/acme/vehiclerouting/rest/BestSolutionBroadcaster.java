@@ -0,0 +1,120 @@
+package org.acme.vehiclerouting.rest;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.sse.OutboundSseEvent;
+import jakarta.ws.rs.sse.Sse;
+import jakarta.ws.rs.sse.SseBroadcaster;
+import jakarta.ws.rs.sse.SseEventSink;
+
+import org.acme.vehiclerouting.persistence.VehicleRoutingSolutionRepository;
+import org.acme.vehiclerouting.persistence.VehicleRoutingSolutionRepository.VersionedSolution;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Pushes the best solutions, as {@link RouteDelta}s, to the server-sent event subscribers of each problem.
+ * <p>
+ * The best solution consumer of the solver only stores each new best solution in the repository.
+ * Every {@code vehicle-routing.best-solution-stream.interval}, the latest stored version of each subscribed problem
+ * is compared with the routes sent before. So the events are throttled to one per interval
+ * and all best solutions found within an interval are coalesced into one delta.
+ */
+@ApplicationScoped
+public class BestSolutionBroadcaster {
+
+    private static final String EVENT_NAME = "routes";
+
+    @ConfigProperty(name = "vehicle-routing.best-solution-stream.interval", defaultValue = "0.5s")
+    Duration interval;
+
+    private final VehicleRoutingSolutionRepository repository;
+    private final ConcurrentMap<Long, ProblemStream> problemStreamMap = new ConcurrentHashMap<>();
+    private ScheduledExecutorService scheduler;
+
+    public BestSolutionBroadcaster(VehicleRoutingSolutionRepository repository) {
+        this.repository = repository;
+    }
+
+    @PostConstruct
+    void startScheduler() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "BestSolutionBroadcaster");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = interval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::broadcastChanges, intervalMillis, intervalMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stopScheduler() {
+        scheduler.shutdownNow();
+        problemStreamMap.values().forEach(problemStream -> problemStream.broadcaster.close());
+    }
+
+    /**
+     * Sends a snapshot to the new subscriber and registers it for the next deltas.
+     */
+    void subscribe(long problemId, SseEventSink eventSink, Sse sse) {
+        ProblemStream problemStream = problemStreamMap.computeIfAbsent(problemId, id -> new ProblemStream(sse));
+        synchronized (problemStream) {
+            // Catch up first, so the snapshot is never older than what the other subscribers already received.
+            repository.versionedSolution(problemId).flatMap(problemStream::update)
+                    .ifPresent(problemStream.broadcaster::broadcast);
+            eventSink.send(problemStream.toEvent(problemStream.tracker.snapshot()));
+            problemStream.broadcaster.register(eventSink);
+        }
+    }
+
+    private void broadcastChanges() {
+        problemStreamMap.forEach((problemId, problemStream) -> {
+            Optional<VersionedSolution> versionedSolution = repository.versionedSolution(problemId);
+            if (versionedSolution.isEmpty()) {
+                return;
+            }
+            synchronized (problemStream) {
+                problemStream.update(versionedSolution.get()).ifPresent(problemStream.broadcaster::broadcast);
+            }
+        });
+    }
+
+    private static final class ProblemStream {
+
+        private final Sse sse;
+        private final SseBroadcaster broadcaster;
+        private final RouteDeltaTracker tracker = new RouteDeltaTracker();
+
+        private ProblemStream(Sse sse) {
+            this.sse = sse;
+            this.broadcaster = sse.newBroadcaster();
+        }
+
+        private Optional<OutboundSseEvent> update(VersionedSolution versionedSolution) {
+            if (tracker.isUpToDate(versionedSolution.getVersion())) {
+                return Optional.empty();
+            }
+            return Optional.of(toEvent(tracker.update(versionedSolution.getVersion(),
+                    versionedSolution.getSolution())));
+        }
+
+        private OutboundSseEvent toEvent(RouteDelta routeDelta) {
+            return sse.newEventBuilder()
+                    .name(EVENT_NAME)
+                    .id(Long.toString(routeDelta.version))
+                    .mediaType(MediaType.APPLICATION_JSON_TYPE)
+                    .data(RouteDelta.class, routeDelta)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package org.acme.vehiclerouting.rest;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.acme.vehiclerouting.domain.Customer;
+import org.acme.vehiclerouting.domain.Depot;
+import org.acme.vehiclerouting.domain.Location;
+import org.acme.vehiclerouting.domain.Vehicle;
+import org.acme.vehiclerouting.domain.VehicleRoutingSolution;
+import org.optaplanner.core.api.score.buildin.hardsoftlong.HardSoftLongScore;
+
+/**
+ * A {@link VehicleRoutingSolution} in columns of primitive arrays, served as {@link #MEDIA_TYPE}.
+ * <p>
+ * Every location is sent once, as a latitude and a longitude at the same position of two arrays.
+ * The coordinates are integers: the offset from the south-west corner of the {@link #bounds}
+ * in {@link #coordinateUnit}s, so {@code latitude = bounds[0] + latitudes[i] * coordinateUnit}.
+ * That is about 10 cm for degrees and takes a third of the characters of a full precision double.
+ * Everything else refers to positions in these columns instead of repeating objects:
+ * depots and customers refer to their location position, vehicles to their depot position
+ * and each route is an array of customer positions.
+ * In the regular JSON, every route repeats the coordinates of its stops
+ * and every vehicle repeats its customers, so this is several times smaller for large problems
+ * and serializes a few arrays instead of a graph of objects.
+ */
+class ColumnarSolution {
+
+    static final String MEDIA_TYPE = "application/vnd.vrp.columnar+json";
+
+    private static final double COORDINATE_UNIT = 1e-6;
+
+    public final String name;
+    public final HardSoftLongScore score;
+    public final long distanceMeters;
+    /**
+     * South, west, north and east.
+     */
+    public final double[] bounds;
+    public final double coordinateUnit = COORDINATE_UNIT;
+    public final long[] latitudes;
+    public final long[] longitudes;
+    public final long[] depotIds;
+    public final int[] depotLocations;
+    public final long[] customerIds;
+    public final int[] customerLocations;
+    public final int[] customerDemands;
+    public final long[] vehicleIds;
+    public final int[] vehicleCapacities;
+    public final int[] vehicleDepots;
+    public final int[] vehicleTotalDemands;
+    public final long[] vehicleTotalDistanceMeters;
+    public final int[][] vehicleRoutes;
+
+    ColumnarSolution(VehicleRoutingSolution solution) {
+        name = solution.getName();
+        score = solution.getScore();
+        distanceMeters = solution.getDistanceMeters();
+        List<Location> boundList = solution.getBounds();
+        bounds = new double[] { boundList.get(0).getLatitude(), boundList.get(0).getLongitude(),
+                boundList.get(1).getLatitude(), boundList.get(1).getLongitude() };
+
+        List<Location> locationList = solution.getLocationList();
+        Map<Location, Integer> locationPositionMap = new IdentityHashMap<>(locationList.size());
+        latitudes = new long[locationList.size()];
+        longitudes = new long[locationList.size()];
+        for (int i = 0; i < locationList.size(); i++) {
+            Location location = locationList.get(i);
+            locationPositionMap.put(location, i);
+            latitudes[i] = Math.round((location.getLatitude() - bounds[0]) / COORDINATE_UNIT);
+            longitudes[i] = Math.round((location.getLongitude() - bounds[1]) / COORDINATE_UNIT);
+        }
+
+        List<Depot> depotList = solution.getDepotList();
+        Map<Depot, Integer> depotPositionMap = new IdentityHashMap<>(depotList.size());
+        depotIds = new long[depotList.size()];
+        depotLocations = new int[depotList.size()];
+        for (int i = 0; i < depotList.size(); i++) {
+            Depot depot = depotList.get(i);
+            depotPositionMap.put(depot, i);
+            depotIds[i] = depot.getId();
+            depotLocations[i] = locationPositionMap.get(depot.getLocation());
+        }
+
+        List<Customer> customerList = solution.getCustomerList();
+        Map<Customer, Integer> customerPositionMap = new IdentityHashMap<>(customerList.size());
+        customerIds = new long[customerList.size()];
+        customerLocations = new int[customerList.size()];
+        customerDemands = new int[customerList.size()];
+        for (int i = 0; i < customerList.size(); i++) {
+            Customer customer = customerList.get(i);
+            customerPositionMap.put(customer, i);
+            customerIds[i] = customer.getId();
+            customerLocations[i] = locationPositionMap.get(customer.getLocation());
+            customerDemands[i] = customer.getDemand();
+        }
+
+        List<Vehicle> vehicleList = solution.getVehicleList();
+        vehicleIds = new long[vehicleList.size()];
+        vehicleCapacities = new int[vehicleList.size()];
+        vehicleDepots = new int[vehicleList.size()];
+        vehicleTotalDemands = new int[vehicleList.size()];
+        vehicleTotalDistanceMeters = new long[vehicleList.size()];
+        vehicleRoutes = new int[vehicleList.size()][];
+        for (int i = 0; i < vehicleList.size(); i++) {
+            Vehicle vehicle = vehicleList.get(i);
+            vehicleIds[i] = vehicle.getId();
+            vehicleCapacities[i] = vehicle.getCapacity();
+            vehicleDepots[i] = depotPositionMap.get(vehicle.getDepot());
+            vehicleTotalDemands[i] = vehicle.getTotalDemand();
+            vehicleTotalDistanceMeters[i] = vehicle.getTotalDistanceMeters();
+            List<Customer> route = vehicle.getCustomerList();
+            int[] routePositions = new int[route.size()];
+            for (int j = 0; j < routePositions.length; j++) {
+                routePositions[j] = customerPositionMap.get(route.get(j));
+            }
+            vehicleRoutes[i] = routePositions;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package org.acme.vehiclerouting.rest;
+
+import org.optaplanner.core.api.solver.SolverStatus;
+
+/**
+ * The {@link Status} with a {@link ColumnarSolution}, served as {@link ColumnarSolution#MEDIA_TYPE}.
+ */
+class ColumnarStatus {
+
+    public final ColumnarSolution solution;
+    public final String scoreExplanation;
+    public final boolean isSolving;
+    public final SolverStatus solverStatus;
+
+    ColumnarStatus(Status status) {
+        this.solution = new ColumnarSolution(status.solution);
+        this.scoreExplanation = status.scoreExplanation;
+        this.isSolving = status.isSolving;
+        this.solverStatus = status.solverStatus;
+    }
+}
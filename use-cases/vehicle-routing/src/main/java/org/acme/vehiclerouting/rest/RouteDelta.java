@@ -0,0 +1,45 @@
+package org.acme.vehiclerouting.rest;
+
+import java.util.List;
+
+import org.acme.vehiclerouting.domain.Customer;
+import org.acme.vehiclerouting.domain.Vehicle;
+import org.optaplanner.core.api.score.buildin.hardsoftlong.HardSoftLongScore;
+
+/**
+ * One event of the best solution stream: the routes of the vehicles that changed since the previous event.
+ * The first event of every subscription is a snapshot with all vehicles.
+ * Customers are referred to by id, their locations are in the solution of the status endpoint.
+ */
+class RouteDelta {
+
+    public final long version;
+    public final boolean snapshot;
+    public final HardSoftLongScore score;
+    public final long distanceMeters;
+    public final List<VehicleRoute> vehicles;
+
+    RouteDelta(long version, boolean snapshot, HardSoftLongScore score, long distanceMeters,
+            List<VehicleRoute> vehicles) {
+        this.version = version;
+        this.snapshot = snapshot;
+        this.score = score;
+        this.distanceMeters = distanceMeters;
+        this.vehicles = vehicles;
+    }
+
+    static class VehicleRoute {
+
+        public final long id;
+        public final long[] customerIds;
+        public final int totalDemand;
+        public final long totalDistanceMeters;
+
+        VehicleRoute(Vehicle vehicle) {
+            this.id = vehicle.getId();
+            this.customerIds = vehicle.getCustomerList().stream().mapToLong(Customer::getId).toArray();
+            this.totalDemand = vehicle.getTotalDemand();
+            this.totalDistanceMeters = vehicle.getTotalDistanceMeters();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package org.acme.vehiclerouting.rest;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.acme.vehiclerouting.domain.Customer;
+import org.acme.vehiclerouting.domain.Vehicle;
+import org.acme.vehiclerouting.domain.VehicleRoutingSolution;
+import org.optaplanner.core.api.score.buildin.hardsoftlong.HardSoftLongScore;
+
+/**
+ * Remembers the routes that were last sent to the subscribers of one problem,
+ * to send only the vehicles whose route changed: its customers, its total demand or its total distance.
+ * Not thread-safe.
+ */
+class RouteDeltaTracker {
+
+    private final Map<Long, RouteDelta.VehicleRoute> sentRouteMap = new LinkedHashMap<>();
+    private long version = -1L;
+    private HardSoftLongScore score;
+    private long distanceMeters;
+
+    boolean isUpToDate(long version) {
+        return this.version >= version;
+    }
+
+    /**
+     * @return a delta with only the changed vehicles, possibly none (if only the score changed)
+     */
+    RouteDelta update(long version, VehicleRoutingSolution solution) {
+        this.version = version;
+        this.score = solution.getScore();
+        this.distanceMeters = solution.getDistanceMeters();
+        List<RouteDelta.VehicleRoute> changedRouteList = new ArrayList<>();
+        for (Vehicle vehicle : solution.getVehicleList()) {
+            RouteDelta.VehicleRoute sentRoute = sentRouteMap.get(vehicle.getId());
+            if (sentRoute == null || !isSameRoute(sentRoute, vehicle)) {
+                RouteDelta.VehicleRoute route = new RouteDelta.VehicleRoute(vehicle);
+                sentRouteMap.put(vehicle.getId(), route);
+                changedRouteList.add(route);
+            }
+        }
+        return new RouteDelta(version, false, score, distanceMeters, changedRouteList);
+    }
+
+    /**
+     * @return all routes as they were last sent, so a new subscriber can apply the next deltas on top of it
+     */
+    RouteDelta snapshot() {
+        return new RouteDelta(version, true, score, distanceMeters, new ArrayList<>(sentRouteMap.values()));
+    }
+
+    private static boolean isSameRoute(RouteDelta.VehicleRoute route, Vehicle vehicle) {
+        // A demand change keeps the customers of the route, but not its total demand.
+        if (route.totalDemand != vehicle.getTotalDemand()
+                || route.totalDistanceMeters != vehicle.getTotalDistanceMeters()) {
+            return false;
+        }
+        long[] customerIds = route.customerIds;
+        List<Customer> customerList = vehicle.getCustomerList();
+        if (customerIds.length != customerList.size()) {
+            return false;
+        }
+        for (int i = 0; i < customerIds.length; i++) {
+            if (customerIds[i] != customerList.get(i).getId()) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
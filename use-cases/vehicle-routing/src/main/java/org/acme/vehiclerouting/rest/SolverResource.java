@@ -1,73 +1,382 @@
 package org.acme.vehiclerouting.rest;
 
-import java.util.Optional;
-import java.util.concurrent.atomic.AtomicReference;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
+import jakarta.ws.rs.BadRequestException;
 import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.DELETE;
 import jakarta.ws.rs.GET;
+import jakarta.ws.rs.NotFoundException;
 import jakarta.ws.rs.POST;
+import jakarta.ws.rs.PUT;
 import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.sse.Sse;
+import jakarta.ws.rs.sse.SseEventSink;
 
+import org.acme.vehiclerouting.domain.Customer;
+import org.acme.vehiclerouting.domain.Location;
 import org.acme.vehiclerouting.domain.VehicleRoutingSolution;
+import org.acme.vehiclerouting.domain.geo.DistanceCalculator;
+import org.acme.vehiclerouting.domain.geo.DistanceMatrix;
+import org.acme.vehiclerouting.persistence.VehicleRoutingInstanceImporter;
 import org.acme.vehiclerouting.persistence.VehicleRoutingSolutionRepository;
+import org.acme.vehiclerouting.persistence.VehicleRoutingSolutionRepository.VersionedSolution;
+import org.acme.vehiclerouting.solver.SolverPool;
+import org.acme.vehiclerouting.solver.SolverPoolFullException;
+import org.acme.vehiclerouting.solver.change.AddCustomerProblemChange;
+import org.acme.vehiclerouting.solver.change.ChangeCustomerDemandProblemChange;
+import org.acme.vehiclerouting.solver.change.RemoveCustomerProblemChange;
 import org.optaplanner.core.api.score.buildin.hardsoftlong.HardSoftLongScore;
 import org.optaplanner.core.api.solver.SolutionManager;
-import org.optaplanner.core.api.solver.SolverManager;
+import org.optaplanner.core.api.solver.SolverStatus;
+import org.optaplanner.core.api.solver.change.ProblemChange;
 
+/**
+ * The endpoints under {@code /vrp/problems/{problemId}} serve one problem (for example a dispatch region) each.
+ * The endpoints directly under {@code /vrp} serve the {@link VehicleRoutingSolutionRepository#DEFAULT_PROBLEM_ID}.
+ * <p>
+ * The status endpoints also serve the much more compact {@link ColumnarSolution#MEDIA_TYPE}
+ * to clients that ask for it explicitly in their {@code Accept} header.
+ */
 @Path("/vrp")
 @Produces(MediaType.APPLICATION_JSON)
 @Consumes(MediaType.APPLICATION_JSON)
 public class SolverResource {
 
-    private static final long PROBLEM_ID = 0L;
-
-    private final AtomicReference<Throwable> solverError = new AtomicReference<>();
+    // Less preferred than JSON, so a client that accepts anything (*/*) unambiguously gets the regular JSON.
+    private static final String COLUMNAR_MEDIA_TYPE = ColumnarSolution.MEDIA_TYPE + ";qs=0.5";
 
     private final VehicleRoutingSolutionRepository repository;
-    private final SolverManager<VehicleRoutingSolution, Long> solverManager;
+    private final SolverPool solverPool;
     private final SolutionManager<VehicleRoutingSolution, HardSoftLongScore> solutionManager;
+    private final BestSolutionBroadcaster bestSolutionBroadcaster;
+    private final VehicleRoutingInstanceImporter instanceImporter = new VehicleRoutingInstanceImporter();
+
+    /**
+     * Explaining a score recalculates it from scratch, so it is done once per solution version
+     * instead of on every status poll.
+     */
+    private final ConcurrentMap<Long, ScoreExplanation> scoreExplanationMap = new ConcurrentHashMap<>();
 
-    public SolverResource(VehicleRoutingSolutionRepository repository,
-            SolverManager<VehicleRoutingSolution, Long> solverManager,
-            SolutionManager<VehicleRoutingSolution, HardSoftLongScore> solutionManager) {
+    public SolverResource(VehicleRoutingSolutionRepository repository, SolverPool solverPool,
+            SolutionManager<VehicleRoutingSolution, HardSoftLongScore> solutionManager,
+            BestSolutionBroadcaster bestSolutionBroadcaster) {
         this.repository = repository;
-        this.solverManager = solverManager;
+        this.solverPool = solverPool;
         this.solutionManager = solutionManager;
+        this.bestSolutionBroadcaster = bestSolutionBroadcaster;
     }
 
-    private Status statusFromSolution(VehicleRoutingSolution solution) {
-        return new Status(solution,
-                solutionManager.explain(solution).getSummary(),
-                solverManager.getSolverStatus(PROBLEM_ID));
+    private Status statusFromSolution(long problemId, VersionedSolution versionedSolution) {
+        solverPool.pollSolverError(problemId).ifPresent(throwable -> {
+            throw new RuntimeException("Solver failed", throwable);
+        });
+        // Concurrent polls of the same new version wait for one explanation instead of each calculating it.
+        long version = versionedSolution.getVersion();
+        ScoreExplanation scoreExplanation = scoreExplanationMap.get(problemId);
+        if (scoreExplanation == null || scoreExplanation.version != version) {
+            // Explained outside of the map, so a slow explanation does not block the other problems of its bin.
+            ScoreExplanation newScoreExplanation = new ScoreExplanation(version,
+                    solutionManager.explain(versionedSolution.getSolution()).getSummary());
+            // Never replace the explanation of a newer version, installed by a concurrent poll.
+            scoreExplanationMap.merge(problemId, newScoreExplanation,
+                    (cached, explained) -> cached.version >= explained.version ? cached : explained);
+            scoreExplanation = newScoreExplanation;
+        }
+        return new Status(versionedSolution.getSolution(), scoreExplanation.summary,
+                solverPool.getSolverStatus(problemId));
     }
 
     @GET
     @Path("status")
     public Status status() {
-        Optional.ofNullable(solverError.getAndSet(null)).ifPresent(throwable -> {
-            throw new RuntimeException("Solver failed", throwable);
-        });
-
-        Optional<VehicleRoutingSolution> s1 = repository.solution();
+        long problemId = VehicleRoutingSolutionRepository.DEFAULT_PROBLEM_ID;
+        return repository.versionedSolution(problemId)
+                .map(versionedSolution -> statusFromSolution(problemId, versionedSolution))
+                .orElseGet(() -> {
+                    VehicleRoutingSolution solution = VehicleRoutingSolution.empty();
+                    return new Status(solution, solutionManager.explain(solution).getSummary(),
+                            solverPool.getSolverStatus(problemId));
+                });
+    }
 
-        VehicleRoutingSolution s = s1.orElse(VehicleRoutingSolution.empty());
-        return statusFromSolution(s);
+    @GET
+    @Path("status")
+    @Produces(COLUMNAR_MEDIA_TYPE)
+    public ColumnarStatus columnarStatus() {
+        return new ColumnarStatus(status());
     }
 
     @POST
     @Path("solve")
     public void solve() {
-        Optional<VehicleRoutingSolution> maybeSolution = repository.solution();
-        maybeSolution.ifPresent(
-                vehicleRoutingSolution -> solverManager.solveAndListen(PROBLEM_ID, id -> vehicleRoutingSolution,
-                        repository::update, (problemId, throwable) -> solverError.set(throwable)));
+        solve(VehicleRoutingSolutionRepository.DEFAULT_PROBLEM_ID);
     }
 
     @POST
     @Path("stopSolving")
     public void stopSolving() {
-        solverManager.terminateEarly(PROBLEM_ID);
+        stopSolving(VehicleRoutingSolutionRepository.DEFAULT_PROBLEM_ID);
+    }
+
+    /**
+     * @return the solver status of every problem, by problem id
+     */
+    @GET
+    @Path("problems")
+    public Map<Long, SolverStatus> problems() {
+        Map<Long, SolverStatus> solverStatusMap = new TreeMap<>();
+        for (Long problemId : repository.problemIds()) {
+            solverStatusMap.put(problemId, solverPool.getSolverStatus(problemId));
+        }
+        return solverStatusMap;
+    }
+
+    @GET
+    @Path("problems/{problemId}/status")
+    public Status status(@PathParam("problemId") long problemId) {
+        return statusFromSolution(problemId, repository.versionedSolution(problemId)
+                .orElseThrow(() -> new NotFoundException("The problem (" + problemId + ") does not exist.")));
+    }
+
+    @GET
+    @Path("problems/{problemId}/status")
+    @Produces(COLUMNAR_MEDIA_TYPE)
+    public ColumnarStatus columnarStatus(@PathParam("problemId") long problemId) {
+        return new ColumnarStatus(status(problemId));
+    }
+
+    /**
+     * Responds with {@code 503 Service Unavailable} and a {@code Retry-After} header
+     * if too many problems are already waiting to be solved.
+     */
+    @POST
+    @Path("problems/{problemId}/solve")
+    public void solve(@PathParam("problemId") long problemId) {
+        boolean exists;
+        try {
+            exists = solverPool.solve(problemId);
+        } catch (SolverPoolFullException e) {
+            throw new WebApplicationException(e.getMessage(), e, Response.status(Response.Status.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, Math.max(1L, e.getRetryAfter().toSeconds()))
+                    .type(MediaType.TEXT_PLAIN)
+                    .entity(e.getMessage())
+                    .build());
+        }
+        if (!exists) {
+            throw new NotFoundException("The problem (" + problemId + ") does not exist.");
+        }
+    }
+
+    /**
+     * Creates or replaces a problem with an uploaded CVRPLIB or Solomon instance,
+     * see {@link VehicleRoutingInstanceImporter}. The upload is parsed while it streams in.
+     * Responds with {@code 409 Conflict} if the problem is solving.
+     */
+    @PUT
+    @Path("problems/{problemId}")
+    @Consumes({ MediaType.TEXT_PLAIN, MediaType.APPLICATION_OCTET_STREAM })
+    public void importProblem(@PathParam("problemId") long problemId, InputStream instance) {
+        if (solverPool.getSolverStatus(problemId) != SolverStatus.NOT_SOLVING) {
+            String message = "The problem (" + problemId + ") is solving, so it cannot be replaced.";
+            throw new WebApplicationException(message, Response.status(Response.Status.CONFLICT)
+                    .type(MediaType.TEXT_PLAIN)
+                    .entity(message)
+                    .build());
+        }
+        VehicleRoutingSolution solution;
+        try {
+            solution = instanceImporter.read(Channels.newChannel(instance));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException(Response.status(Response.Status.BAD_REQUEST)
+                    .type(MediaType.TEXT_PLAIN)
+                    .entity(e.getMessage())
+                    .build(), e);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read the uploaded instance of the problem ("
+                    + problemId + ").", e);
+        }
+        repository.update(problemId, solution);
+    }
+
+    /**
+     * Server-sent events with the changed vehicle routes of each new best solution, see {@link RouteDelta}.
+     */
+    @GET
+    @Path("problems/{problemId}/events")
+    @Produces(MediaType.SERVER_SENT_EVENTS)
+    public void events(@PathParam("problemId") long problemId, @Context SseEventSink eventSink, @Context Sse sse) {
+        if (repository.solution(problemId).isEmpty()) {
+            throw new NotFoundException("The problem (" + problemId + ") does not exist.");
+        }
+        bestSolutionBroadcaster.subscribe(problemId, eventSink, sse);
+    }
+
+    @POST
+    @Path("problems/{problemId}/stopSolving")
+    public void stopSolving(@PathParam("problemId") long problemId) {
+        solverPool.stopSolving(problemId);
+    }
+
+    /**
+     * Adds a customer while the problem is solving.
+     * Responds with {@code 400 Bad Request} if the coordinates are missing, not finite or,
+     * for a problem with {@link DistanceCalculator#isGeographic() geographic} coordinates, out of range,
+     * and with {@code 409 Conflict} if the problem is not solving.
+     *
+     * @return the added customer, with its new id
+     */
+    @POST
+    @Path("problems/{problemId}/customers")
+    public Customer addCustomer(@PathParam("problemId") long problemId, NewCustomer newCustomer) {
+        if (newCustomer == null || newCustomer.latitude == null || newCustomer.longitude == null
+                || newCustomer.demand < 0) {
+            throw new BadRequestException("The new customer must have a latitude, a longitude"
+                    + " and a non-negative demand.");
+        }
+        if (!Double.isFinite(newCustomer.latitude) || !Double.isFinite(newCustomer.longitude)) {
+            throw new BadRequestException("The latitude (" + newCustomer.latitude + ") and the longitude ("
+                    + newCustomer.longitude + ") must be finite.");
+        }
+        if (hasGeographicCoordinates(problemId)
+                && (!(newCustomer.latitude >= -90.0 && newCustomer.latitude <= 90.0)
+                        || !(newCustomer.longitude >= -180.0 && newCustomer.longitude <= 180.0))) {
+            throw new BadRequestException("The latitude (" + newCustomer.latitude + ") must be between -90 and 90"
+                    + " and the longitude (" + newCustomer.longitude + ") between -180 and 180.");
+        }
+        AddCustomerProblemChange problemChange = new AddCustomerProblemChange(newCustomer.latitude,
+                newCustomer.longitude, newCustomer.demand);
+        changeWhileSolving(problemId, problemChange);
+        return problemChange.getCustomer();
+    }
+
+    /**
+     * Imported problems have plane coordinates, which are not bounded like degrees.
+     */
+    private boolean hasGeographicCoordinates(long problemId) {
+        return repository.solution(problemId)
+                .flatMap(solution -> solution.getLocationList().stream().findFirst())
+                .map(Location::getDistanceMatrix)
+                .map(DistanceMatrix::getDistanceCalculator)
+                .map(DistanceCalculator::isGeographic)
+                .orElse(true);
+    }
+
+    /**
+     * Removes a customer while the problem is solving.
+     * Responds with {@code 404 Not Found} if the customer does not exist
+     * and with {@code 409 Conflict} if the problem is not solving.
+     */
+    @DELETE
+    @Path("problems/{problemId}/customers/{customerId}")
+    public void removeCustomer(@PathParam("problemId") long problemId, @PathParam("customerId") long customerId) {
+        checkCustomerExists(problemId, customerId);
+        changeWhileSolving(problemId, new RemoveCustomerProblemChange(customerId));
+    }
+
+    /**
+     * Changes the demand of a customer while the problem is solving.
+     * Responds with {@code 404 Not Found} if the customer does not exist
+     * and with {@code 409 Conflict} if the problem is not solving.
+     */
+    @PUT
+    @Path("problems/{problemId}/customers/{customerId}/demand")
+    public void changeCustomerDemand(@PathParam("problemId") long problemId,
+            @PathParam("customerId") long customerId, int demand) {
+        if (demand < 0) {
+            throw new BadRequestException("The demand (" + demand + ") must not be negative.");
+        }
+        checkCustomerExists(problemId, customerId);
+        changeWhileSolving(problemId, new ChangeCustomerDemandProblemChange(customerId, demand));
+    }
+
+    /**
+     * The problem changes ignore an unknown customer, so it is looked up in the last best solution instead.
+     */
+    private void checkCustomerExists(long problemId, long customerId) {
+        VehicleRoutingSolution solution = repository.solution(problemId)
+                .orElseThrow(() -> new NotFoundException("The problem (" + problemId + ") does not exist."));
+        if (solution.getCustomerList().stream().noneMatch(customer -> customer.getId() == customerId)) {
+            throw new NotFoundException("The customer (" + customerId + ") of the problem (" + problemId
+                    + ") does not exist.");
+        }
+    }
+
+    /**
+     * Blocks until the solver applied the change, so the next status already reflects it.
+     * A problem that is only scheduled to solve is rejected too,
+     * because its solver might not start before all the other problems are solved.
+     * A change that fails in the solver responds with {@code 400 Bad Request} if it was given an illegal argument
+     * and with {@code 500 Internal Server Error} otherwise.
+     */
+    private void changeWhileSolving(long problemId, ProblemChange<VehicleRoutingSolution> problemChange) {
+        if (repository.solution(problemId).isEmpty()) {
+            throw new NotFoundException("The problem (" + problemId + ") does not exist.");
+        }
+        if (solverPool.getSolverStatus(problemId) == SolverStatus.SOLVING_SCHEDULED) {
+            String message = "The problem (" + problemId + ") is scheduled to solve, but not solving yet,"
+                    + " so it cannot be changed.";
+            throw new WebApplicationException(message, Response.status(Response.Status.CONFLICT)
+                    .type(MediaType.TEXT_PLAIN)
+                    .entity(message)
+                    .build());
+        }
+        try {
+            CompletableFuture<Void> completion = solverPool.addProblemChange(problemId, problemChange);
+            completion.join();
+        } catch (IllegalStateException e) {
+            // Also a CancellationException, if the solver stopped before it applied the change.
+            String message = "The problem (" + problemId + ") is not solving, so it cannot be changed.";
+            throw new WebApplicationException(message, e, Response.status(Response.Status.CONFLICT)
+                    .type(MediaType.TEXT_PLAIN)
+                    .entity(message)
+                    .build());
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            Response.Status status = cause instanceof IllegalArgumentException ? Response.Status.BAD_REQUEST
+                    : Response.Status.INTERNAL_SERVER_ERROR;
+            String message = "The change of the problem (" + problemId + ") failed: " + cause.getMessage();
+            throw new WebApplicationException(message, cause, Response.status(status)
+                    .type(MediaType.TEXT_PLAIN)
+                    .entity(message)
+                    .build());
+        }
+    }
+
+    /**
+     * The request body of {@link #addCustomer(long, NewCustomer)}.
+     */
+    public static class NewCustomer {
+
+        public Double latitude;
+        public Double longitude;
+        public int demand;
+    }
+
+    private static final class ScoreExplanation {
+
+        private final long version;
+        private final String summary;
+
+        private ScoreExplanation(long version, String summary) {
+            this.version = version;
+            this.summary = summary;
+        }
     }
 }
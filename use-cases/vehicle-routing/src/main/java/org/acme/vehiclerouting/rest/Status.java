@@ -8,10 +8,12 @@ class Status {
     public final VehicleRoutingSolution solution;
     public final String scoreExplanation;
     public final boolean isSolving;
+    public final SolverStatus solverStatus;
 
     Status(VehicleRoutingSolution solution, String scoreExplanation, SolverStatus solverStatus) {
         this.solution = solution;
         this.scoreExplanation = scoreExplanation;
         this.isSolving = solverStatus != SolverStatus.NOT_SOLVING;
+        this.solverStatus = solverStatus;
     }
 }
@@ -0,0 +1,157 @@
+package org.acme.vehiclerouting.solver;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import org.acme.vehiclerouting.domain.Customer;
+import org.acme.vehiclerouting.domain.Depot;
+import org.acme.vehiclerouting.domain.Vehicle;
+import org.acme.vehiclerouting.domain.VehicleRoutingSolution;
+import org.acme.vehiclerouting.domain.solver.DepotSweepPosition;
+import org.optaplanner.core.api.score.director.ScoreDirector;
+import org.optaplanner.core.impl.phase.custom.CustomPhaseCommand;
+
+/**
+ * Multi-depot sweep construction heuristic.
+ * <p>
+ * Every unassigned customer goes to the vehicles of its nearest depot that has vehicles.
+ * Per depot, the customers are swept by their angle around that depot
+ * and appended to the current vehicle until the next customer no longer fits, then the next vehicle is filled.
+ * This takes O(n log n) for the sort and one linear pass, instead of trying every vehicle for every customer.
+ * <p>
+ * Customers that do not fit in the vehicles of their depot are appended to the vehicle
+ * with the most remaining capacity (kept in a priority queue), so the solution is always fully initialized.
+ */
+public class DepotSweepConstructionHeuristic implements CustomPhaseCommand<VehicleRoutingSolution> {
+
+    private static final String CUSTOMER_LIST = "customerList";
+
+    @Override
+    public void changeWorkingSolution(ScoreDirector<VehicleRoutingSolution> scoreDirector) {
+        VehicleRoutingSolution solution = scoreDirector.getWorkingSolution();
+        List<Vehicle> vehicleList = solution.getVehicleList();
+        if (vehicleList.isEmpty()) {
+            // Nothing to assign the customers to.
+            return;
+        }
+
+        // Only the depots with vehicles are swept around, in the order of the depot list.
+        Map<Depot, List<VehicleLoad>> depotVehicleLoadMap = new LinkedHashMap<>();
+        for (Depot depot : solution.getDepotList()) {
+            depotVehicleLoadMap.put(depot, new ArrayList<>());
+        }
+        List<VehicleLoad> vehicleLoadList = new ArrayList<>(vehicleList.size());
+        for (Vehicle vehicle : vehicleList) {
+            VehicleLoad vehicleLoad = new VehicleLoad(vehicle);
+            vehicleLoadList.add(vehicleLoad);
+            depotVehicleLoadMap.computeIfAbsent(vehicle.getDepot(), depot -> new ArrayList<>()).add(vehicleLoad);
+        }
+        depotVehicleLoadMap.values().removeIf(List::isEmpty);
+        List<Depot> depotList = new ArrayList<>(depotVehicleLoadMap.keySet());
+        List<List<VehicleLoad>> depotVehicleLoadList = new ArrayList<>(depotVehicleLoadMap.values());
+
+        List<SweptCustomer> sweptCustomerList = new ArrayList<>(solution.getCustomerList().size());
+        for (Customer customer : solution.getCustomerList()) {
+            if (customer.getVehicle() == null) {
+                sweptCustomerList.add(new SweptCustomer(customer,
+                        DepotSweepPosition.of(customer.getLocation(), depotList)));
+            }
+        }
+        sweptCustomerList.sort(SweptCustomer.COMPARATOR);
+
+        List<Customer> overflowCustomerList = new ArrayList<>();
+        int depotIndex = -1;
+        List<VehicleLoad> depotVehicleLoads = null;
+        int vehicleLoadIndex = 0;
+        for (SweptCustomer sweptCustomer : sweptCustomerList) {
+            if (sweptCustomer.position.getDepotIndex() != depotIndex) {
+                depotIndex = sweptCustomer.position.getDepotIndex();
+                depotVehicleLoads = depotVehicleLoadList.get(depotIndex);
+                vehicleLoadIndex = 0;
+            }
+            Customer customer = sweptCustomer.customer;
+            while (vehicleLoadIndex < depotVehicleLoads.size()
+                    && !depotVehicleLoads.get(vehicleLoadIndex).fits(customer)) {
+                vehicleLoadIndex++;
+            }
+            if (vehicleLoadIndex < depotVehicleLoads.size()) {
+                depotVehicleLoads.get(vehicleLoadIndex).add(customer);
+            } else {
+                overflowCustomerList.add(customer);
+            }
+        }
+        if (!overflowCustomerList.isEmpty()) {
+            PriorityQueue<VehicleLoad> vehicleLoadQueue = new PriorityQueue<>(vehicleLoadList.size(),
+                    Comparator.comparingLong(VehicleLoad::getRemainingCapacity).reversed());
+            vehicleLoadQueue.addAll(vehicleLoadList);
+            for (Customer customer : overflowCustomerList) {
+                VehicleLoad vehicleLoad = vehicleLoadQueue.poll();
+                vehicleLoad.add(customer);
+                vehicleLoadQueue.add(vehicleLoad);
+            }
+        }
+
+        for (VehicleLoad vehicleLoad : vehicleLoadList) {
+            vehicleLoad.assign(scoreDirector);
+        }
+    }
+
+    private static final class SweptCustomer {
+
+        private static final Comparator<SweptCustomer> COMPARATOR = Comparator
+                .comparing((SweptCustomer sweptCustomer) -> sweptCustomer.position, DepotSweepPosition.COMPARATOR)
+                .thenComparingLong(sweptCustomer -> sweptCustomer.customer.getId());
+
+        private final Customer customer;
+        private final DepotSweepPosition position;
+
+        private SweptCustomer(Customer customer, DepotSweepPosition position) {
+            this.customer = customer;
+            this.position = position;
+        }
+    }
+
+    private static final class VehicleLoad {
+
+        private final Vehicle vehicle;
+        private final List<Customer> addedCustomerList = new ArrayList<>();
+        private long remainingCapacity;
+
+        private VehicleLoad(Vehicle vehicle) {
+            this.vehicle = vehicle;
+            this.remainingCapacity = vehicle.getCapacity() - vehicle.getTotalDemand();
+        }
+
+        private long getRemainingCapacity() {
+            return remainingCapacity;
+        }
+
+        private boolean fits(Customer customer) {
+            return customer.getDemand() <= remainingCapacity;
+        }
+
+        private void add(Customer customer) {
+            addedCustomerList.add(customer);
+            remainingCapacity -= customer.getDemand();
+        }
+
+        private void assign(ScoreDirector<VehicleRoutingSolution> scoreDirector) {
+            List<Customer> customerList = vehicle.getCustomerList();
+            // Same events as a ListAssignMove. The index supply of the nearby selection only supports
+            // one new element per list change, so the listeners are triggered after each customer.
+            for (Customer customer : addedCustomerList) {
+                int index = customerList.size();
+                scoreDirector.beforeListVariableChanged(vehicle, CUSTOMER_LIST, index, index);
+                scoreDirector.beforeListVariableElementAssigned(vehicle, CUSTOMER_LIST, customer);
+                customerList.add(customer);
+                scoreDirector.afterListVariableElementAssigned(vehicle, CUSTOMER_LIST, customer);
+                scoreDirector.afterListVariableChanged(vehicle, CUSTOMER_LIST, index, index + 1);
+                scoreDirector.triggerVariableListeners();
+            }
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package org.acme.vehiclerouting.solver;
+
+import static java.util.Comparator.comparingInt;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.acme.vehiclerouting.domain.Customer;
+import org.acme.vehiclerouting.domain.Depot;
+import org.acme.vehiclerouting.domain.Location;
+import org.acme.vehiclerouting.domain.Vehicle;
+import org.acme.vehiclerouting.domain.VehicleRoutingSolution;
+import org.acme.vehiclerouting.domain.solver.DepotSweepPosition;
+
+/**
+ * Splits a {@link VehicleRoutingSolution} into geographic parts that can be solved independently.
+ * <p>
+ * Each customer is attributed to its nearest depot and the customers are swept by their angle around that depot,
+ * see {@link DepotSweepPosition}.
+ * The vehicles, ordered by depot, are divided evenly over the parts and the sweep is cut into slices
+ * whose demand is proportional to the capacity of the vehicles of each part.
+ * So every part is a pizza slice around (mostly) one depot, served by the vehicles of that depot.
+ * <p>
+ * The parts contain copies of the vehicles and customers, so solving them never changes the original solution.
+ * They share the locations, depots and therefore the distance matrix, which are only read while solving.
+ */
+public class DepotSweepPartitioner {
+
+    public List<VehicleRoutingSolution> split(VehicleRoutingSolution solution, int partCount) {
+        if (partCount < 1) {
+            throw new IllegalArgumentException("The partCount (" + partCount + ") must be at least 1.");
+        }
+        List<Depot> depotList = solution.getDepotList();
+        List<Vehicle> vehicleList = new ArrayList<>(solution.getVehicleList());
+        List<Customer> customerList = new ArrayList<>(solution.getCustomerList());
+        partCount = Math.min(partCount, Math.min(vehicleList.size(), customerList.size()));
+        if (partCount < 1) {
+            return List.of(copy(solution, solution.getName(), vehicleList, customerList));
+        }
+
+        Map<Depot, Integer> depotIndexMap = new HashMap<>(depotList.size());
+        for (int i = 0; i < depotList.size(); i++) {
+            depotIndexMap.put(depotList.get(i), i);
+        }
+        // Vehicles and customers are both ordered by depot first, so that each part gets the vehicles of its depot.
+        vehicleList.sort(comparingInt((Vehicle vehicle) -> depotIndexMap.get(vehicle.getDepot()))
+                .thenComparingLong(Vehicle::getId));
+
+        Map<Customer, DepotSweepPosition> sweepPositionMap = new HashMap<>(customerList.size());
+        for (Customer customer : customerList) {
+            sweepPositionMap.put(customer, DepotSweepPosition.of(customer.getLocation(), depotList));
+        }
+        customerList.sort(Comparator.comparing((Customer customer) -> sweepPositionMap.get(customer),
+                DepotSweepPosition.COMPARATOR).thenComparingLong(Customer::getId));
+
+        long totalCapacity = 0L;
+        for (Vehicle vehicle : vehicleList) {
+            totalCapacity += vehicle.getCapacity();
+        }
+        long totalDemand = 0L;
+        for (Customer customer : customerList) {
+            totalDemand += customer.getDemand();
+        }
+
+        List<VehicleRoutingSolution> partList = new ArrayList<>(partCount);
+        int customerIndex = 0;
+        long cumulativeCapacity = 0L;
+        long cumulativeDemand = 0L;
+        for (int partIndex = 0; partIndex < partCount; partIndex++) {
+            List<Vehicle> partVehicleList = vehicleList.subList(
+                    partIndex * vehicleList.size() / partCount, (partIndex + 1) * vehicleList.size() / partCount);
+            for (Vehicle vehicle : partVehicleList) {
+                cumulativeCapacity += vehicle.getCapacity();
+            }
+            int customerFromIndex = customerIndex;
+            if (partIndex == partCount - 1) {
+                customerIndex = customerList.size();
+            } else {
+                // Cut the sweep where the demand so far matches the capacity so far.
+                double demandLimit = totalCapacity == 0L ? 0.0
+                        : (double) totalDemand * cumulativeCapacity / totalCapacity;
+                // Leave at least one customer for each of the remaining parts.
+                int customerIndexLimit = customerList.size() - (partCount - 1 - partIndex);
+                while (customerIndex < customerIndexLimit
+                        && (customerIndex == customerFromIndex
+                                || cumulativeDemand + customerList.get(customerIndex).getDemand() <= demandLimit)) {
+                    cumulativeDemand += customerList.get(customerIndex).getDemand();
+                    customerIndex++;
+                }
+            }
+            partList.add(copy(solution, solution.getName() + " (part " + (partIndex + 1) + "/" + partCount + ")",
+                    partVehicleList, customerList.subList(customerFromIndex, customerIndex)));
+        }
+        return partList;
+    }
+
+    /**
+     * @param solution never null, the solution that was split
+     * @param partList never null, the (solved) parts of that solution
+     * @return a new solution with the vehicles and customers of all parts, in the order of the original solution
+     */
+    public VehicleRoutingSolution merge(VehicleRoutingSolution solution, List<VehicleRoutingSolution> partList) {
+        Map<Long, Vehicle> vehicleMap = new HashMap<>(solution.getVehicleList().size());
+        Map<Long, Customer> customerMap = new HashMap<>(solution.getCustomerList().size());
+        for (VehicleRoutingSolution part : partList) {
+            part.getVehicleList().forEach(vehicle -> vehicleMap.put(vehicle.getId(), vehicle));
+            part.getCustomerList().forEach(customer -> customerMap.put(customer.getId(), customer));
+        }
+        List<Vehicle> vehicleList = new ArrayList<>(vehicleMap.size());
+        for (Vehicle vehicle : solution.getVehicleList()) {
+            vehicleList.add(findPartEntity(vehicleMap, vehicle.getId(), vehicle));
+        }
+        List<Customer> customerList = new ArrayList<>(customerMap.size());
+        for (Customer customer : solution.getCustomerList()) {
+            customerList.add(findPartEntity(customerMap, customer.getId(), customer));
+        }
+        List<Location> bounds = solution.getBounds();
+        VehicleRoutingSolution mergedSolution = new VehicleRoutingSolution(solution.getName(),
+                solution.getLocationList(), solution.getDepotList(), vehicleList, customerList,
+                bounds.get(0), bounds.get(1));
+        mergedSolution.setNextCustomerId(solution.getNextCustomerId());
+        return mergedSolution;
+    }
+
+    private static <Entity_> Entity_ findPartEntity(Map<Long, Entity_> partEntityMap, long id, Object entity) {
+        Entity_ partEntity = partEntityMap.get(id);
+        if (partEntity == null) {
+            throw new IllegalStateException("The entity (" + entity + ") is not in any of the parts.");
+        }
+        return partEntity;
+    }
+
+    private static VehicleRoutingSolution copy(VehicleRoutingSolution solution, String name,
+            List<Vehicle> vehicleList, List<Customer> customerList) {
+        List<Vehicle> vehicleCopyList = new ArrayList<>(vehicleList.size());
+        for (Vehicle vehicle : vehicleList) {
+            vehicleCopyList.add(new Vehicle(vehicle.getId(), vehicle.getCapacity(), vehicle.getDepot()));
+        }
+        List<Customer> customerCopyList = new ArrayList<>(customerList.size());
+        for (Customer customer : customerList) {
+            customerCopyList.add(new Customer(customer.getId(), customer.getLocation(), customer.getDemand()));
+        }
+        List<Location> bounds = solution.getBounds();
+        return new VehicleRoutingSolution(name, solution.getLocationList(), solution.getDepotList(),
+                vehicleCopyList, customerCopyList, bounds.get(0), bounds.get(1));
+    }
+}
@@ -0,0 +1,36 @@
+package org.acme.vehiclerouting.solver;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.optaplanner.core.api.solver.SolverJob;
+
+/**
+ * Stops the part solvers of one {@link PartitionedVehicleRoutingSolver#solvePartitions partitioned run}.
+ * <p>
+ * The parts are solved inside the problem finder of the {@link org.optaplanner.core.api.solver.SolverManager} job,
+ * which holds that job's lock until its own solver starts,
+ * so {@code SolverManager.terminateEarly()} can neither reach them nor return before they are done.
+ * A termination requested before a part starts stops that part as soon as it is registered.
+ */
+final class PartitionTermination {
+
+    private boolean terminated = false;
+    private final List<SolverJob<?, ?>> partJobList = new ArrayList<>();
+
+    synchronized void terminateEarly() {
+        terminated = true;
+        partJobList.forEach(SolverJob::terminateEarly);
+    }
+
+    synchronized boolean isTerminated() {
+        return terminated;
+    }
+
+    synchronized void register(SolverJob<?, ?> partJob) {
+        partJobList.add(partJob);
+        if (terminated) {
+            partJob.terminateEarly();
+        }
+    }
+}
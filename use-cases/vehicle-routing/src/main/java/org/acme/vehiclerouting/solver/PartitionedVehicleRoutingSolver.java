@@ -0,0 +1,119 @@
+package org.acme.vehiclerouting.solver;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+
+import jakarta.enterprise.context.ApplicationScoped;
+
+import org.acme.vehiclerouting.domain.Vehicle;
+import org.acme.vehiclerouting.domain.VehicleRoutingSolution;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.optaplanner.core.api.solver.SolverFactory;
+import org.optaplanner.core.api.solver.SolverJob;
+import org.optaplanner.core.api.solver.SolverManager;
+import org.optaplanner.core.config.solver.SolverConfig;
+import org.optaplanner.core.config.solver.SolverManagerConfig;
+import org.optaplanner.core.config.solver.termination.TerminationConfig;
+
+/**
+ * Partitioned search for very large datasets.
+ * <p>
+ * The problem is split into geographic parts by the {@link DepotSweepPartitioner},
+ * each part is solved on its own thread (with the configured solver phases) for a limited time
+ * and the solved parts are merged back into one initialized solution.
+ * The parts are {@link SolverJob}s of their own {@link SolverManager}, so a {@link PartitionTermination}
+ * can stop them at any time, even before they start.
+ * That solution is meant to be polished by a regular solver run on the whole problem,
+ * which can still move customers across part borders.
+ * <p>
+ * OptaPlanner's built-in {@code <partitionedSearch>} phase is not used,
+ * because it does not support a {@link org.optaplanner.core.api.domain.variable.PlanningListVariable}.
+ */
+@ApplicationScoped
+public class PartitionedVehicleRoutingSolver {
+
+    @ConfigProperty(name = "vehicle-routing.partitioned-search.minimum-customer-count", defaultValue = "10000")
+    int minimumCustomerCount;
+
+    @ConfigProperty(name = "vehicle-routing.partitioned-search.part-count")
+    Optional<Integer> partCount;
+
+    @ConfigProperty(name = "vehicle-routing.partitioned-search.part-spent-limit", defaultValue = "1m")
+    Duration partSpentLimit;
+
+    private final SolverConfig solverConfig;
+    private final DepotSweepPartitioner partitioner = new DepotSweepPartitioner();
+
+    public PartitionedVehicleRoutingSolver(SolverConfig solverConfig) {
+        this.solverConfig = solverConfig;
+    }
+
+    /**
+     * Only uninitialized solutions are partitioned, so that restarting the solver continues from the current routes.
+     *
+     * @param solution never null
+     * @return true if {@link #solvePartitions(VehicleRoutingSolution)} should be called before solving
+     */
+    public boolean isApplicable(VehicleRoutingSolution solution) {
+        return solution.getCustomerList().size() >= minimumCustomerCount
+                && solution.getVehicleList().stream().map(Vehicle::getCustomerList).allMatch(List::isEmpty);
+    }
+
+    /**
+     * Blocks until all parts are solved.
+     *
+     * @param solution never null, not changed
+     * @return never null, a new solution with all customers assigned
+     */
+    public VehicleRoutingSolution solvePartitions(VehicleRoutingSolution solution) {
+        return solvePartitions(solution, new PartitionTermination());
+    }
+
+    /**
+     * Blocks until all parts are solved or terminated early.
+     *
+     * @param solution never null, not changed
+     * @param termination never null, stops the part solvers early
+     * @return never null, a new solution with all customers assigned,
+     *         unless the termination stopped some parts before they assigned all their customers
+     */
+    VehicleRoutingSolution solvePartitions(VehicleRoutingSolution solution, PartitionTermination termination) {
+        int resolvedPartCount = partCount.orElseGet(() -> Runtime.getRuntime().availableProcessors());
+        List<VehicleRoutingSolution> partList = partitioner.split(solution, resolvedPartCount);
+        SolverFactory<VehicleRoutingSolution> solverFactory = SolverFactory.create(solverConfig.copyConfig()
+                .withTerminationConfig(new TerminationConfig().withSpentLimit(partSpentLimit)));
+        SolverManagerConfig solverManagerConfig = new SolverManagerConfig()
+                .withParallelSolverCount(String.valueOf(partList.size()));
+
+        try (SolverManager<VehicleRoutingSolution, Integer> partSolverManager =
+                SolverManager.create(solverFactory, solverManagerConfig)) {
+            List<SolverJob<VehicleRoutingSolution, Integer>> partJobList = new ArrayList<>(partList.size());
+            for (int i = 0; i < partList.size(); i++) {
+                SolverJob<VehicleRoutingSolution, Integer> partJob = partSolverManager.solve(i, partList.get(i));
+                termination.register(partJob);
+                partJobList.add(partJob);
+            }
+            List<VehicleRoutingSolution> solvedPartList = new ArrayList<>(partList.size());
+            for (int i = 0; i < partList.size(); i++) {
+                try {
+                    solvedPartList.add(partJobList.get(i).getFinalBestSolution());
+                } catch (CancellationException e) {
+                    // Terminated before it started.
+                    solvedPartList.add(partList.get(i));
+                }
+            }
+            return partitioner.merge(solution, solvedPartList);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Solving the parts of the solution (" + solution.getName()
+                    + ") was interrupted.", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Solving a part of the solution (" + solution.getName() + ") failed.",
+                    e.getCause());
+        }
+    }
+}
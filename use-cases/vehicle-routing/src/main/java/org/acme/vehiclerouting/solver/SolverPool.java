@@ -0,0 +1,136 @@
+package org.acme.vehiclerouting.solver;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+import jakarta.enterprise.context.ApplicationScoped;
+
+import org.acme.vehiclerouting.domain.VehicleRoutingSolution;
+import org.acme.vehiclerouting.persistence.VehicleRoutingSolutionRepository;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.optaplanner.core.api.solver.SolverManager;
+import org.optaplanner.core.api.solver.SolverStatus;
+import org.optaplanner.core.api.solver.change.ProblemChange;
+
+/**
+ * Solves the problems of the {@link VehicleRoutingSolutionRepository}, each one keyed by its problem id.
+ * <p>
+ * At most {@code quarkus.optaplanner.solver-manager.parallel-solver-count} problems are solved at the same time.
+ * The other submitted problems wait in the first-in-first-out queue of the {@link SolverManager},
+ * so every region gets its turn in submission order.
+ * That queue is bounded: once {@code vehicle-routing.solver-pool.queue-capacity} problems are waiting,
+ * {@link #solve(long)} fails fast with a {@link SolverPoolFullException} instead of piling up more work.
+ */
+@ApplicationScoped
+public class SolverPool {
+
+    @ConfigProperty(name = "vehicle-routing.solver-pool.queue-capacity", defaultValue = "8")
+    int queueCapacity;
+
+    @ConfigProperty(name = "vehicle-routing.solver-pool.retry-after", defaultValue = "30s")
+    Duration retryAfter;
+
+    private final VehicleRoutingSolutionRepository repository;
+    private final SolverManager<VehicleRoutingSolution, Long> solverManager;
+    private final PartitionedVehicleRoutingSolver partitionedSolver;
+
+    private final Map<Long, Throwable> solverErrorMap = new ConcurrentHashMap<>();
+    private final Map<Long, PartitionTermination> partitionTerminationMap = new ConcurrentHashMap<>();
+
+    public SolverPool(VehicleRoutingSolutionRepository repository,
+            SolverManager<VehicleRoutingSolution, Long> solverManager,
+            PartitionedVehicleRoutingSolver partitionedSolver) {
+        this.repository = repository;
+        this.solverManager = solverManager;
+        this.partitionedSolver = partitionedSolver;
+    }
+
+    /**
+     * Does nothing if the problem is already solving or waiting to be solved.
+     *
+     * @param problemId an id of the {@link VehicleRoutingSolutionRepository}
+     * @return false if the repository has no such problem
+     * @throws SolverPoolFullException if the queue is full
+     */
+    public synchronized boolean solve(long problemId) {
+        Optional<VehicleRoutingSolution> maybeSolution = repository.solution(problemId);
+        if (maybeSolution.isEmpty()) {
+            return false;
+        }
+        if (solverManager.getSolverStatus(problemId) != SolverStatus.NOT_SOLVING) {
+            return true;
+        }
+        // The queue is scanned instead of counted, so a job that is terminated before it starts
+        // (and therefore never reports back) cannot leak a place in the queue.
+        long queuedCount = repository.problemIds().stream()
+                .filter(id -> solverManager.getSolverStatus(id) == SolverStatus.SOLVING_SCHEDULED)
+                .count();
+        if (queuedCount >= queueCapacity) {
+            throw new SolverPoolFullException("The problem (" + problemId + ") cannot be solved now, because "
+                    + queuedCount + " problems are already waiting to be solved.", retryAfter);
+        }
+        VehicleRoutingSolution solution = maybeSolution.get();
+        solverErrorMap.remove(problemId);
+        PartitionTermination partitionTermination = new PartitionTermination();
+        partitionTerminationMap.put(problemId, partitionTermination);
+        // On very large problems, the parts are solved first (in the solver job's thread)
+        // and the regular solver run polishes the merged solution.
+        solverManager.solveAndListen(problemId,
+                id -> {
+                    try {
+                        return partitionedSolver.isApplicable(solution) && !partitionTermination.isTerminated()
+                                ? partitionedSolver.solvePartitions(solution, partitionTermination)
+                                : solution;
+                    } finally {
+                        partitionTerminationMap.remove(problemId, partitionTermination);
+                    }
+                },
+                bestSolution -> repository.update(problemId, bestSolution),
+                (id, throwable) -> solverErrorMap.put(id, throwable));
+        return true;
+    }
+
+    /**
+     * Stops the part solvers first (if the problem is being partitioned),
+     * because the solver job cannot be terminated before they are done.
+     */
+    public void stopSolving(long problemId) {
+        PartitionTermination partitionTermination = partitionTerminationMap.remove(problemId);
+        if (partitionTermination != null) {
+            partitionTermination.terminateEarly();
+        }
+        solverManager.terminateEarly(problemId);
+    }
+
+    /**
+     * The solver applies the change to its working solution between two moves and continues from there.
+     *
+     * @param problemId an id of the {@link VehicleRoutingSolutionRepository}
+     * @param problemChange never null
+     * @return never null, completes once the change is applied
+     * @throws IllegalStateException if the problem is not solving or waiting to be solved
+     */
+    public CompletableFuture<Void> addProblemChange(long problemId,
+            ProblemChange<VehicleRoutingSolution> problemChange) {
+        if (solverManager.getSolverStatus(problemId) == SolverStatus.NOT_SOLVING) {
+            throw new IllegalStateException("The problem (" + problemId
+                    + ") must be solving to change it while solving.");
+        }
+        return solverManager.addProblemChange(problemId, problemChange);
+    }
+
+    public SolverStatus getSolverStatus(long problemId) {
+        return solverManager.getSolverStatus(problemId);
+    }
+
+    /**
+     * @param problemId an id of the {@link VehicleRoutingSolutionRepository}
+     * @return the exception that made the last solver run of that problem fail, if any; cleared by this call
+     */
+    public Optional<Throwable> pollSolverError(long problemId) {
+        return Optional.ofNullable(solverErrorMap.remove(problemId));
+    }
+}
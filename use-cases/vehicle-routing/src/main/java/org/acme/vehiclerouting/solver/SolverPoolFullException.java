@@ -0,0 +1,23 @@
+package org.acme.vehiclerouting.solver;
+
+import java.time.Duration;
+
+/**
+ * Thrown when a problem is submitted while the queue of the {@link SolverPool} is full.
+ */
+public class SolverPoolFullException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public SolverPoolFullException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * @return never null, when the client should submit the problem again
+     */
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
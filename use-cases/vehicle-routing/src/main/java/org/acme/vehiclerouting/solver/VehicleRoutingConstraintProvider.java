@@ -1,8 +1,9 @@
 package org.acme.vehiclerouting.solver;
 
-import org.acme.vehiclerouting.domain.Vehicle;
+import org.acme.vehiclerouting.domain.Customer;
 import org.optaplanner.core.api.score.buildin.hardsoftlong.HardSoftLongScore;
 import org.optaplanner.core.api.score.stream.Constraint;
+import org.optaplanner.core.api.score.stream.ConstraintCollectors;
 import org.optaplanner.core.api.score.stream.ConstraintFactory;
 import org.optaplanner.core.api.score.stream.ConstraintProvider;
 
@@ -21,10 +22,12 @@ public class VehicleRoutingConstraintProvider implements ConstraintProvider {
     // ************************************************************************
 
     protected Constraint vehicleCapacity(ConstraintFactory factory) {
-        return factory.forEach(Vehicle.class)
-                .filter(vehicle -> vehicle.getTotalDemand() > vehicle.getCapacity())
+        return factory.forEach(Customer.class)
+                .filter(customer -> customer.getVehicle() != null)
+                .groupBy(Customer::getVehicle, ConstraintCollectors.sum(Customer::getDemand))
+                .filter((vehicle, totalDemand) -> totalDemand > vehicle.getCapacity())
                 .penalizeLong(HardSoftLongScore.ONE_HARD,
-                        vehicle -> vehicle.getTotalDemand() - vehicle.getCapacity())
+                        (vehicle, totalDemand) -> totalDemand - vehicle.getCapacity())
                 .asConstraint("vehicleCapacity");
     }
 
@@ -33,9 +36,10 @@ public class VehicleRoutingConstraintProvider implements ConstraintProvider {
     // ************************************************************************
 
     protected Constraint totalDistance(ConstraintFactory factory) {
-        return factory.forEach(Vehicle.class)
+        return factory.forEach(Customer.class)
+                .filter(customer -> customer.getVehicle() != null)
                 .penalizeLong(HardSoftLongScore.ONE_SOFT,
-                        Vehicle::getTotalDistanceMeters)
+                        Customer::getDistanceFromPreviousStandstillMeters)
                 .asConstraint("distanceFromPreviousStandstill");
     }
 }
@@ -0,0 +1,70 @@
+package org.acme.vehiclerouting.solver.change;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.acme.vehiclerouting.domain.Customer;
+import org.acme.vehiclerouting.domain.Location;
+import org.acme.vehiclerouting.domain.VehicleRoutingSolution;
+import org.acme.vehiclerouting.domain.geo.DistanceCalculator;
+import org.acme.vehiclerouting.domain.geo.DistanceMatrix;
+import org.optaplanner.core.api.solver.change.ProblemChange;
+import org.optaplanner.core.api.solver.change.ProblemChangeDirector;
+
+/**
+ * Adds an unassigned customer, which the construction heuristic assigns when the solver restarts its phases.
+ * The customer and its location get the {@link VehicleRoutingSolution#getNextCustomerId() next customer id}.
+ * <p>
+ * The distance row and column of the new location are calculated in the solver thread
+ * and appended to the distance matrix shared by the other locations, which are not recalculated.
+ * They are calculated by the {@link DistanceMatrix#getDistanceCalculator() calculator of that matrix},
+ * not by the application's one, because an imported problem has its own distance unit.
+ */
+public class AddCustomerProblemChange implements ProblemChange<VehicleRoutingSolution> {
+
+    private final double latitude;
+    private final double longitude;
+    private final int demand;
+
+    private volatile Customer customer;
+
+    public AddCustomerProblemChange(double latitude, double longitude, int demand) {
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.demand = demand;
+    }
+
+    @Override
+    public void doChange(VehicleRoutingSolution workingSolution, ProblemChangeDirector problemChangeDirector) {
+        long customerId = workingSolution.getNextCustomerId();
+        workingSolution.setNextCustomerId(customerId + 1L);
+        Location location = new Location(customerId, latitude, longitude);
+        DistanceMatrix distanceMatrix = workingSolution.getLocationList().get(0).getDistanceMatrix();
+        DistanceCalculator distanceCalculator = distanceMatrix.getDistanceCalculator();
+        if (distanceCalculator == null) {
+            throw new IllegalStateException("The distance matrix of the problem (" + workingSolution.getName()
+                    + ") does not know its distance calculator, so a customer cannot be added.");
+        }
+        distanceCalculator.addToDistanceMatrix(location, workingSolution.getLocationList());
+        // The lists are shared with the best solution, so they are replaced instead of modified.
+        problemChangeDirector.addProblemFact(location, workingLocation -> {
+            List<Location> locationList = new ArrayList<>(workingSolution.getLocationList());
+            locationList.add(workingLocation);
+            workingSolution.setLocationList(locationList);
+        });
+        Customer newCustomer = new Customer(customerId, location, demand);
+        problemChangeDirector.addProblemFact(newCustomer, workingCustomer -> {
+            List<Customer> customerList = new ArrayList<>(workingSolution.getCustomerList());
+            customerList.add(workingCustomer);
+            workingSolution.setCustomerList(customerList);
+        });
+        customer = new Customer(customerId, location, demand);
+    }
+
+    /**
+     * @return null until the change is done, a detached copy of the added customer afterwards
+     */
+    public Customer getCustomer() {
+        return customer;
+    }
+}
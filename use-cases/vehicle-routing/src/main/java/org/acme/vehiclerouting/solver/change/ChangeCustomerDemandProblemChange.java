@@ -0,0 +1,30 @@
+package org.acme.vehiclerouting.solver.change;
+
+import java.util.Optional;
+
+import org.acme.vehiclerouting.domain.Customer;
+import org.acme.vehiclerouting.domain.VehicleRoutingSolution;
+import org.optaplanner.core.api.solver.change.ProblemChange;
+import org.optaplanner.core.api.solver.change.ProblemChangeDirector;
+
+/**
+ * Changes the demand of a customer, which stays on its route. Does nothing for an unknown customer.
+ */
+public class ChangeCustomerDemandProblemChange implements ProblemChange<VehicleRoutingSolution> {
+
+    private final long customerId;
+    private final int demand;
+
+    public ChangeCustomerDemandProblemChange(long customerId, int demand) {
+        this.customerId = customerId;
+        this.demand = demand;
+    }
+
+    @Override
+    public void doChange(VehicleRoutingSolution workingSolution, ProblemChangeDirector problemChangeDirector) {
+        Customer customer = new Customer(customerId, null, 0);
+        Optional<Customer> workingCustomerOptional = problemChangeDirector.lookUpWorkingObject(customer);
+        workingCustomerOptional.ifPresent(workingCustomer -> problemChangeDirector.changeProblemProperty(
+                workingCustomer, changedCustomer -> changedCustomer.setDemand(demand)));
+    }
+}
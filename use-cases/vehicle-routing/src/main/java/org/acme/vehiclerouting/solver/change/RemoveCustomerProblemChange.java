@@ -0,0 +1,62 @@
+package org.acme.vehiclerouting.solver.change;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.acme.vehiclerouting.domain.Customer;
+import org.acme.vehiclerouting.domain.Location;
+import org.acme.vehiclerouting.domain.Vehicle;
+import org.acme.vehiclerouting.domain.VehicleRoutingSolution;
+import org.optaplanner.core.api.solver.change.ProblemChange;
+import org.optaplanner.core.api.solver.change.ProblemChangeDirector;
+
+/**
+ * Removes a customer (and its location) from its route and from the problem. Does nothing for an unknown customer.
+ * <p>
+ * The location keeps its (now unused) index in the distance matrix.
+ */
+public class RemoveCustomerProblemChange implements ProblemChange<VehicleRoutingSolution> {
+
+    private final long customerId;
+
+    public RemoveCustomerProblemChange(long customerId) {
+        this.customerId = customerId;
+    }
+
+    @Override
+    public void doChange(VehicleRoutingSolution workingSolution, ProblemChangeDirector problemChangeDirector) {
+        Customer customer = new Customer(customerId, null, 0);
+        Optional<Customer> workingCustomerOptional = problemChangeDirector.lookUpWorkingObject(customer);
+        workingCustomerOptional.ifPresent(
+                workingCustomer -> removeCustomer(workingCustomer, workingSolution, problemChangeDirector));
+    }
+
+    private void removeCustomer(Customer customer, VehicleRoutingSolution workingSolution,
+            ProblemChangeDirector problemChangeDirector) {
+        Vehicle vehicle = customer.getVehicle();
+        if (vehicle != null) {
+            // The ProblemChangeDirector cannot change a list variable, so the vehicle is removed and added again
+            // with the shorter route, which resets the shadow variables of all its customers.
+            // The listeners only run when the shadow variables are updated, so they are run after the removal,
+            // while the vehicle still has its old route, and after the addition,
+            // before removing the problem facts resets the working solution of the listeners.
+            problemChangeDirector.removeEntity(vehicle, removedVehicle -> {
+            });
+            problemChangeDirector.updateShadowVariables();
+            problemChangeDirector.addEntity(vehicle, addedVehicle -> addedVehicle.getCustomerList().remove(customer));
+            problemChangeDirector.updateShadowVariables();
+        }
+        // The lists are shared with the best solution, so they are replaced instead of modified.
+        problemChangeDirector.removeProblemFact(customer, workingCustomer -> {
+            List<Customer> customerList = new ArrayList<>(workingSolution.getCustomerList());
+            customerList.remove(workingCustomer);
+            workingSolution.setCustomerList(customerList);
+        });
+        problemChangeDirector.removeProblemFact(customer.getLocation(), workingLocation -> {
+            List<Location> locationList = new ArrayList<>(workingSolution.getLocationList());
+            locationList.remove(workingLocation);
+            workingSolution.setLocationList(locationList);
+        });
+    }
+}
@@ -0,0 +1,49 @@
+package org.acme.vehiclerouting.benchmark;
+
+import java.util.List;
+
+import org.acme.vehiclerouting.bootstrap.DemoDataBuilder;
+import org.acme.vehiclerouting.domain.Customer;
+import org.acme.vehiclerouting.domain.Location;
+import org.acme.vehiclerouting.domain.Vehicle;
+import org.acme.vehiclerouting.domain.VehicleRoutingSolution;
+import org.acme.vehiclerouting.solver.DepotSweepConstructionHeuristic;
+import org.acme.vehiclerouting.solver.VehicleRoutingConstraintProvider;
+import org.optaplanner.core.api.solver.SolverFactory;
+import org.optaplanner.core.config.phase.custom.CustomPhaseConfig;
+import org.optaplanner.core.config.solver.SolverConfig;
+
+/**
+ * Seeded, initialized solutions for the microbenchmarks, with the distance matrix on the heap.
+ */
+final class BenchmarkData {
+
+    static final SolverConfig SOLVER_CONFIG = new SolverConfig()
+            .withSolutionClass(VehicleRoutingSolution.class)
+            .withEntityClasses(Vehicle.class, Customer.class)
+            .withConstraintProviderClass(VehicleRoutingConstraintProvider.class);
+
+    /**
+     * @return every customer is assigned by the {@link DepotSweepConstructionHeuristic}
+     */
+    static VehicleRoutingSolution constructSolution(int customerCount) {
+        VehicleRoutingSolution problem = DemoDataBuilder.builder()
+                .setSeed(0L)
+                .setMinDemand(1)
+                .setMaxDemand(2)
+                .setVehicleCapacity(40)
+                .setCustomerCount(customerCount)
+                .setVehicleCount(customerCount / 20)
+                .setDepotCount(3)
+                .setSouthWestCorner(new Location(0L, 43.751466, 11.177210))
+                .setNorthEastCorner(new Location(0L, 43.809291, 11.290195))
+                .build();
+        return SolverFactory.<VehicleRoutingSolution> create(SOLVER_CONFIG.copyConfig()
+                .withPhases(new CustomPhaseConfig()
+                        .withCustomPhaseCommandClassList(List.of(DepotSweepConstructionHeuristic.class))))
+                .buildSolver().solve(problem);
+    }
+
+    private BenchmarkData() {
+    }
+}
@@ -0,0 +1,67 @@
+package org.acme.vehiclerouting.benchmark;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.acme.vehiclerouting.domain.Location;
+import org.acme.vehiclerouting.domain.geo.DistanceMatrix;
+import org.acme.vehiclerouting.domain.geo.EuclideanDistanceCalculator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the bulk distance matrix calculation
+ * against calling {@link EuclideanDistanceCalculator#calculateDistance(Location, Location)} row by row.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = { "-Xmx4g" })
+public class DistanceMatrixBenchmark {
+
+    @Param({ "1000", "5000", "10000" })
+    int locationCount;
+
+    private final EuclideanDistanceCalculator distanceCalculator = new EuclideanDistanceCalculator();
+    private List<Location> locationList;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(0);
+        locationList = IntStream.range(0, locationCount)
+                .mapToObj(i -> new Location(i, 43.75 + random.nextDouble() * 0.06, 11.17 + random.nextDouble() * 0.12))
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public DistanceMatrix bulk() {
+        return distanceCalculator.calculateDistanceMatrix(locationList);
+    }
+
+    @Benchmark
+    public DistanceMatrix rowByRow() {
+        DistanceMatrix distanceMatrix = new DistanceMatrix(locationCount);
+        for (int fromIndex = 0; fromIndex < locationCount; fromIndex++) {
+            Location from = locationList.get(fromIndex);
+            for (int toIndex = 0; toIndex < locationCount; toIndex++) {
+                distanceMatrix.setDistance(fromIndex, toIndex,
+                        distanceCalculator.calculateDistance(from, locationList.get(toIndex)));
+            }
+        }
+        return distanceMatrix;
+    }
+}
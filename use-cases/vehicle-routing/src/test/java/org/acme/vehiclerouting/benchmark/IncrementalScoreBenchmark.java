@@ -0,0 +1,92 @@
+package org.acme.vehiclerouting.benchmark;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.acme.vehiclerouting.domain.Customer;
+import org.acme.vehiclerouting.domain.Vehicle;
+import org.acme.vehiclerouting.domain.VehicleRoutingSolution;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.optaplanner.core.api.score.buildin.hardsoftlong.HardSoftLongScore;
+import org.optaplanner.core.api.solver.SolverFactory;
+import org.optaplanner.core.impl.score.director.InnerScoreDirector;
+import org.optaplanner.core.impl.solver.DefaultSolverFactory;
+
+/**
+ * Incremental score calculation of the {@link org.acme.vehiclerouting.solver.VehicleRoutingConstraintProvider},
+ * the way local search does it: a customer is moved to another route, the score is calculated,
+ * the customer is moved back and the score is calculated again.
+ * That is one operation, with the same variable events as a list change move.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IncrementalScoreBenchmark {
+
+    private static final String CUSTOMER_LIST = "customerList";
+
+    @Param({ "1000", "10000" })
+    int customerCount;
+
+    private InnerScoreDirector<VehicleRoutingSolution, HardSoftLongScore> scoreDirector;
+    private Vehicle[] vehicles;
+    private final Random random = new Random(0);
+
+    @Setup
+    public void setup() {
+        VehicleRoutingSolution solution = BenchmarkData.constructSolution(customerCount);
+        vehicles = solution.getVehicleList().stream()
+                .filter(vehicle -> !vehicle.getCustomerList().isEmpty())
+                .toArray(Vehicle[]::new);
+        DefaultSolverFactory<VehicleRoutingSolution> solverFactory =
+                (DefaultSolverFactory<VehicleRoutingSolution>) SolverFactory.<VehicleRoutingSolution> create(
+                        BenchmarkData.SOLVER_CONFIG);
+        scoreDirector = solverFactory.<HardSoftLongScore> getScoreDirectorFactory().buildScoreDirector(false, false);
+        scoreDirector.setWorkingSolution(solution);
+        scoreDirector.calculateScore();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        scoreDirector.close();
+    }
+
+    @Benchmark
+    public HardSoftLongScore moveAndUndo() {
+        Vehicle source = vehicles[random.nextInt(vehicles.length)];
+        Vehicle destination = vehicles[random.nextInt(vehicles.length)];
+        int sourceIndex = random.nextInt(source.getCustomerList().size());
+        int destinationIndex = random.nextInt(destination.getCustomerList().size());
+        move(source, sourceIndex, destination, destinationIndex);
+        scoreDirector.calculateScore();
+        move(destination, destinationIndex, source, sourceIndex);
+        return scoreDirector.calculateScore();
+    }
+
+    private void move(Vehicle source, int sourceIndex, Vehicle destination, int destinationIndex) {
+        List<Customer> sourceCustomerList = source.getCustomerList();
+        scoreDirector.beforeListVariableChanged(source, CUSTOMER_LIST, sourceIndex, sourceIndex + 1);
+        Customer customer = sourceCustomerList.remove(sourceIndex);
+        scoreDirector.afterListVariableChanged(source, CUSTOMER_LIST, sourceIndex, sourceIndex);
+        scoreDirector.beforeListVariableChanged(destination, CUSTOMER_LIST, destinationIndex, destinationIndex);
+        destination.getCustomerList().add(destinationIndex, customer);
+        scoreDirector.afterListVariableChanged(destination, CUSTOMER_LIST, destinationIndex, destinationIndex + 1);
+        scoreDirector.triggerVariableListeners();
+    }
+}
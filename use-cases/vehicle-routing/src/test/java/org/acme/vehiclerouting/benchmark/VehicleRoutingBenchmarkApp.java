@@ -0,0 +1,131 @@
+package org.acme.vehiclerouting.benchmark;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import org.acme.vehiclerouting.bootstrap.DemoDataBuilder;
+import org.acme.vehiclerouting.domain.Customer;
+import org.acme.vehiclerouting.domain.Location;
+import org.acme.vehiclerouting.domain.Vehicle;
+import org.acme.vehiclerouting.domain.VehicleRoutingSolution;
+import org.acme.vehiclerouting.domain.geo.CachingDistanceCalculator;
+import org.acme.vehiclerouting.domain.geo.EuclideanDistanceCalculator;
+import org.acme.vehiclerouting.solver.DepotSweepConstructionHeuristic;
+import org.acme.vehiclerouting.solver.VehicleRoutingConstraintProvider;
+import org.optaplanner.benchmark.api.PlannerBenchmarkFactory;
+import org.optaplanner.benchmark.config.PlannerBenchmarkConfig;
+import org.optaplanner.benchmark.config.SolverBenchmarkConfig;
+import org.optaplanner.core.config.heuristic.selector.move.MoveSelectorConfig;
+import org.optaplanner.core.config.localsearch.LocalSearchPhaseConfig;
+import org.optaplanner.core.config.localsearch.decider.acceptor.LocalSearchAcceptorConfig;
+import org.optaplanner.core.config.localsearch.decider.forager.LocalSearchForagerConfig;
+import org.optaplanner.core.config.phase.custom.CustomPhaseConfig;
+import org.optaplanner.core.config.solver.SolverConfig;
+import org.optaplanner.core.config.solver.termination.TerminationConfig;
+
+/**
+ * Compares solver configurations on generated datasets of 1k, 5k, 10k and 25k customers:
+ * the nearby selection of {@code solverConfig.xml} against the default, unrestricted move selection,
+ * late acceptance against tabu search and several move thread counts.
+ * The benchmark report (score calculation speed, best score over time, ...) is written to
+ * {@code target/benchmarks}.
+ * <p>
+ * Run it with {@code mvn test-compile exec:exec -Pbenchmark}.
+ * To benchmark other dataset sizes, pass their customer counts: {@code -Dbenchmark.args="1000 2000"}.
+ * <p>
+ * The datasets are generated with a fixed seed, so every run solves the same problems.
+ * Their distance matrices are cached in memory-mapped files (see {@link CachingDistanceCalculator}),
+ * except the ones too big to be mapped, such as the 25k dataset, which needs about 5 GB of heap.
+ */
+public class VehicleRoutingBenchmarkApp {
+
+    private static final int[] DEFAULT_CUSTOMER_COUNTS = { 1_000, 5_000, 10_000, 25_000 };
+    private static final long SEED = 0L;
+    private static final Path DISTANCE_MATRIX_CACHE_DIRECTORY = Path.of("target/benchmarks/distance-matrix-cache");
+
+    public static void main(String[] args) {
+        int[] customerCounts = args.length == 0 ? DEFAULT_CUSTOMER_COUNTS
+                : Arrays.stream(args).mapToInt(Integer::parseInt).toArray();
+        LocalSearchPhaseConfig nearbyLocalSearchPhaseConfig = (LocalSearchPhaseConfig) SolverConfig
+                .createFromXmlResource("solverConfig.xml").getPhaseConfigList().get(1);
+        MoveSelectorConfig<?> nearbyMoveSelectorConfig = nearbyLocalSearchPhaseConfig.getMoveSelectorConfig();
+
+        PlannerBenchmarkConfig benchmarkConfig = new PlannerBenchmarkConfig()
+                .withBenchmarkDirectory(new File("target/benchmarks"))
+                .withWarmUpSecondsSpentLimit(30L)
+                .withInheritedSolverBenchmarkConfig(new SolverBenchmarkConfig()
+                        .withSolverConfig(new SolverConfig()
+                                .withSolutionClass(VehicleRoutingSolution.class)
+                                .withEntityClasses(Vehicle.class, Customer.class)
+                                .withConstraintProviderClass(VehicleRoutingConstraintProvider.class)
+                                .withTerminationConfig(new TerminationConfig().withMinutesSpentLimit(1L))))
+                .withSolverBenchmarkConfigs(
+                        solverBenchmark("Nearby - late acceptance", nearbyMoveSelectorConfig, lateAcceptance(), null),
+                        solverBenchmark("Unrestricted - late acceptance", null, lateAcceptance(), null),
+                        solverBenchmark("Nearby - tabu search", nearbyMoveSelectorConfig, tabuSearch(), null),
+                        solverBenchmark("Nearby - late acceptance - 2 move threads", nearbyMoveSelectorConfig,
+                                lateAcceptance(), "2"),
+                        solverBenchmark("Nearby - late acceptance - 4 move threads", nearbyMoveSelectorConfig,
+                                lateAcceptance(), "4"));
+
+        VehicleRoutingSolution[] problems = Arrays.stream(customerCounts)
+                .mapToObj(VehicleRoutingBenchmarkApp::generate)
+                .toArray(VehicleRoutingSolution[]::new);
+        PlannerBenchmarkFactory.create(benchmarkConfig)
+                .buildPlannerBenchmark(problems)
+                .benchmark();
+    }
+
+    /**
+     * All solver benchmarks start with the same construction heuristic, so only the local search differs.
+     *
+     * @param moveSelectorConfig null for the default move selectors
+     * @param moveThreadCount null for no move threads
+     */
+    private static SolverBenchmarkConfig solverBenchmark(String name, MoveSelectorConfig<?> moveSelectorConfig,
+            LocalSearchPhaseConfig localSearchPhaseConfig, String moveThreadCount) {
+        if (moveSelectorConfig != null) {
+            localSearchPhaseConfig.setMoveSelectorConfig(moveSelectorConfig.copyConfig());
+        }
+        return new SolverBenchmarkConfig()
+                .withName(name)
+                .withSolverConfig(new SolverConfig()
+                        .withMoveThreadCount(moveThreadCount)
+                        .withPhases(new CustomPhaseConfig()
+                                .withCustomPhaseCommandClassList(List.of(DepotSweepConstructionHeuristic.class)),
+                                localSearchPhaseConfig));
+    }
+
+    private static LocalSearchPhaseConfig lateAcceptance() {
+        return new LocalSearchPhaseConfig()
+                .withAcceptorConfig(new LocalSearchAcceptorConfig().withLateAcceptanceSize(400))
+                .withForagerConfig(new LocalSearchForagerConfig().withAcceptedCountLimit(1));
+    }
+
+    private static LocalSearchPhaseConfig tabuSearch() {
+        // A list variable has few entities (the vehicles), so the moved customers are tabu instead.
+        return new LocalSearchPhaseConfig()
+                .withAcceptorConfig(new LocalSearchAcceptorConfig().withValueTabuSize(7))
+                .withForagerConfig(new LocalSearchForagerConfig().withAcceptedCountLimit(1000));
+    }
+
+    static VehicleRoutingSolution generate(int customerCount) {
+        VehicleRoutingSolution problem = DemoDataBuilder.builder()
+                .setSeed(SEED)
+                .setMinDemand(1)
+                .setMaxDemand(2)
+                .setVehicleCapacity(40)
+                .setCustomerCount(customerCount)
+                .setVehicleCount(customerCount / 20)
+                .setDepotCount(3)
+                .setSouthWestCorner(new Location(0L, 43.751466, 11.177210))
+                .setNorthEastCorner(new Location(0L, 43.809291, 11.290195))
+                .setDistanceCalculator(new CachingDistanceCalculator(new EuclideanDistanceCalculator(),
+                        DISTANCE_MATRIX_CACHE_DIRECTORY))
+                .build();
+        problem.setName(customerCount + " customers");
+        return problem;
+    }
+}
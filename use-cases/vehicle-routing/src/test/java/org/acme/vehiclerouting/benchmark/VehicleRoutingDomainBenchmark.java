@@ -0,0 +1,83 @@
+package org.acme.vehiclerouting.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.acme.vehiclerouting.domain.Location;
+import org.acme.vehiclerouting.domain.Vehicle;
+import org.acme.vehiclerouting.domain.VehicleRoutingSolution;
+import org.acme.vehiclerouting.domain.geo.EuclideanDistanceCalculator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The domain methods called on every score calculation.
+ * Each invocation works on the next vehicle (or pair of locations), so the results are not constant-folded.
+ * Run with the GC profiler (the default of the jmh profile) to see the allocations per operation,
+ * which should be zero.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VehicleRoutingDomainBenchmark {
+
+    @Param({ "1000", "10000" })
+    int customerCount;
+
+    private final EuclideanDistanceCalculator distanceCalculator = new EuclideanDistanceCalculator();
+    private Vehicle[] vehicles;
+    private Location[] locations;
+    private int vehicleIndex = 0;
+    private int locationIndex = 0;
+
+    @Setup
+    public void setup() {
+        VehicleRoutingSolution solution = BenchmarkData.constructSolution(customerCount);
+        vehicles = solution.getVehicleList().toArray(new Vehicle[0]);
+        List<Location> locationList = solution.getLocationList();
+        locations = locationList.toArray(new Location[0]);
+    }
+
+    private Vehicle nextVehicle() {
+        vehicleIndex = vehicleIndex + 1 == vehicles.length ? 0 : vehicleIndex + 1;
+        return vehicles[vehicleIndex];
+    }
+
+    private Location nextLocation() {
+        // A stride that is co-prime with most sizes, so the pairs jump around the matrix.
+        locationIndex = (locationIndex + 7919) % locations.length;
+        return locations[locationIndex];
+    }
+
+    @Benchmark
+    public long vehicleTotalDistanceMeters() {
+        return nextVehicle().getTotalDistanceMeters();
+    }
+
+    @Benchmark
+    public int vehicleTotalDemand() {
+        return nextVehicle().getTotalDemand();
+    }
+
+    @Benchmark
+    public long locationDistanceTo() {
+        return nextLocation().getDistanceTo(nextLocation());
+    }
+
+    @Benchmark
+    public long euclideanCalculateDistance() {
+        return distanceCalculator.calculateDistance(nextLocation(), nextLocation());
+    }
+}
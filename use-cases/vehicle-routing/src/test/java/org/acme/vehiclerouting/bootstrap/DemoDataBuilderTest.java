@@ -32,6 +32,20 @@ class DemoDataBuilderTest {
         assertEquals(depotCount, problem.getDepotList().size());
     }
 
+    @Test
+    void same_seed_builds_same_data() {
+        VehicleRoutingSolution problem = correctBuilder().setSeed(42L).build();
+        VehicleRoutingSolution sameProblem = correctBuilder().setSeed(42L).build();
+        VehicleRoutingSolution otherProblem = correctBuilder().setSeed(43L).build();
+
+        Location location = problem.getCustomerList().get(0).getLocation();
+        Location sameLocation = sameProblem.getCustomerList().get(0).getLocation();
+        Location otherLocation = otherProblem.getCustomerList().get(0).getLocation();
+        assertEquals(location.getLatitude(), sameLocation.getLatitude());
+        assertEquals(location.getLongitude(), sameLocation.getLongitude());
+        assertTrue(location.getLatitude() != otherLocation.getLatitude());
+    }
+
     @Test
     void correct_builder_builds_ok() {
         assertNotNull(correctBuilder().build());
@@ -0,0 +1,90 @@
+package org.acme.vehiclerouting.domain.geo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.acme.vehiclerouting.domain.Location;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CachingDistanceCalculatorTest {
+
+    @TempDir
+    Path cacheDirectory;
+
+    @Test
+    void calculateDistanceMatrixOnlyOnce() throws IOException {
+        AtomicInteger calculationCount = new AtomicInteger();
+        DistanceCalculator countingCalculator = new EuclideanDistanceCalculator() {
+            @Override
+            public void calculateDistanceMatrix(List<Location> locationList, DistanceMatrix distanceMatrix) {
+                calculationCount.incrementAndGet();
+                super.calculateDistanceMatrix(locationList, distanceMatrix);
+            }
+        };
+        CachingDistanceCalculator distanceCalculator = new CachingDistanceCalculator(countingCalculator, cacheDirectory);
+
+        List<Location> locations = generateLocations(0);
+        distanceCalculator.initDistanceMaps(locations);
+        assertThat(calculationCount).hasValue(1);
+        try (Stream<Path> files = Files.list(cacheDirectory)) {
+            assertThat(files).hasSize(1);
+        }
+
+        // Same coordinates, new instances (like after a restart)
+        List<Location> sameLocations = generateLocations(0);
+        distanceCalculator.initDistanceMaps(sameLocations);
+        assertThat(calculationCount).hasValue(1);
+        assertDistances(sameLocations);
+
+        List<Location> otherLocations = generateLocations(1);
+        distanceCalculator.initDistanceMaps(otherLocations);
+        assertThat(calculationCount).hasValue(2);
+        assertDistances(otherLocations);
+    }
+
+    @Test
+    void editedRoadNetworkIsNotServedFromCache() throws IOException {
+        Path roadNetworkFile = cacheDirectory.resolve("road-network.txt");
+        List<Location> locations = List.of(new Location(0, 0.0, 0.0), new Location(1, 0.0, 0.01));
+        Files.writeString(roadNetworkFile, "2 2\n0.0 0.0\n0.0 0.01\n0 1 1000\n1 0 1000\n");
+        Path matrixCacheDirectory = cacheDirectory.resolve("matrices");
+        new CachingDistanceCalculator(new RoadNetworkDistanceCalculator(roadNetworkFile), matrixCacheDirectory)
+                .initDistanceMaps(locations);
+        assertThat(locations.get(0).getDistanceTo(locations.get(1))).isEqualTo(1000L);
+
+        // Same path, same locations, longer road.
+        Files.writeString(roadNetworkFile, "2 2\n0.0 0.0\n0.0 0.01\n0 1 3000\n1 0 3000\n");
+        new CachingDistanceCalculator(new RoadNetworkDistanceCalculator(roadNetworkFile), matrixCacheDirectory)
+                .initDistanceMaps(locations);
+        assertThat(locations.get(0).getDistanceTo(locations.get(1))).isEqualTo(3000L);
+        try (Stream<Path> files = Files.list(matrixCacheDirectory)) {
+            assertThat(files).hasSize(2);
+        }
+    }
+
+    private static List<Location> generateLocations(long seed) {
+        Random random = new Random(seed);
+        return IntStream.range(0, 50)
+                .mapToObj(i -> new Location(i, random.nextDouble(), random.nextDouble()))
+                .collect(Collectors.toList());
+    }
+
+    private static void assertDistances(List<Location> locations) {
+        EuclideanDistanceCalculator distanceCalculator = new EuclideanDistanceCalculator();
+        for (Location from : locations) {
+            for (Location to : locations) {
+                assertThat(from.getDistanceTo(to)).isEqualTo(distanceCalculator.calculateDistance(from, to));
+            }
+        }
+    }
+}
@@ -5,6 +5,9 @@ import static org.assertj.core.api.Assertions.assertThat;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import org.acme.vehiclerouting.domain.Location;
 import org.junit.jupiter.api.Test;
@@ -33,4 +36,62 @@ class EuclideanDistanceCalculatorTest {
         Map<Location, Map<Location, Long>> distanceMatrix = distanceCalculator.calculateBulkDistance(locations, locations);
         assertThat(distanceMatrix.get(a).get(b)).isEqualTo(distanceCalculator.calculateDistance(a, b));
     }
+
+    @Test
+    void distanceMatrix() {
+        long id = 0;
+        Location a = new Location(id++, 0.0, 0.0);
+        Location b = new Location(id++, 0.0, 4.0);
+        Location c = new Location(id++, 3.0, 0.0);
+        List<Location> locations = Arrays.asList(a, b, c);
+        EuclideanDistanceCalculator distanceCalculator = new EuclideanDistanceCalculator();
+        distanceCalculator.initDistanceMaps(locations);
+        assertThat(a.getIndex()).isZero();
+        assertThat(c.getIndex()).isEqualTo(2);
+        for (Location from : locations) {
+            for (Location to : locations) {
+                assertThat(from.getDistanceTo(to)).isEqualTo(distanceCalculator.calculateDistance(from, to));
+            }
+        }
+    }
+
+    @Test
+    void calculateDistanceMatrix() {
+        Random random = new Random(0);
+        List<Location> locations = IntStream.range(0, 100)
+                .mapToObj(i -> new Location(i, random.nextDouble(), random.nextDouble()))
+                .collect(Collectors.toList());
+        EuclideanDistanceCalculator distanceCalculator = new EuclideanDistanceCalculator();
+        DistanceMatrix distanceMatrix = distanceCalculator.calculateDistanceMatrix(locations);
+        assertThat(distanceMatrix.getSize()).isEqualTo(locations.size());
+        for (int from = 0; from < locations.size(); from++) {
+            for (int to = 0; to < locations.size(); to++) {
+                assertThat(distanceMatrix.getDistance(from, to))
+                        .isEqualTo(distanceCalculator.calculateDistance(locations.get(from), locations.get(to)));
+            }
+        }
+    }
+
+    @Test
+    void addToDistanceMatrix() {
+        long id = 0;
+        Location a = new Location(id++, 0.0, 0.0);
+        Location b = new Location(id++, 0.0, 4.0);
+        Location c = new Location(id++, 3.0, 0.0);
+        Location d = new Location(id++, 3.0, 4.0);
+        EuclideanDistanceCalculator distanceCalculator = new EuclideanDistanceCalculator();
+        distanceCalculator.initDistanceMaps(Arrays.asList(a, b));
+        distanceCalculator.addToDistanceMatrix(c, Arrays.asList(a, b));
+        // The location b is no longer used, so it is not in the list but keeps its index.
+        distanceCalculator.addToDistanceMatrix(d, Arrays.asList(a, c));
+        assertThat(c.getIndex()).isEqualTo(2);
+        assertThat(d.getIndex()).isEqualTo(3);
+        assertThat(d.getDistanceMatrix().getSize()).isEqualTo(4);
+        for (Location from : Arrays.asList(a, c, d)) {
+            for (Location to : Arrays.asList(a, c, d)) {
+                assertThat(from.getDistanceTo(to)).isEqualTo(distanceCalculator.calculateDistance(from, to));
+            }
+        }
+        assertThat(b.getDistanceTo(c)).isEqualTo(distanceCalculator.calculateDistance(b, c));
+    }
 }
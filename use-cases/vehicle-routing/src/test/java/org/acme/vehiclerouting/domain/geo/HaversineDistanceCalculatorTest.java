@@ -0,0 +1,45 @@
+package org.acme.vehiclerouting.domain.geo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.acme.vehiclerouting.domain.Location;
+import org.junit.jupiter.api.Test;
+
+class HaversineDistanceCalculatorTest {
+
+    @Test
+    void calculateDistance() {
+        Location a = new Location(0, 0.0, 0.0);
+        Location b = new Location(1, 1.0, 0.0);
+        Location c = new Location(2, 60.0, 0.0);
+        Location d = new Location(3, 60.0, 1.0);
+        HaversineDistanceCalculator distanceCalculator = new HaversineDistanceCalculator();
+        assertThat(distanceCalculator.calculateDistance(a, a)).isZero();
+        assertThat(distanceCalculator.calculateDistance(a, b)).isEqualTo(distanceCalculator.calculateDistance(b, a));
+        // One degree along a meridian
+        assertThat(distanceCalculator.calculateDistance(a, b)).isEqualTo(111_195L);
+        // One degree of longitude at 60° latitude is about half as long as at the equator
+        assertThat(distanceCalculator.calculateDistance(c, d)).isBetween(55_500L, 55_600L);
+    }
+
+    @Test
+    void calculateDistanceMatrix() {
+        Random random = new Random(0);
+        List<Location> locations = IntStream.range(0, 100)
+                .mapToObj(i -> new Location(i, random.nextDouble() * 10.0, random.nextDouble() * 10.0))
+                .collect(Collectors.toList());
+        HaversineDistanceCalculator distanceCalculator = new HaversineDistanceCalculator();
+        DistanceMatrix distanceMatrix = distanceCalculator.calculateDistanceMatrix(locations);
+        for (int from = 0; from < locations.size(); from++) {
+            for (int to = 0; to < locations.size(); to++) {
+                assertThat(distanceMatrix.getDistance(from, to))
+                        .isEqualTo(distanceCalculator.calculateDistance(locations.get(from), locations.get(to)));
+            }
+        }
+    }
+}
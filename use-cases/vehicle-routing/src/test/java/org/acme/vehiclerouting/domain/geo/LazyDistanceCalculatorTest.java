@@ -0,0 +1,136 @@
+package org.acme.vehiclerouting.domain.geo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.acme.vehiclerouting.domain.Location;
+import org.junit.jupiter.api.Test;
+
+class LazyDistanceCalculatorTest {
+
+    private final EuclideanDistanceCalculator euclideanDistanceCalculator = new EuclideanDistanceCalculator();
+
+    @Test
+    void smallProblemGetsDenseMatrix() {
+        List<Location> locationList = randomLocations(10);
+        new LazyDistanceCalculator(euclideanDistanceCalculator, 100, 5, 64).initDistanceMaps(locationList);
+        assertThat(locationList.get(0).getDistanceMatrix().getLazyDistanceTable()).isNull();
+        assertSameDistances(locationList);
+    }
+
+    @Test
+    void lazyMatrixHasSameDistances() {
+        List<Location> locationList = randomLocations(500);
+        // Duplicates and locations on one line stress the nearest location search.
+        for (int i = 0; i < 20; i++) {
+            locationList.add(new Location(locationList.size(), 50.0, 4.0));
+            locationList.add(new Location(locationList.size(), 50.0 + i * 0.001, 4.0));
+        }
+        // A cache much smaller than the distance count, so it evicts all the time.
+        new LazyDistanceCalculator(euclideanDistanceCalculator, 100, 8, 256).initDistanceMaps(locationList);
+        DistanceMatrix distanceMatrix = locationList.get(0).getDistanceMatrix();
+        assertThat(distanceMatrix.getLazyDistanceTable()).isNotNull();
+        assertThat(distanceMatrix.getSize()).isEqualTo(locationList.size());
+        assertSameDistances(locationList);
+        // Twice, so the second pass reads from the cache.
+        assertSameDistances(locationList);
+    }
+
+    @Test
+    void nearestDistancesArePrecalculated() {
+        List<Location> locationList = randomLocations(1000);
+        int nearestCount = 10;
+        CountingDistanceCalculator countingDistanceCalculator = new CountingDistanceCalculator();
+        new LazyDistanceCalculator(countingDistanceCalculator, 100, nearestCount, 1024)
+                .initDistanceMaps(locationList);
+        assertThat(countingDistanceCalculator.count).isEqualTo(locationList.size() * nearestCount);
+        countingDistanceCalculator.count = 0;
+        for (Location from : locationList) {
+            List<Location> nearestList = locationList.stream()
+                    .filter(to -> to != from)
+                    .sorted(Comparator.comparingLong(to -> euclideanDistanceCalculator.calculateDistance(from, to)))
+                    .limit(nearestCount - 1L)
+                    .collect(Collectors.toList());
+            for (Location to : nearestList) {
+                assertThat(from.getDistanceTo(to)).isEqualTo(euclideanDistanceCalculator.calculateDistance(from, to));
+            }
+        }
+        // One less than nearestCount, so ties on the rounded distance do not matter.
+        assertThat(countingDistanceCalculator.count).isZero();
+    }
+
+    @Test
+    void nearbyDistancesAreNotCalculated() {
+        List<Location> locationList = randomLocations(500);
+        int nearestCount = 10;
+        CountingDistanceCalculator countingDistanceCalculator = new CountingDistanceCalculator();
+        new LazyDistanceCalculator(countingDistanceCalculator, 100, nearestCount, 1024)
+                .initDistanceMaps(locationList);
+        countingDistanceCalculator.count = 0;
+        for (Location from : locationList) {
+            List<Location> sortedList = locationList.stream()
+                    .filter(to -> to != from)
+                    .sorted(Comparator.comparingLong(to -> euclideanDistanceCalculator.calculateDistance(from, to)))
+                    .collect(Collectors.toList());
+            // One less than nearestCount, so ties on the rounded distance do not matter.
+            long farthestNearestDistance = 0L;
+            for (Location to : sortedList.subList(0, nearestCount - 1)) {
+                assertThat(from.getNearbyDistanceTo(to))
+                        .isEqualTo(euclideanDistanceCalculator.calculateDistance(from, to));
+                farthestNearestDistance = Math.max(farthestNearestDistance, from.getNearbyDistanceTo(to));
+            }
+            for (Location to : sortedList.subList(nearestCount, sortedList.size())) {
+                assertThat(from.getNearbyDistanceTo(to)).isGreaterThanOrEqualTo(farthestNearestDistance);
+            }
+        }
+        assertThat(countingDistanceCalculator.count).isZero();
+    }
+
+    @Test
+    void addToDistanceMatrix() {
+        List<Location> locationList = randomLocations(200);
+        LazyDistanceCalculator distanceCalculator = new LazyDistanceCalculator(euclideanDistanceCalculator, 100, 5, 64);
+        distanceCalculator.initDistanceMaps(locationList);
+        Location location = new Location(locationList.size(), 50.5, 4.5);
+        distanceCalculator.addToDistanceMatrix(location, locationList);
+        assertThat(location.getIndex()).isEqualTo(locationList.size());
+        locationList.add(location);
+        assertThat(location.getDistanceMatrix().getSize()).isEqualTo(locationList.size());
+        assertSameDistances(locationList);
+    }
+
+    private void assertSameDistances(List<Location> locationList) {
+        for (Location from : locationList) {
+            for (Location to : locationList) {
+                assertThat(from.getDistanceTo(to)).isEqualTo(euclideanDistanceCalculator.calculateDistance(from, to));
+            }
+        }
+    }
+
+    private static List<Location> randomLocations(int size) {
+        Random random = new Random(0);
+        List<Location> locationList = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            locationList.add(new Location(i, 50.0 + random.nextDouble(), 4.0 + random.nextDouble()));
+        }
+        return locationList;
+    }
+
+    private static final class CountingDistanceCalculator implements DistanceCalculator {
+
+        private final EuclideanDistanceCalculator delegate = new EuclideanDistanceCalculator();
+        // Only read after the parallel precalculation.
+        private long count = 0L;
+
+        @Override
+        public synchronized long calculateDistance(Location from, Location to) {
+            count++;
+            return delegate.calculateDistance(from, to);
+        }
+    }
+}
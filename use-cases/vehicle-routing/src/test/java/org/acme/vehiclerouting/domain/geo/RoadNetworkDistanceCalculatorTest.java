@@ -0,0 +1,115 @@
+package org.acme.vehiclerouting.domain.geo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.acme.vehiclerouting.domain.Location;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class RoadNetworkDistanceCalculatorTest {
+
+    @TempDir
+    Path tempDirectory;
+
+    private RoadNetwork readRoadNetwork() throws IOException {
+        Path roadNetworkFile = tempDirectory.resolve("road-network.txt");
+        Files.writeString(roadNetworkFile, String.join("\n",
+                "# nodeCount edgeCount",
+                "4 5",
+                "0.0 0.0",
+                "0.0 0.01",
+                "0.01 0.01",
+                "1.0 1.0",
+                "",
+                "0 1 1000",
+                "1 0 1000",
+                "1 2 500",
+                "2 1 500",
+                "0 2 5000"));
+        return RoadNetwork.read(roadNetworkFile);
+    }
+
+    @Test
+    void findNearestNode() throws IOException {
+        RoadNetwork roadNetwork = readRoadNetwork();
+        assertThat(roadNetwork.findNearestNode(0.0, 0.0)).isEqualTo(0);
+        assertThat(roadNetwork.findNearestNode(0.001, 0.009)).isEqualTo(1);
+        assertThat(roadNetwork.findNearestNode(0.02, 0.02)).isEqualTo(2);
+        assertThat(roadNetwork.findNearestNode(0.9, 0.8)).isEqualTo(3);
+        assertThat(roadNetwork.findNearestNode(-5.0, -5.0)).isEqualTo(0);
+    }
+
+    @Test
+    void readRejectsNegativeEdgeLength() throws IOException {
+        Path roadNetworkFile = tempDirectory.resolve("negative-edge.txt");
+        Files.writeString(roadNetworkFile, String.join("\n",
+                "2 1",
+                "0.0 0.0",
+                "0.0 0.01",
+                "0 1 -1000"));
+        assertThatIllegalArgumentException().isThrownBy(() -> RoadNetwork.read(roadNetworkFile))
+                .withMessageContaining("-1000");
+    }
+
+    @Test
+    void calculateDistance() throws IOException {
+        RoadNetworkDistanceCalculator distanceCalculator = new RoadNetworkDistanceCalculator(readRoadNetwork());
+        Location a = new Location(0, 0.0, 0.0);
+        Location b = new Location(1, 0.01, 0.01);
+        Location unreachable = new Location(2, 1.0, 1.0);
+
+        assertThat(distanceCalculator.calculateDistance(a, a)).isZero();
+        // Shortest path goes through node 1, not over the direct edge
+        assertThat(distanceCalculator.calculateDistance(a, b)).isEqualTo(1500L);
+        // One-way edge 0 -> 2 is not usable in the other direction
+        assertThat(distanceCalculator.calculateDistance(b, a)).isEqualTo(1500L);
+        assertThat(distanceCalculator.calculateDistance(a, unreachable))
+                .isEqualTo(new HaversineDistanceCalculator().calculateDistance(a, unreachable));
+    }
+
+    @Test
+    void calculateDistanceMatrix() throws IOException {
+        RoadNetworkDistanceCalculator distanceCalculator = new RoadNetworkDistanceCalculator(readRoadNetwork());
+        List<Location> locations = List.of(
+                new Location(0, 0.0, 0.0),
+                new Location(1, 0.0005, 0.0095),
+                new Location(2, 0.01, 0.01),
+                new Location(3, 1.0, 1.0),
+                // Snapped to node 0, like location 0, so both rows come from the same search
+                new Location(4, 0.0002, 0.0001));
+        DistanceMatrix distanceMatrix = distanceCalculator.calculateDistanceMatrix(locations);
+        for (int from = 0; from < locations.size(); from++) {
+            for (int to = 0; to < locations.size(); to++) {
+                assertThat(distanceMatrix.getDistance(from, to))
+                        .isEqualTo(distanceCalculator.calculateDistance(locations.get(from), locations.get(to)));
+            }
+        }
+    }
+
+    @Test
+    void addToDistanceMatrix() throws IOException {
+        RoadNetworkDistanceCalculator distanceCalculator = new RoadNetworkDistanceCalculator(readRoadNetwork());
+        List<Location> locations = List.of(
+                new Location(0, 0.0, 0.0),
+                new Location(1, 0.0005, 0.0095),
+                new Location(2, 1.0, 1.0));
+        distanceCalculator.initDistanceMaps(locations);
+        Location added = new Location(3, 0.01, 0.01);
+        distanceCalculator.addToDistanceMatrix(added, locations);
+
+        assertThat(added.getIndex()).isEqualTo(3);
+        for (Location location : locations) {
+            assertThat(added.getDistanceTo(location))
+                    .isEqualTo(distanceCalculator.calculateDistance(added, location));
+            assertThat(location.getDistanceTo(added))
+                    .isEqualTo(distanceCalculator.calculateDistance(location, added));
+        }
+        assertThat(locations.get(0).getDistanceTo(added)).isEqualTo(1500L);
+    }
+}
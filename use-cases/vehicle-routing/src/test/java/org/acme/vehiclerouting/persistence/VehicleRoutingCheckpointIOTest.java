@@ -0,0 +1,124 @@
+package org.acme.vehiclerouting.persistence;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.groups.Tuple.tuple;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.acme.vehiclerouting.bootstrap.DemoDataBuilder;
+import org.acme.vehiclerouting.domain.Customer;
+import org.acme.vehiclerouting.domain.Location;
+import org.acme.vehiclerouting.domain.Vehicle;
+import org.acme.vehiclerouting.domain.VehicleRoutingSolution;
+import org.acme.vehiclerouting.domain.geo.EuclideanDistanceCalculator;
+import org.acme.vehiclerouting.persistence.VehicleRoutingCheckpointIO.Checkpoint;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.optaplanner.core.api.score.buildin.hardsoftlong.HardSoftLongScore;
+
+class VehicleRoutingCheckpointIOTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void writeAndRead() throws IOException {
+        VehicleRoutingSolution solution = DemoDataBuilder.builder()
+                .setMinDemand(1).setMaxDemand(2).setVehicleCapacity(20).setCustomerCount(30).setVehicleCount(3)
+                .setDepotCount(2)
+                .setSouthWestCorner(new Location(0L, 43.751466, 11.177210))
+                .setNorthEastCorner(new Location(0L, 43.809291, 11.290195))
+                .build();
+        // Leave the last customers unassigned.
+        List<Customer> customerList = solution.getCustomerList();
+        List<Vehicle> vehicleList = solution.getVehicleList();
+        for (int i = 0; i < customerList.size() - 5; i++) {
+            vehicleList.get(i % vehicleList.size()).getCustomerList().add(customerList.get(i));
+        }
+        solution.setScore(HardSoftLongScore.ofUninitialized(-5, -2L, -123_456L));
+        // As if customers with higher ids were added and removed again.
+        solution.setNextCustomerId(10_000L);
+
+        Path path = directory.resolve("problem-1.checkpoint");
+        VehicleRoutingCheckpointIO.write(solution, true, path);
+        // Replaces the previous checkpoint.
+        VehicleRoutingCheckpointIO.write(solution, true, path);
+        try (var pathStream = Files.list(directory)) {
+            assertThat(pathStream).containsExactly(path);
+        }
+
+        Checkpoint checkpoint = VehicleRoutingCheckpointIO.read(path);
+        assertThat(checkpoint.isSolving()).isTrue();
+        // The demo data has Euclidean distances.
+        assertThat(checkpoint.getDistanceType()).isEqualTo(new EuclideanDistanceCalculator().getCacheKey());
+        VehicleRoutingSolution readSolution = checkpoint.getSolution();
+        assertThat(readSolution.getName()).isEqualTo(solution.getName());
+        assertThat(readSolution.getScore()).isEqualTo(solution.getScore());
+        assertThat(readSolution.getNextCustomerId()).isEqualTo(10_000L);
+        assertThat(readSolution.getBounds()).extracting(Location::getLatitude)
+                .containsExactlyElementsOf(solution.getBounds().stream().map(Location::getLatitude)::iterator);
+        assertThat(readSolution.getLocationList()).extracting(Location::getId, Location::getLatitude,
+                Location::getLongitude)
+                .isEqualTo(solution.getLocationList().stream()
+                        .map(location -> tuple(location.getId(),
+                                location.getLatitude(), location.getLongitude()))
+                        .collect(Collectors.toList()));
+        assertThat(readSolution.getCustomerList()).extracting(Customer::getId, Customer::getDemand)
+                .isEqualTo(customerList.stream()
+                        .map(customer -> tuple(customer.getId(), customer.getDemand()))
+                        .collect(Collectors.toList()));
+        for (int i = 0; i < vehicleList.size(); i++) {
+            Vehicle vehicle = vehicleList.get(i);
+            Vehicle readVehicle = readSolution.getVehicleList().get(i);
+            assertThat(readVehicle.getId()).isEqualTo(vehicle.getId());
+            assertThat(readVehicle.getCapacity()).isEqualTo(vehicle.getCapacity());
+            assertThat(readVehicle.getDepot().getId()).isEqualTo(vehicle.getDepot().getId());
+            assertThat(readVehicle.getCustomerList()).extracting(Customer::getId)
+                    .containsExactlyElementsOf(vehicle.getCustomerList().stream().map(Customer::getId)::iterator);
+            // The shadow variables are restored too.
+            assertThat(readVehicle.getCustomerList()).allSatisfy(
+                    customer -> assertThat(customer.getVehicle()).isSameAs(readVehicle));
+            assertThat(readVehicle.getCustomerList().get(1).getPreviousCustomer())
+                    .isSameAs(readVehicle.getCustomerList().get(0));
+        }
+        // The locations of a depot and its customers are the same instances, as in the original.
+        int depotLocationPosition = solution.getLocationList().indexOf(solution.getDepotList().get(0).getLocation());
+        assertThat(readSolution.getDepotList().get(0).getLocation())
+                .isSameAs(readSolution.getLocationList().get(depotLocationPosition));
+        assertThat(readSolution.getCustomerList().get(customerList.size() - 1).getVehicle()).isNull();
+    }
+
+    @Test
+    void importedProblemKeepsItsDistanceType() throws IOException {
+        VehicleRoutingSolution solution = new VehicleRoutingInstanceImporter().read(Channels.newChannel(
+                new ByteArrayInputStream(VehicleRoutingInstanceImporterTest.CVRPLIB_INSTANCE
+                        .getBytes(StandardCharsets.UTF_8))));
+        Path path = directory.resolve("problem-1.checkpoint");
+        VehicleRoutingCheckpointIO.write(solution, false, path);
+        assertThat(VehicleRoutingCheckpointIO.read(path).getDistanceType())
+                .isEqualTo(VehicleRoutingInstanceImporter.EUC_2D_DISTANCE_CALCULATOR.getCacheKey());
+    }
+
+    @Test
+    void readInvalidCheckpoint() throws IOException {
+        Path path = directory.resolve("problem-1.checkpoint");
+        Files.writeString(path, "NAME : not a checkpoint\n");
+        assertThatIllegalArgumentException().isThrownBy(() -> VehicleRoutingCheckpointIO.read(path));
+
+        VehicleRoutingSolution solution = VehicleRoutingSolution.empty();
+        VehicleRoutingCheckpointIO.write(solution, false, path);
+        byte[] bytes = Files.readAllBytes(path);
+        Files.write(path, Arrays.copyOf(bytes, bytes.length / 2));
+        assertThatIllegalArgumentException().isThrownBy(() -> VehicleRoutingCheckpointIO.read(path))
+                .withMessageContaining("truncated");
+    }
+}
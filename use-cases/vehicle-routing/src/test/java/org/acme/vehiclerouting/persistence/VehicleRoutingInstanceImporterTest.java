@@ -0,0 +1,111 @@
+package org.acme.vehiclerouting.persistence;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+
+import org.acme.vehiclerouting.domain.Customer;
+import org.acme.vehiclerouting.domain.Location;
+import org.acme.vehiclerouting.domain.VehicleRoutingSolution;
+import org.junit.jupiter.api.Test;
+
+public class VehicleRoutingInstanceImporterTest {
+
+    public static final String CVRPLIB_INSTANCE = "NAME : A-n5-k2\n"
+            + "COMMENT : (Small test instance, Optimal value: 34)\n"
+            + "TYPE : CVRP\n"
+            + "DIMENSION : 5\n"
+            + "EDGE_WEIGHT_TYPE : EUC_2D\n"
+            + "CAPACITY : 10\n"
+            + "NODE_COORD_SECTION\n"
+            + " 1 0 0\n"
+            + " 2 3 4\n"
+            + " 3 -3 4\n"
+            + " 4 0 -5.5\n"
+            + " 5 6 8\n"
+            + "DEMAND_SECTION\n"
+            + "1 0\n"
+            + "2 4\n"
+            + "3 5\n"
+            + "4 6\n"
+            + "5 3\n"
+            + "DEPOT_SECTION\n"
+            + " 1\n"
+            + " -1\n"
+            + "EOF\n";
+
+    static final String SOLOMON_INSTANCE = "C101\r\n"
+            + "\r\n"
+            + "VEHICLE\r\n"
+            + "NUMBER     CAPACITY\r\n"
+            + "  25         200\r\n"
+            + "\r\n"
+            + "CUSTOMER\r\n"
+            + "CUST NO.  XCOORD.   YCOORD.    DEMAND   READY TIME  DUE DATE   SERVICE   TIME\r\n"
+            + " \r\n"
+            + "    0      40         50          0          0       1236          0   \r\n"
+            + "    1      45         68         10        912        967         90   \r\n"
+            + "    2      45         70         30        825        870         90   \r\n";
+
+    private final VehicleRoutingInstanceImporter importer = new VehicleRoutingInstanceImporter();
+
+    @Test
+    void readCvrpLib() throws IOException {
+        VehicleRoutingSolution solution = read(CVRPLIB_INSTANCE);
+
+        assertThat(solution.getName()).isEqualTo("A-n5-k2");
+        assertThat(solution.getLocationList()).hasSize(5);
+        assertThat(solution.getDepotList()).singleElement().extracting(depot -> depot.getId()).isEqualTo(1L);
+        assertThat(solution.getCustomerList()).extracting(Customer::getId).containsExactly(2L, 3L, 4L, 5L);
+        assertThat(solution.getCustomerList()).extracting(Customer::getDemand).containsExactly(4, 5, 6, 3);
+        // The vehicle count is taken from the name.
+        assertThat(solution.getVehicleList()).hasSize(2)
+                .allSatisfy(vehicle -> assertThat(vehicle.getCapacity()).isEqualTo(10));
+
+        Location depot = solution.getDepotList().get(0).getLocation();
+        Location customer = solution.getCustomerList().get(0).getLocation();
+        assertThat(customer.getLongitude()).isEqualTo(3.0);
+        assertThat(customer.getLatitude()).isEqualTo(4.0);
+        assertThat(depot.getDistanceTo(customer)).isEqualTo(5L);
+        // EUC_2D rounds to the nearest integer.
+        assertThat(depot.getDistanceTo(solution.getCustomerList().get(2).getLocation())).isEqualTo(6L);
+        assertThat(solution.getBounds().get(0).getLongitude()).isEqualTo(-3.0);
+        assertThat(solution.getBounds().get(1).getLatitude()).isEqualTo(8.0);
+    }
+
+    @Test
+    void readSolomon() throws IOException {
+        VehicleRoutingSolution solution = read(SOLOMON_INSTANCE);
+
+        assertThat(solution.getName()).isEqualTo("C101");
+        assertThat(solution.getDepotList()).singleElement().extracting(depot -> depot.getId()).isEqualTo(0L);
+        assertThat(solution.getCustomerList()).extracting(Customer::getDemand).containsExactly(10, 30);
+        assertThat(solution.getVehicleList()).hasSize(25)
+                .allSatisfy(vehicle -> assertThat(vehicle.getCapacity()).isEqualTo(200));
+        Location depot = solution.getDepotList().get(0).getLocation();
+        assertThat(depot.getDistanceTo(solution.getCustomerList().get(0).getLocation()))
+                .isEqualTo(Math.round(Math.hypot(5.0, 18.0)));
+    }
+
+    @Test
+    void rejectUnsupportedEdgeWeightType() {
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> read(CVRPLIB_INSTANCE.replace("EUC_2D", "EXPLICIT")))
+                .withMessageContaining("EXPLICIT");
+    }
+
+    @Test
+    void rejectNodeOutsideDimension() {
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> read(CVRPLIB_INSTANCE.replace(" 5 6 8", " 6 6 8")))
+                .withMessageContaining("(6)");
+    }
+
+    private VehicleRoutingSolution read(String instance) throws IOException {
+        return importer.read(Channels.newChannel(new ByteArrayInputStream(instance.getBytes(StandardCharsets.UTF_8))));
+    }
+}
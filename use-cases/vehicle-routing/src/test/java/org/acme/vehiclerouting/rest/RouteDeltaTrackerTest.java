@@ -0,0 +1,82 @@
+package org.acme.vehiclerouting.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.acme.vehiclerouting.domain.Customer;
+import org.acme.vehiclerouting.domain.Depot;
+import org.acme.vehiclerouting.domain.Location;
+import org.acme.vehiclerouting.domain.Vehicle;
+import org.acme.vehiclerouting.domain.VehicleRoutingSolution;
+import org.acme.vehiclerouting.domain.geo.EuclideanDistanceCalculator;
+import org.junit.jupiter.api.Test;
+
+class RouteDeltaTrackerTest {
+
+    private final Location depotLocation = new Location(1L, 0.0, 0.0);
+    private final Location location2 = new Location(2L, 0.0, 4.0);
+    private final Location location3 = new Location(3L, 3.0, 0.0);
+    private final Depot depot = new Depot(1L, depotLocation);
+    private final Vehicle vehicleA = new Vehicle(1L, 10, depot);
+    private final Vehicle vehicleB = new Vehicle(2L, 10, depot);
+    private final Customer customer2 = new Customer(2L, location2, 1);
+    private final Customer customer3 = new Customer(3L, location3, 1);
+    private final VehicleRoutingSolution solution = new VehicleRoutingSolution("test",
+            List.of(depotLocation, location2, location3), List.of(depot), List.of(vehicleA, vehicleB),
+            List.of(customer2, customer3), depotLocation, location2);
+
+    RouteDeltaTrackerTest() {
+        new EuclideanDistanceCalculator().initDistanceMaps(solution.getLocationList());
+    }
+
+    @Test
+    void onlyChangedVehicles() {
+        RouteDeltaTracker tracker = new RouteDeltaTracker();
+        vehicleA.getCustomerList().addAll(List.of(customer2, customer3));
+
+        RouteDelta first = tracker.update(1L, solution);
+        assertThat(first.vehicles).map(route -> route.id).containsExactly(1L, 2L);
+        assertThat(first.vehicles.get(0).customerIds).containsExactly(2L, 3L);
+
+        vehicleA.getCustomerList().remove(customer3);
+        vehicleB.getCustomerList().add(customer3);
+        RouteDelta second = tracker.update(2L, solution);
+        assertThat(second.vehicles).map(route -> route.id).containsExactly(1L, 2L);
+
+        // A new best solution with the same routes, for example after a score-only change
+        RouteDelta unchanged = tracker.update(3L, solution);
+        assertThat(unchanged.vehicles).isEmpty();
+        assertThat(tracker.isUpToDate(3L)).isTrue();
+        assertThat(tracker.isUpToDate(4L)).isFalse();
+    }
+
+    @Test
+    void demandChangeWithSameCustomers() {
+        RouteDeltaTracker tracker = new RouteDeltaTracker();
+        vehicleA.getCustomerList().add(customer2);
+        tracker.update(1L, solution);
+
+        customer2.setDemand(5);
+        RouteDelta delta = tracker.update(2L, solution);
+        assertThat(delta.vehicles).map(route -> route.id).containsExactly(1L);
+        assertThat(delta.vehicles.get(0).customerIds).containsExactly(2L);
+        assertThat(delta.vehicles.get(0).totalDemand).isEqualTo(5);
+        assertThat(tracker.snapshot().vehicles.get(0).totalDemand).isEqualTo(5);
+    }
+
+    @Test
+    void snapshotContainsAllSentRoutes() {
+        RouteDeltaTracker tracker = new RouteDeltaTracker();
+        vehicleA.getCustomerList().add(customer2);
+        tracker.update(1L, solution);
+        vehicleB.getCustomerList().add(customer3);
+        tracker.update(2L, solution);
+
+        RouteDelta snapshot = tracker.snapshot();
+        assertThat(snapshot.snapshot).isTrue();
+        assertThat(snapshot.version).isEqualTo(2L);
+        assertThat(snapshot.vehicles).map(route -> route.id).containsExactly(1L, 2L);
+        assertThat(snapshot.vehicles.get(1).customerIds).containsExactly(3L);
+    }
+}
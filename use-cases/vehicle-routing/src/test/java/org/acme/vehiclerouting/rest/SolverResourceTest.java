@@ -2,16 +2,41 @@ package org.acme.vehiclerouting.rest;
 
 import static io.restassured.RestAssured.given;
 import static org.awaitility.Awaitility.await;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.IOException;
+import java.net.URI;
+import java.net.URL;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.stream.Stream;
+
+import jakarta.inject.Inject;
+
+import io.quarkus.test.common.http.TestHTTPResource;
 import io.quarkus.test.junit.QuarkusTest;
 import io.restassured.http.ContentType;
+import io.restassured.response.ValidatableResponse;
+import org.acme.vehiclerouting.bootstrap.DemoDataBuilder;
+import org.acme.vehiclerouting.domain.Location;
+import org.acme.vehiclerouting.persistence.VehicleRoutingInstanceImporterTest;
+import org.acme.vehiclerouting.persistence.VehicleRoutingSolutionRepository;
 import org.junit.jupiter.api.Test;
 import org.optaplanner.core.api.score.buildin.hardsoft.HardSoftScore;
 
 @QuarkusTest
 public class SolverResourceTest {
 
+    @Inject
+    VehicleRoutingSolutionRepository repository;
+
+    @TestHTTPResource
+    URL url;
+
     @Test
     public void solve() {
         given()
@@ -39,4 +64,255 @@ public class SolverResourceTest {
                 .jsonPath().get("solution.score");
         assertTrue(HardSoftScore.parseScore(scoreString).isFeasible());
     }
+
+    @Test
+    public void eventsStartWithSnapshot() throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url + "vrp/problems/0/events"))
+                .header("Accept", "text/event-stream")
+                .build();
+        HttpResponse<Stream<String>> response = HttpClient.newHttpClient()
+                .send(request, HttpResponse.BodyHandlers.ofLines());
+        assertEquals(200, response.statusCode());
+        try (Stream<String> lines = response.body()) {
+            String data = lines.filter(line -> line.startsWith("data:")).findFirst().orElseThrow();
+            assertTrue(data.contains("\"snapshot\":true"), data);
+            assertTrue(data.contains("\"customerIds\""), data);
+        }
+    }
+
+    @Test
+    public void solveUnknownProblem() {
+        given()
+                .when()
+                .contentType(ContentType.JSON)
+                .post("/vrp/problems/-1/solve")
+                .then()
+                .statusCode(404);
+    }
+
+    @Test
+    public void solveRejectedWhenQueueIsFull() {
+        // Infeasible problems, so they keep solving until they are stopped.
+        List<Long> problemIds = List.of(101L, 102L, 103L, 104L);
+        for (Long problemId : problemIds) {
+            repository.update(problemId, DemoDataBuilder.builder().setMinDemand(1).setMaxDemand(2)
+                    .setVehicleCapacity(1).setCustomerCount(20).setVehicleCount(2).setDepotCount(1)
+                    .setSouthWestCorner(new Location(0L, 43.751466, 11.177210))
+                    .setNorthEastCorner(new Location(0L, 43.809291, 11.290195)).build());
+        }
+        try {
+            solve(problemIds.get(0)).statusCode(204);
+            await().until(() -> "SOLVING_ACTIVE".equals(given()
+                    .when()
+                    .get("/vrp/problems")
+                    .then()
+                    .statusCode(200)
+                    .extract().jsonPath().getString("'101'")));
+
+            // One solver, so these two wait in the queue and fill it.
+            solve(problemIds.get(1)).statusCode(204);
+            solve(problemIds.get(2)).statusCode(204);
+            solve(problemIds.get(3))
+                    .statusCode(503)
+                    .header("Retry-After", "30");
+            // A queued problem does not block the request until its solver starts.
+            given()
+                    .when()
+                    .contentType(ContentType.JSON)
+                    .body("{\"latitude\": 43.78, \"longitude\": 11.23, \"demand\": 1}")
+                    .post("/vrp/problems/" + problemIds.get(1) + "/customers")
+                    .then()
+                    .statusCode(409);
+        } finally {
+            for (Long problemId : problemIds) {
+                given().when().contentType(ContentType.JSON).post("/vrp/problems/" + problemId + "/stopSolving");
+            }
+        }
+    }
+
+    @Test
+    public void changeCustomersWhileSolving() {
+        long problemId = 105L;
+        repository.update(problemId, DemoDataBuilder.builder().setMinDemand(1).setMaxDemand(2)
+                .setVehicleCapacity(1).setCustomerCount(20).setVehicleCount(2).setDepotCount(1)
+                .setSouthWestCorner(new Location(0L, 43.751466, 11.177210))
+                .setNorthEastCorner(new Location(0L, 43.809291, 11.290195)).build());
+        given()
+                .when()
+                .contentType(ContentType.JSON)
+                .body("{\"latitude\": 43.78, \"longitude\": 11.23, \"demand\": 1}")
+                .post("/vrp/problems/" + problemId + "/customers")
+                .then()
+                .statusCode(409);
+        given()
+                .when()
+                .contentType(ContentType.JSON)
+                .body("{\"latitude\": 43.78, \"demand\": 1}")
+                .post("/vrp/problems/" + problemId + "/customers")
+                .then()
+                .statusCode(400);
+        given()
+                .when()
+                .contentType(ContentType.JSON)
+                .body("{\"latitude\": 143.78, \"longitude\": 11.23, \"demand\": 1}")
+                .post("/vrp/problems/" + problemId + "/customers")
+                .then()
+                .statusCode(400);
+        try {
+            solve(problemId).statusCode(204);
+            await().until(() -> "SOLVING_ACTIVE".equals(given()
+                    .when()
+                    .get("/vrp/problems")
+                    .then()
+                    .statusCode(200)
+                    .extract().jsonPath().getString("'" + problemId + "'")));
+
+            long customerId = given()
+                    .when()
+                    .contentType(ContentType.JSON)
+                    .body("{\"latitude\": 43.78, \"longitude\": 11.23, \"demand\": 1}")
+                    .post("/vrp/problems/" + problemId + "/customers")
+                    .then()
+                    .statusCode(200)
+                    .extract().jsonPath().getLong("id");
+            await().until(() -> repository.solution(problemId).orElseThrow().getCustomerList().stream()
+                    .anyMatch(customer -> customer.getId() == customerId && customer.getVehicle() != null));
+
+            given()
+                    .when()
+                    .contentType(ContentType.JSON)
+                    .body("2")
+                    .put("/vrp/problems/" + problemId + "/customers/" + customerId + "/demand")
+                    .then()
+                    .statusCode(204);
+            given()
+                    .when()
+                    .delete("/vrp/problems/" + problemId + "/customers/" + customerId)
+                    .then()
+                    .statusCode(204);
+            given()
+                    .when()
+                    .contentType(ContentType.JSON)
+                    .body("2")
+                    .put("/vrp/problems/" + problemId + "/customers/-1/demand")
+                    .then()
+                    .statusCode(404);
+            given()
+                    .when()
+                    .delete("/vrp/problems/" + problemId + "/customers/-1")
+                    .then()
+                    .statusCode(404);
+            await().until(() -> repository.solution(problemId).orElseThrow().getCustomerList().stream()
+                    .noneMatch(customer -> customer.getId() == customerId));
+        } finally {
+            given().when().contentType(ContentType.JSON).post("/vrp/problems/" + problemId + "/stopSolving");
+        }
+    }
+
+    @Test
+    public void addCustomerToImportedProblem() {
+        long problemId = 108L;
+        // Infeasible, so it keeps solving until it is stopped.
+        given()
+                .when()
+                .contentType(ContentType.TEXT)
+                .body("NAME : A-n3-k1\nTYPE : CVRP\nDIMENSION : 3\nEDGE_WEIGHT_TYPE : EUC_2D\nCAPACITY : 1\n"
+                        + "NODE_COORD_SECTION\n1 100 100\n2 250 300\n3 400 120\n"
+                        + "DEMAND_SECTION\n1 0\n2 2\n3 2\nDEPOT_SECTION\n 1\n -1\nEOF\n")
+                .put("/vrp/problems/" + problemId)
+                .then()
+                .statusCode(204);
+        try {
+            solve(problemId).statusCode(204);
+            await().until(() -> "SOLVING_ACTIVE".equals(given()
+                    .when()
+                    .get("/vrp/problems")
+                    .then()
+                    .statusCode(200)
+                    .extract().jsonPath().getString("'" + problemId + "'")));
+
+            // Plane coordinates, out of the range of degrees.
+            given()
+                    .when()
+                    .contentType(ContentType.JSON)
+                    .body("{\"latitude\": 143.78, \"longitude\": 211.23, \"demand\": 1}")
+                    .post("/vrp/problems/" + problemId + "/customers")
+                    .then()
+                    .statusCode(200);
+            await().until(() -> repository.solution(problemId).orElseThrow().getCustomerList().size() == 3);
+        } finally {
+            given().when().contentType(ContentType.JSON).post("/vrp/problems/" + problemId + "/stopSolving");
+        }
+    }
+
+    @Test
+    public void importProblem() {
+        given()
+                .when()
+                .contentType(ContentType.TEXT)
+                .body(VehicleRoutingInstanceImporterTest.CVRPLIB_INSTANCE)
+                .put("/vrp/problems/106")
+                .then()
+                .statusCode(204);
+        given()
+                .when()
+                .get("/vrp/problems/106/status")
+                .then()
+                .statusCode(200)
+                .body("solution.name", equalTo("A-n5-k2"))
+                .body("solution.customerList.size()", equalTo(4));
+
+        given()
+                .when()
+                .contentType(ContentType.TEXT)
+                .body("NAME : broken\nDIMENSION : 2\nNODE_COORD_SECTION\n1 0 0\n")
+                .put("/vrp/problems/107")
+                .then()
+                .statusCode(400);
+    }
+
+    @Test
+    public void columnarStatus() {
+        String json = given()
+                .when()
+                .get("/vrp/problems/0/status")
+                .then()
+                .statusCode(200)
+                .contentType(ContentType.JSON)
+                .extract().asString();
+        String columnarJson = given()
+                .when()
+                .accept(ColumnarSolution.MEDIA_TYPE)
+                .get("/vrp/problems/0/status")
+                .then()
+                .statusCode(200)
+                .contentType(ColumnarSolution.MEDIA_TYPE)
+                .body("solution.latitudes.size()", equalTo(77 + 2))
+                .body("solution.customerIds.size()", equalTo(77))
+                .body("solution.vehicleRoutes.size()", equalTo(6))
+                .extract().asString();
+        assertTrue(columnarJson.length() < json.length() / 2, "The columnar status (" + columnarJson.length()
+                + " characters) must be much smaller than the JSON status (" + json.length() + " characters).");
+    }
+
+    @Test
+    public void anyMediaTypeGetsJsonStatus() {
+        for (String path : List.of("/vrp/status", "/vrp/problems/0/status")) {
+            given()
+                    .when()
+                    .accept("*/*")
+                    .get(path)
+                    .then()
+                    .statusCode(200)
+                    .contentType(ContentType.JSON);
+        }
+    }
+
+    private static ValidatableResponse solve(long problemId) {
+        return given()
+                .when()
+                .contentType(ContentType.JSON)
+                .post("/vrp/problems/" + problemId + "/solve")
+                .then();
+    }
 }
@@ -0,0 +1,99 @@
+package org.acme.vehiclerouting.solver;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.acme.vehiclerouting.bootstrap.DemoDataBuilder;
+import org.acme.vehiclerouting.domain.Customer;
+import org.acme.vehiclerouting.domain.Depot;
+import org.acme.vehiclerouting.domain.Location;
+import org.acme.vehiclerouting.domain.Vehicle;
+import org.acme.vehiclerouting.domain.VehicleRoutingSolution;
+import org.acme.vehiclerouting.domain.solver.DepotSweepPosition;
+import org.junit.jupiter.api.Test;
+import org.optaplanner.core.api.solver.SolverFactory;
+import org.optaplanner.core.config.phase.custom.CustomPhaseConfig;
+import org.optaplanner.core.config.solver.SolverConfig;
+
+class DepotSweepConstructionHeuristicTest {
+
+    private final SolverFactory<VehicleRoutingSolution> solverFactory = SolverFactory.create(new SolverConfig()
+            .withSolutionClass(VehicleRoutingSolution.class)
+            .withEntityClasses(Vehicle.class, Customer.class)
+            .withConstraintProviderClass(VehicleRoutingConstraintProvider.class)
+            .withPhases(new CustomPhaseConfig()
+                    .withCustomPhaseCommandClassList(List.of(DepotSweepConstructionHeuristic.class))));
+
+    @Test
+    void sweepAroundNearestDepot() {
+        VehicleRoutingSolution problem = generate(40);
+
+        VehicleRoutingSolution solution = solverFactory.buildSolver().solve(problem);
+
+        assertThat(solution.getScore().isFeasible()).isTrue();
+        assertThat(solution.getCustomerList()).allSatisfy(customer -> {
+            assertThat(customer.getVehicle()).isNotNull();
+            DepotSweepPosition position = DepotSweepPosition.of(customer.getLocation(), solution.getDepotList());
+            assertThat(customer.getVehicle().getDepot())
+                    .isSameAs(solution.getDepotList().get(position.getDepotIndex()));
+        });
+    }
+
+    @Test
+    void overflowIsAlwaysAssigned() {
+        VehicleRoutingSolution problem = generate(5);
+
+        VehicleRoutingSolution solution = solverFactory.buildSolver().solve(problem);
+
+        assertThat(solution.getScore().initScore()).isZero();
+        assertThat(solution.getVehicleList().stream().mapToInt(vehicle -> vehicle.getCustomerList().size()).sum())
+                .isEqualTo(solution.getCustomerList().size());
+    }
+
+    @Test
+    void depotWithoutVehiclesIsSkipped() {
+        VehicleRoutingSolution generated = generate(40);
+        Depot emptyDepot = generated.getDepotList().get(0);
+        List<Depot> depotWithVehiclesList = generated.getDepotList().subList(1, 3);
+        List<Location> bounds = generated.getBounds();
+        VehicleRoutingSolution problem = new VehicleRoutingSolution(generated.getName(), generated.getLocationList(),
+                generated.getDepotList(),
+                generated.getVehicleList().stream()
+                        .filter(vehicle -> vehicle.getDepot() != emptyDepot)
+                        .collect(Collectors.toList()),
+                generated.getCustomerList(), bounds.get(0), bounds.get(1));
+
+        VehicleRoutingSolution solution = solverFactory.buildSolver().solve(problem);
+
+        assertThat(solution.getScore().isFeasible()).isTrue();
+        assertThat(solution.getCustomerList()).allSatisfy(customer -> {
+            // Swept around the nearest depot that has vehicles, instead of overflowing anywhere.
+            DepotSweepPosition position = DepotSweepPosition.of(customer.getLocation(), depotWithVehiclesList);
+            assertThat(customer.getVehicle().getDepot().getId())
+                    .isEqualTo(depotWithVehiclesList.get(position.getDepotIndex()).getId());
+        });
+    }
+
+    @Test
+    void noVehicles() {
+        VehicleRoutingSolution generated = generate(40);
+        List<Location> bounds = generated.getBounds();
+        VehicleRoutingSolution problem = new VehicleRoutingSolution(generated.getName(), generated.getLocationList(),
+                generated.getDepotList(), new ArrayList<>(), generated.getCustomerList(), bounds.get(0),
+                bounds.get(1));
+
+        VehicleRoutingSolution solution = solverFactory.buildSolver().solve(problem);
+
+        assertThat(solution.getCustomerList()).allMatch(customer -> customer.getVehicle() == null);
+    }
+
+    private static VehicleRoutingSolution generate(int vehicleCapacity) {
+        return DemoDataBuilder.builder().setMinDemand(1).setMaxDemand(2)
+                .setVehicleCapacity(vehicleCapacity).setCustomerCount(100).setVehicleCount(12).setDepotCount(3)
+                .setSouthWestCorner(new Location(0L, 43.751466, 11.177210))
+                .setNorthEastCorner(new Location(0L, 43.809291, 11.290195)).build();
+    }
+}
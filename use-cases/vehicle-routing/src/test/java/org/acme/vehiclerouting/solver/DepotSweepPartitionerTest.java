@@ -0,0 +1,76 @@
+package org.acme.vehiclerouting.solver;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+
+import org.acme.vehiclerouting.bootstrap.DemoDataBuilder;
+import org.acme.vehiclerouting.domain.Customer;
+import org.acme.vehiclerouting.domain.Location;
+import org.acme.vehiclerouting.domain.Vehicle;
+import org.acme.vehiclerouting.domain.VehicleRoutingSolution;
+import org.junit.jupiter.api.Test;
+
+class DepotSweepPartitionerTest {
+
+    private final DepotSweepPartitioner partitioner = new DepotSweepPartitioner();
+
+    @Test
+    void split() {
+        VehicleRoutingSolution solution = generate();
+        List<VehicleRoutingSolution> partList = partitioner.split(solution, 4);
+
+        assertThat(partList).hasSize(4);
+        assertThat(partList.stream().flatMap(part -> part.getVehicleList().stream()).map(Vehicle::getId))
+                .containsExactlyInAnyOrderElementsOf(ids(solution.getVehicleList(), Vehicle::getId));
+        assertThat(partList.stream().flatMap(part -> part.getCustomerList().stream()).map(Customer::getId))
+                .containsExactlyInAnyOrderElementsOf(ids(solution.getCustomerList(), Customer::getId));
+        for (VehicleRoutingSolution part : partList) {
+            assertThat(part.getCustomerList()).isNotEmpty();
+            assertThat(part.getCustomerList().stream().mapToInt(Customer::getDemand).sum())
+                    .isLessThanOrEqualTo(part.getVehicleList().stream().mapToInt(Vehicle::getCapacity).sum());
+            assertThat(part.getLocationList()).isSameAs(solution.getLocationList());
+        }
+        // The parts are copies
+        assertThat(partList.get(0).getVehicleList()).doesNotContainAnyElementsOf(solution.getVehicleList());
+    }
+
+    @Test
+    void splitIntoMorePartsThanVehicles() {
+        VehicleRoutingSolution solution = generate();
+        assertThat(partitioner.split(solution, 100)).hasSize(solution.getVehicleList().size());
+    }
+
+    @Test
+    void merge() {
+        VehicleRoutingSolution solution = generate();
+        List<VehicleRoutingSolution> partList = partitioner.split(solution, 3);
+        for (VehicleRoutingSolution part : partList) {
+            Vehicle vehicle = part.getVehicleList().get(0);
+            vehicle.getCustomerList().addAll(part.getCustomerList());
+        }
+
+        VehicleRoutingSolution merged = partitioner.merge(solution, partList);
+        assertThat(merged.getVehicleList()).map(Vehicle::getId)
+                .containsExactlyElementsOf(ids(solution.getVehicleList(), Vehicle::getId));
+        assertThat(merged.getCustomerList()).map(Customer::getId)
+                .containsExactlyElementsOf(ids(solution.getCustomerList(), Customer::getId));
+        assertThat(merged.getVehicleList().stream().mapToInt(vehicle -> vehicle.getCustomerList().size()).sum())
+                .isEqualTo(solution.getCustomerList().size());
+        // The original solution is untouched
+        assertThat(solution.getVehicleList()).allMatch(vehicle -> vehicle.getCustomerList().isEmpty());
+    }
+
+    private static VehicleRoutingSolution generate() {
+        return DemoDataBuilder.builder().setMinDemand(1).setMaxDemand(3)
+                .setVehicleCapacity(30).setCustomerCount(120).setVehicleCount(12).setDepotCount(3)
+                .setSouthWestCorner(new Location(0L, 43.751466, 11.177210))
+                .setNorthEastCorner(new Location(0L, 43.809291, 11.290195)).build();
+    }
+
+    private static <T> List<Long> ids(List<T> list, ToLongFunction<T> idFunction) {
+        return list.stream().map(idFunction::applyAsLong).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,66 @@
+package org.acme.vehiclerouting.solver;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import jakarta.inject.Inject;
+
+import io.quarkus.test.junit.QuarkusTest;
+import org.acme.vehiclerouting.bootstrap.DemoDataBuilder;
+import org.acme.vehiclerouting.domain.Location;
+import org.acme.vehiclerouting.domain.Vehicle;
+import org.acme.vehiclerouting.domain.VehicleRoutingSolution;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+@QuarkusTest
+class PartitionedVehicleRoutingSolverTest {
+
+    @Inject
+    PartitionedVehicleRoutingSolver partitionedSolver;
+
+    private static VehicleRoutingSolution buildProblem() {
+        return DemoDataBuilder.builder().setMinDemand(1).setMaxDemand(2)
+                .setVehicleCapacity(25).setCustomerCount(150).setVehicleCount(12).setDepotCount(2)
+                .setSouthWestCorner(new Location(0L, 43.751466, 11.177210))
+                .setNorthEastCorner(new Location(0L, 43.809291, 11.290195)).build();
+    }
+
+    @Test
+    void solvePartitions() {
+        VehicleRoutingSolution problem = buildProblem();
+
+        VehicleRoutingSolution solution = partitionedSolver.solvePartitions(problem);
+
+        assertThat(solution.getVehicleList().stream().mapToInt(vehicle -> vehicle.getCustomerList().size()).sum())
+                .isEqualTo(problem.getCustomerList().size());
+        assertThat(solution.getCustomerList()).allMatch(customer -> customer.getVehicle() != null);
+        assertThat(partitionedSolver.isApplicable(solution)).isFalse();
+        assertThat(problem.getVehicleList()).map(Vehicle::getCustomerList).allMatch(List::isEmpty);
+    }
+
+    @Test
+    @Timeout(10)
+    void terminateEarly() throws Exception {
+        VehicleRoutingSolution problem = buildProblem();
+        PartitionTermination termination = new PartitionTermination();
+        CompletableFuture<VehicleRoutingSolution> solving =
+                CompletableFuture.supplyAsync(() -> partitionedSolver.solvePartitions(problem, termination));
+        Thread.sleep(200L);
+        long terminateNanoTime = System.nanoTime();
+        termination.terminateEarly();
+
+        VehicleRoutingSolution solution = solving.get();
+        // Well before the 2s part spent limit of the test profile.
+        assertThat(Duration.ofNanos(System.nanoTime() - terminateNanoTime)).isLessThan(Duration.ofMillis(1500L));
+        assertThat(solution.getCustomerList()).hasSameSizeAs(problem.getCustomerList());
+
+        // Terminated before the parts start.
+        long startNanoTime = System.nanoTime();
+        partitionedSolver.solvePartitions(buildProblem(), termination);
+        assertThat(Duration.ofNanos(System.nanoTime() - startNanoTime)).isLessThan(Duration.ofMillis(1500L));
+    }
+}
@@ -33,7 +33,7 @@ class VehicleRoutingConstraintProviderTest {
     void vehicleCapacityUnpenalized() {
         Vehicle vehicleA = new Vehicle(1L, 100, new Depot(1L, location1));
         Customer customer1 = new Customer(2L, location2, 80);
-        vehicleA.getCustomerList().add(customer1);
+        assignCustomers(vehicleA, customer1);
 
         constraintVerifier.verifyThat(VehicleRoutingConstraintProvider::vehicleCapacity)
                 .given(vehicleA, customer1)
@@ -44,10 +44,8 @@ class VehicleRoutingConstraintProviderTest {
     void vehicleCapacityPenalized() {
         Vehicle vehicleA = new Vehicle(1L, 100, new Depot(1L, location1));
         Customer customer1 = new Customer(2L, location2, 80);
-        vehicleA.getCustomerList().add(customer1);
-
         Customer customer2 = new Customer(3L, location3, 40);
-        vehicleA.getCustomerList().add(customer2);
+        assignCustomers(vehicleA, customer1, customer2);
 
         constraintVerifier.verifyThat(VehicleRoutingConstraintProvider::vehicleCapacity)
                 .given(vehicleA, customer1, customer2)
@@ -58,12 +56,39 @@ class VehicleRoutingConstraintProviderTest {
     void totalDistance() {
         Vehicle vehicleA = new Vehicle(1L, 100, new Depot(1L, location1));
         Customer customer1 = new Customer(2L, location2, 80);
-        vehicleA.getCustomerList().add(customer1);
         Customer customer2 = new Customer(3L, location3, 40);
-        vehicleA.getCustomerList().add(customer2);
+        assignCustomers(vehicleA, customer1, customer2);
 
         constraintVerifier.verifyThat(VehicleRoutingConstraintProvider::totalDistance)
                 .given(vehicleA, customer1, customer2)
                 .penalizesBy((4 + 5 + 3) * EuclideanDistanceCalculator.METERS_PER_DEGREE);
     }
+
+    @Test
+    void totalDistanceUnassignedCustomer() {
+        Vehicle vehicleA = new Vehicle(1L, 100, new Depot(1L, location1));
+        Customer customer1 = new Customer(2L, location2, 80);
+        assignCustomers(vehicleA, customer1);
+        Customer customer2 = new Customer(3L, location3, 40);
+
+        constraintVerifier.verifyThat(VehicleRoutingConstraintProvider::totalDistance)
+                .given(vehicleA, customer1, customer2)
+                .penalizesBy((4 + 4) * EuclideanDistanceCalculator.METERS_PER_DEGREE);
+    }
+
+    /**
+     * The constraint verifier does not update shadow variables, so set them as the solver would.
+     */
+    static void assignCustomers(Vehicle vehicle, Customer... customers) {
+        Customer previousCustomer = null;
+        for (Customer customer : customers) {
+            vehicle.getCustomerList().add(customer);
+            customer.setVehicle(vehicle);
+            customer.setPreviousCustomer(previousCustomer);
+            if (previousCustomer != null) {
+                previousCustomer.setNextCustomer(customer);
+            }
+            previousCustomer = customer;
+        }
+    }
 }
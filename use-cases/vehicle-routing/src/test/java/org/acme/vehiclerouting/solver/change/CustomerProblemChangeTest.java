@@ -0,0 +1,125 @@
+package org.acme.vehiclerouting.solver.change;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.acme.vehiclerouting.bootstrap.DemoDataBuilder;
+import org.acme.vehiclerouting.domain.Customer;
+import org.acme.vehiclerouting.domain.Location;
+import org.acme.vehiclerouting.domain.Vehicle;
+import org.acme.vehiclerouting.domain.VehicleRoutingSolution;
+import org.acme.vehiclerouting.domain.geo.EuclideanDistanceCalculator;
+import org.acme.vehiclerouting.persistence.VehicleRoutingInstanceImporter;
+import org.acme.vehiclerouting.persistence.VehicleRoutingInstanceImporterTest;
+import org.acme.vehiclerouting.solver.DepotSweepConstructionHeuristic;
+import org.acme.vehiclerouting.solver.VehicleRoutingConstraintProvider;
+import org.junit.jupiter.api.Test;
+import org.optaplanner.core.api.solver.Solver;
+import org.optaplanner.core.api.solver.SolverFactory;
+import org.optaplanner.core.config.localsearch.LocalSearchPhaseConfig;
+import org.optaplanner.core.config.phase.custom.CustomPhaseConfig;
+import org.optaplanner.core.config.solver.EnvironmentMode;
+import org.optaplanner.core.config.solver.SolverConfig;
+import org.optaplanner.core.config.solver.termination.TerminationConfig;
+
+class CustomerProblemChangeTest {
+
+    private final SolverFactory<VehicleRoutingSolution> solverFactory = SolverFactory.create(new SolverConfig()
+            .withEnvironmentMode(EnvironmentMode.FULL_ASSERT)
+            .withSolutionClass(VehicleRoutingSolution.class)
+            .withEntityClasses(Vehicle.class, Customer.class)
+            .withConstraintProviderClass(VehicleRoutingConstraintProvider.class)
+            .withPhases(new CustomPhaseConfig()
+                    .withCustomPhaseCommandClassList(List.of(DepotSweepConstructionHeuristic.class)),
+                    new LocalSearchPhaseConfig()
+                            .withTerminationConfig(new TerminationConfig().withStepCountLimit(50))));
+
+    @Test
+    void addRemoveAndChangeDemandWhileSolving() {
+        VehicleRoutingSolution problem = DemoDataBuilder.builder().setMinDemand(1).setMaxDemand(2)
+                .setVehicleCapacity(15).setCustomerCount(30).setVehicleCount(4).setDepotCount(2)
+                .setSouthWestCorner(new Location(0L, 43.751466, 11.177210))
+                .setNorthEastCorner(new Location(0L, 43.809291, 11.290195)).build();
+        // The customer with the highest id, which must not be reused for the added customer.
+        long removedCustomerId = problem.getCustomerList().get(problem.getCustomerList().size() - 1).getId();
+        long changedCustomerId = problem.getCustomerList().get(1).getId();
+        int locationCount = problem.getLocationList().size();
+        // The calculator of the demo data.
+        EuclideanDistanceCalculator distanceCalculator = new EuclideanDistanceCalculator();
+
+        Solver<VehicleRoutingSolution> solver = solverFactory.buildSolver();
+        AddCustomerProblemChange addCustomerProblemChange =
+                new AddCustomerProblemChange(43.78, 11.23, 2);
+        AtomicBoolean changed = new AtomicBoolean();
+        solver.addEventListener(event -> {
+            // Once all customers are assigned, so the removed customer is taken out of its route.
+            if (event.getNewBestScore().isSolutionInitialized() && changed.compareAndSet(false, true)) {
+                solver.addProblemChanges(List.of(new RemoveCustomerProblemChange(removedCustomerId),
+                        new ChangeCustomerDemandProblemChange(changedCustomerId, 5),
+                        addCustomerProblemChange));
+            }
+        });
+        VehicleRoutingSolution solution = solver.solve(problem);
+
+        assertThat(changed).isTrue();
+        assertThat(solution.getCustomerList()).hasSize(30);
+        assertThat(solution.getCustomerList()).noneMatch(customer -> customer.getId() == removedCustomerId);
+        assertThat(solution.getCustomerList()).filteredOn(customer -> customer.getId() == changedCustomerId)
+                .singleElement().extracting(Customer::getDemand).isEqualTo(5);
+        assertThat(solution.getVehicleList().stream().mapToInt(vehicle -> vehicle.getCustomerList().size()).sum())
+                .isEqualTo(30);
+
+        Customer addedCustomer = addCustomerProblemChange.getCustomer();
+        assertThat(addedCustomer).isNotNull();
+        assertThat(addedCustomer.getId()).isGreaterThan(removedCustomerId);
+        assertThat(solution.getNextCustomerId()).isGreaterThan(addedCustomer.getId());
+        Customer workingAddedCustomer = solution.getCustomerList().stream()
+                .filter(customer -> customer.getId() == addedCustomer.getId())
+                .findFirst().orElseThrow();
+        assertThat(workingAddedCustomer.getVehicle()).isNotNull();
+        Location addedLocation = workingAddedCustomer.getLocation();
+        assertThat(addedLocation.getIndex()).isEqualTo(locationCount);
+        assertThat(solution.getLocationList()).hasSize(locationCount).contains(addedLocation);
+        for (Location location : solution.getLocationList()) {
+            assertThat(addedLocation.getDistanceTo(location))
+                    .isEqualTo(distanceCalculator.calculateDistance(addedLocation, location));
+            assertThat(location.getDistanceTo(addedLocation))
+                    .isEqualTo(distanceCalculator.calculateDistance(location, addedLocation));
+        }
+    }
+
+    @Test
+    void addCustomerToImportedProblem() throws IOException {
+        VehicleRoutingSolution problem = new VehicleRoutingInstanceImporter().read(Channels.newChannel(
+                new ByteArrayInputStream(VehicleRoutingInstanceImporterTest.CVRPLIB_INSTANCE
+                        .getBytes(StandardCharsets.UTF_8))));
+
+        Solver<VehicleRoutingSolution> solver = solverFactory.buildSolver();
+        AddCustomerProblemChange addCustomerProblemChange = new AddCustomerProblemChange(40.0, 30.0, 1);
+        AtomicBoolean changed = new AtomicBoolean();
+        solver.addEventListener(event -> {
+            if (changed.compareAndSet(false, true)) {
+                solver.addProblemChange(addCustomerProblemChange);
+            }
+        });
+        VehicleRoutingSolution solution = solver.solve(problem);
+
+        assertThat(changed).isTrue();
+        Location addedLocation = solution.getCustomerList().stream()
+                .filter(customer -> customer.getId() == addCustomerProblemChange.getCustomer().getId())
+                .findFirst().orElseThrow().getLocation();
+        // In the EUC_2D unit of the instance, not in meters.
+        for (Location location : solution.getLocationList()) {
+            assertThat(addedLocation.getDistanceTo(location)).isEqualTo(VehicleRoutingInstanceImporter
+                    .EUC_2D_DISTANCE_CALCULATOR.calculateDistance(addedLocation, location));
+            assertThat(location.getDistanceTo(addedLocation)).isEqualTo(VehicleRoutingInstanceImporter
+                    .EUC_2D_DISTANCE_CALCULATOR.calculateDistance(location, addedLocation));
+        }
+    }
+}